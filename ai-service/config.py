@@ -29,6 +29,7 @@ class Config:
 
     # ==================== gRPC Configuration ====================
     GRPC_PORT = int(os.getenv('AI_SERVICE_PORT', 50051))
+    GRPC_SOCKET_PATH = os.getenv('AI_SERVICE_SOCKET', '')  # Also listen on this Unix domain socket
     GRPC_WORKERS = int(os.getenv('AI_SERVICE_WORKERS', 4))
     GRPC_MAX_MESSAGE_LENGTH = 100 * 1024 * 1024  # 100MB
 
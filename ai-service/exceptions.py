@@ -21,3 +21,8 @@ class ModelNotFoundError(Exception):
 class FFmpegError(Exception):
     """Raised when FFmpeg operation fails"""
     pass
+
+
+class InvalidRequestError(Exception):
+    """Raised when a request stream is malformed (reported as INVALID_ARGUMENT)"""
+    pass
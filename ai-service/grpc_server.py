@@ -2,9 +2,15 @@
 gRPC server implementation for VideoAnalysisService
 """
 import asyncio
+import hmac
+import os
+import shutil
+import signal
+import tempfile
 from concurrent import futures
 
 import grpc
+from grpc_health.v1 import health, health_pb2, health_pb2_grpc
 
 # Import generated proto code
 # Note: These will be generated by running:
@@ -20,11 +26,16 @@ except ImportError:
 from config import Config
 from video_processor import VideoProcessor
 from models.factory import get_analyzer
-from exceptions import VideoProcessingError, AIServiceError, ModelNotFoundError
+from exceptions import VideoProcessingError, FFmpegError, AIServiceError, ModelNotFoundError, InvalidRequestError
 from utils.logger import setup_logger
 
 logger = setup_logger(__name__)
 
+MEDIA_CHUNK_SIZE = 1024 * 1024  # Bytes per streamed MediaChunk
+LOCAL_PATH_PROBE_BYTES = 256
+LOCALITY_MARKER_PREFIX = '.locality-'
+SHUTDOWN_GRACE_SECONDS = 30
+
 
 class VideoAnalysisServicer(video_analysis_pb2_grpc.VideoAnalysisServiceServicer):
     """Implementation of VideoAnalysisService"""
@@ -597,9 +608,234 @@ class VideoAnalysisServicer(video_analysis_pb2_grpc.VideoAnalysisServiceServicer
                 error=f"Internal error: {e}"
             )
 
+    def AnalyzeAndRefine(self, request, context):
+        """
+        Analyze video and refine the result in one call (streaming response)
+
+        Streams the raw analysis tokens (phase RAW), then the refined result (phase REFINED),
+        so the raw transcript never travels back to core-service and out again.
+
+        Args:
+            request: AnalyzeAndRefineRequest
+            context: gRPC context
+
+        Yields:
+            AnalyzeAndRefineResponse (streaming)
+        """
+        analysis = request.analysis
+        session_id = analysis.session_id
+        window_index = analysis.window_index
+        raw_phase = video_analysis_pb2.ANALYSIS_PHASE_RAW
+        refined_phase = video_analysis_pb2.ANALYSIS_PHASE_REFINED
+
+        logger.info(f"AnalyzeAndRefine called: session={session_id}, window={window_index}, model={analysis.ai_model}")
+
+        # Phase 1: raw analysis, reusing the AnalyzeVideo stream
+        raw_chunks = []
+        for response in self.AnalyzeVideo(analysis, context):
+            if response.error:
+                yield video_analysis_pb2.AnalyzeAndRefineResponse(
+                    session_id=session_id,
+                    window_index=window_index,
+                    phase=raw_phase,
+                    content="",
+                    is_final=True,
+                    error=response.error
+                )
+                return
+            raw_chunks.append(response.content)
+            yield video_analysis_pb2.AnalyzeAndRefineResponse(
+                session_id=session_id,
+                window_index=window_index,
+                phase=raw_phase,
+                content=response.content,
+                is_final=response.is_final,
+                error=""
+            )
+
+        # Phase 2: refine the raw transcript
+        try:
+            analyzer = get_analyzer(analysis.ai_model)
+            metadata = request.metadata
+            video_duration = metadata.video_duration if metadata else 0.0
+            extra_metadata = dict(metadata.custom) if metadata and metadata.custom else None
+
+            loop = asyncio.new_event_loop()
+            asyncio.set_event_loop(loop)
+            try:
+                refined = loop.run_until_complete(
+                    analyzer.refine_analysis("".join(raw_chunks), video_duration,
+                                             analysis.user_memory or "", extra_metadata)
+                )
+            finally:
+                loop.close()
+
+            logger.info(f"AnalyzeAndRefine completed: session={session_id}, window={window_index}, length={len(refined)}")
+            yield video_analysis_pb2.AnalyzeAndRefineResponse(
+                session_id=session_id,
+                window_index=window_index,
+                phase=refined_phase,
+                content=refined,
+                is_final=True,
+                error=""
+            )
+        except (ModelNotFoundError, AIServiceError) as e:
+            logger.error(f"AnalyzeAndRefine refine failed: {e}")
+            yield video_analysis_pb2.AnalyzeAndRefineResponse(
+                session_id=session_id,
+                window_index=window_index,
+                phase=refined_phase,
+                content="",
+                is_final=True,
+                error=str(e)
+            )
+        except Exception as e:
+            logger.error(f"Unexpected error in AnalyzeAndRefine: {e}")
+            yield video_analysis_pb2.AnalyzeAndRefineResponse(
+                session_id=session_id,
+                window_index=window_index,
+                phase=refined_phase,
+                content="",
+                is_final=True,
+                error=f"Internal error: {e}"
+            )
+
+    def MediaStream(self, request_iterator, context):
+        """
+        Run a media operation on streamed input files (no shared filesystem with core-service)
+
+        The first request carries the operation, the following ones the input files in chunks.
+        Inputs are written to a private work directory under their file names (so a segment
+        playlist can reference its segments), the operation runs there, and the output file is
+        streamed back in chunks before the directory is removed.
+
+        Args:
+            request_iterator: MediaStreamRequest stream
+            context: gRPC context
+
+        Yields:
+            MediaStreamResponse (streaming)
+        """
+        work_dir = tempfile.mkdtemp(prefix='media_stream_', dir=Config.TEMP_PATH)
+        try:
+            operation = None
+            files = []
+            try:
+                for request in request_iterator:
+                    if request.HasField('operation'):
+                        operation = request.operation
+                        for name in operation.input_names:
+                            if not name or os.path.basename(name) != name or name in ('.', '..'):
+                                raise VideoProcessingError(f"Invalid input name: {name!r}")
+                            files.append(open(os.path.join(work_dir, name), 'wb'))
+                    if request.HasField('chunk'):
+                        if operation is None:
+                            raise VideoProcessingError("Media chunk received before the operation")
+                        index = request.chunk.input_index
+                        if index < 0 or index >= len(files):
+                            raise InvalidRequestError(f"Invalid input index {index} ({len(files)} inputs)")
+                        files[index].write(request.chunk.data)
+            finally:
+                for f in files:
+                    f.close()
+
+            if operation is None:
+                raise VideoProcessingError("No media operation received")
+
+            inputs = [os.path.join(work_dir, name) for name in operation.input_names]
+            logger.info(f"MediaStream called: type={operation.type}, inputs={len(inputs)}")
+
+            if operation.type == 'get_video_duration':
+                duration = self.video_processor._get_video_duration(inputs[0])
+                yield video_analysis_pb2.MediaStreamResponse(duration=duration, done=True, error="")
+                return
+
+            if not operation.output_name or os.path.basename(operation.output_name) != operation.output_name:
+                raise VideoProcessingError(f"Invalid output name: {operation.output_name!r}")
+            output_path = os.path.join(work_dir, 'out_' + operation.output_name)
+
+            if operation.type == 'extract_segment':
+                self.video_processor.extract_segment(inputs[0], output_path, operation.start_time, operation.end_time)
+            elif operation.type == 'extract_tail':
+                self.video_processor.extract_tail(inputs[0], output_path, operation.duration)
+            elif operation.type == 'concat_videos':
+                self.video_processor.concat_videos(inputs, output_path)
+            else:
+                raise VideoProcessingError(f"Unknown media operation: {operation.type}")
+
+            with open(output_path, 'rb') as f:
+                while True:
+                    data = f.read(MEDIA_CHUNK_SIZE)
+                    if not data:
+                        break
+                    yield video_analysis_pb2.MediaStreamResponse(
+                        chunk=video_analysis_pb2.MediaChunk(data=data),
+                        done=False,
+                        error=""
+                    )
+            logger.info(f"MediaStream completed: type={operation.type}, output={os.path.getsize(output_path)} bytes")
+            yield video_analysis_pb2.MediaStreamResponse(done=True, error="")
+
+        except InvalidRequestError as e:
+            logger.error(f"MediaStream rejected: {e}")
+            context.set_code(grpc.StatusCode.INVALID_ARGUMENT)
+            context.set_details(str(e))
+        except (VideoProcessingError, FFmpegError) as e:
+            logger.error(f"MediaStream failed: {e}")
+            yield video_analysis_pb2.MediaStreamResponse(done=True, error=str(e))
+        except Exception as e:
+            logger.error(f"Unexpected error in MediaStream: {e}")
+            yield video_analysis_pb2.MediaStreamResponse(done=True, error=f"Internal error: {e}")
+        finally:
+            shutil.rmtree(work_dir, ignore_errors=True)
+
+    def CheckLocalPath(self, request, context):
+        """
+        Check a locality marker written by core-service (shared filesystem probe)
+
+        Only a .locality-<token> file directly under Config.TEMP_PATH is opened, and only
+        whether it holds the expected token is returned, never its content.
+
+        Args:
+            request: CheckLocalPathRequest
+            context: gRPC context
+
+        Returns:
+            CheckLocalPathResponse
+        """
+        temp_root = os.path.realpath(Config.TEMP_PATH)
+        path = os.path.realpath(request.path)
+        name = os.path.basename(path)
+        if (os.path.dirname(path) != temp_root or not name.startswith(LOCALITY_MARKER_PREFIX)
+                or not request.token or name != LOCALITY_MARKER_PREFIX + request.token):
+            logger.warning(f"CheckLocalPath: rejected path {request.path!r}")
+            return video_analysis_pb2.CheckLocalPathResponse(match=False, error="Not a locality marker")
+        try:
+            with open(path, 'rb') as f:
+                content = f.read(LOCAL_PATH_PROBE_BYTES)
+        except OSError:
+            logger.info(f"CheckLocalPath: marker {name} not readable")
+            return video_analysis_pb2.CheckLocalPathResponse(match=False, error="Marker not readable")
+        match = hmac.compare_digest(content.strip(), request.token.encode('utf-8'))
+        return video_analysis_pb2.CheckLocalPathResponse(match=match, error="")
+
+
+def _drain(server, health_servicer, reason):
+    """
+    Report NOT_SERVING so core-service routes new calls elsewhere, then let in-flight calls finish
+
+    Returns:
+        Event set once the server has stopped
+    """
+    logger.info(f"Received shutdown signal ({reason}), draining for up to {SHUTDOWN_GRACE_SECONDS}s")
+    health_servicer.enter_graceful_shutdown()
+    return server.stop(grace=SHUTDOWN_GRACE_SECONDS)
+
 
 def serve():
     """Start gRPC server"""
+    server = None
+    health_servicer = None
     try:
         # Create server with thread pool
         server = grpc.server(
@@ -615,19 +851,34 @@ def serve():
             VideoAnalysisServicer(), server
         )
 
+        # Health service (core-service probes each ai-service instance before routing to it)
+        health_servicer = health.HealthServicer()
+        health_pb2_grpc.add_HealthServicer_to_server(health_servicer, server)
+        service_name = video_analysis_pb2.DESCRIPTOR.services_by_name['VideoAnalysisService'].full_name
+        for name in ('', service_name):
+            health_servicer.set(name, health_pb2.HealthCheckResponse.SERVING)
+
         # Bind port
         port = Config.GRPC_PORT
         server.add_insecure_port(f'[::]:{port}')
+        # Unix domain socket for a core-service on the same host (skips loopback TCP)
+        if Config.GRPC_SOCKET_PATH:
+            server.add_insecure_port(f'unix:{Config.GRPC_SOCKET_PATH}')
 
         # Start server
         server.start()
-        logger.info(f"gRPC server started on port {port}")
+        logger.info(f"gRPC server started on port {port}"
+                    + (f" and socket {Config.GRPC_SOCKET_PATH}" if Config.GRPC_SOCKET_PATH else ""))
+
+        # Containers stop the process with SIGTERM: drain the same way as on Ctrl+C
+        signal.signal(signal.SIGTERM, lambda signum, frame: _drain(server, health_servicer, "SIGTERM"))
 
-        # Wait for termination
+        # Wait for termination (returns once a drain has stopped the server)
         server.wait_for_termination()
 
     except KeyboardInterrupt:
-        logger.info("Received shutdown signal")
+        if server is not None and health_servicer is not None:
+            _drain(server, health_servicer, "KeyboardInterrupt").wait()
     except Exception as e:
         logger.error(f"Server error: {e}")
         raise
@@ -80,6 +80,21 @@ class VideoAnalysisServiceStub(object):
                 request_serializer=video__analysis__pb2.ExtractUserMemoryRequest.SerializeToString,
                 response_deserializer=video__analysis__pb2.ExtractUserMemoryResponse.FromString,
                 _registered_method=True)
+        self.AnalyzeAndRefine = channel.unary_stream(
+                '/videoanalysis.VideoAnalysisService/AnalyzeAndRefine',
+                request_serializer=video__analysis__pb2.AnalyzeAndRefineRequest.SerializeToString,
+                response_deserializer=video__analysis__pb2.AnalyzeAndRefineResponse.FromString,
+                _registered_method=True)
+        self.MediaStream = channel.stream_stream(
+                '/videoanalysis.VideoAnalysisService/MediaStream',
+                request_serializer=video__analysis__pb2.MediaStreamRequest.SerializeToString,
+                response_deserializer=video__analysis__pb2.MediaStreamResponse.FromString,
+                _registered_method=True)
+        self.CheckLocalPath = channel.unary_unary(
+                '/videoanalysis.VideoAnalysisService/CheckLocalPath',
+                request_serializer=video__analysis__pb2.CheckLocalPathRequest.SerializeToString,
+                response_deserializer=video__analysis__pb2.CheckLocalPathResponse.FromString,
+                _registered_method=True)
 
 
 class VideoAnalysisServiceServicer(object):
@@ -158,6 +173,31 @@ class VideoAnalysisServiceServicer(object):
         context.set_details('Method not implemented!')
         raise NotImplementedError('Method not implemented!')
 
+    def AnalyzeAndRefine(self, request, context):
+        """Step 10: Analyze and refine in one call
+        Runs AnalyzeVideo then RefineAnalysis server-side, streaming both phases
+        """
+        context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+        context.set_details('Method not implemented!')
+        raise NotImplementedError('Method not implemented!')
+
+    def MediaStream(self, request_iterator, context):
+        """Step 11: Media operation on streamed bytes
+        For ai-service instances that do not share core-service's disk: the client sends the
+        operation, then the input files in chunks; the server answers with the output file in chunks
+        """
+        context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+        context.set_details('Method not implemented!')
+        raise NotImplementedError('Method not implemented!')
+
+    def CheckLocalPath(self, request, context):
+        """Step 12: Check whether a local path is readable by ai-service
+        Returns the beginning of the file, used by core-service to detect a shared filesystem
+        """
+        context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+        context.set_details('Method not implemented!')
+        raise NotImplementedError('Method not implemented!')
+
 
 def add_VideoAnalysisServiceServicer_to_server(servicer, server):
     rpc_method_handlers = {
@@ -206,6 +246,21 @@ def add_VideoAnalysisServiceServicer_to_server(servicer, server):
                     request_deserializer=video__analysis__pb2.ExtractUserMemoryRequest.FromString,
                     response_serializer=video__analysis__pb2.ExtractUserMemoryResponse.SerializeToString,
             ),
+            'AnalyzeAndRefine': grpc.unary_stream_rpc_method_handler(
+                    servicer.AnalyzeAndRefine,
+                    request_deserializer=video__analysis__pb2.AnalyzeAndRefineRequest.FromString,
+                    response_serializer=video__analysis__pb2.AnalyzeAndRefineResponse.SerializeToString,
+            ),
+            'MediaStream': grpc.stream_stream_rpc_method_handler(
+                    servicer.MediaStream,
+                    request_deserializer=video__analysis__pb2.MediaStreamRequest.FromString,
+                    response_serializer=video__analysis__pb2.MediaStreamResponse.SerializeToString,
+            ),
+            'CheckLocalPath': grpc.unary_unary_rpc_method_handler(
+                    servicer.CheckLocalPath,
+                    request_deserializer=video__analysis__pb2.CheckLocalPathRequest.FromString,
+                    response_serializer=video__analysis__pb2.CheckLocalPathResponse.SerializeToString,
+            ),
     }
     generic_handler = grpc.method_handlers_generic_handler(
             'videoanalysis.VideoAnalysisService', rpc_method_handlers)
@@ -460,3 +515,84 @@ class VideoAnalysisService(object):
             timeout,
             metadata,
             _registered_method=True)
+
+    @staticmethod
+    def AnalyzeAndRefine(request,
+            target,
+            options=(),
+            channel_credentials=None,
+            call_credentials=None,
+            insecure=False,
+            compression=None,
+            wait_for_ready=None,
+            timeout=None,
+            metadata=None):
+        return grpc.experimental.unary_stream(
+            request,
+            target,
+            '/videoanalysis.VideoAnalysisService/AnalyzeAndRefine',
+            video__analysis__pb2.AnalyzeAndRefineRequest.SerializeToString,
+            video__analysis__pb2.AnalyzeAndRefineResponse.FromString,
+            options,
+            channel_credentials,
+            insecure,
+            call_credentials,
+            compression,
+            wait_for_ready,
+            timeout,
+            metadata,
+            _registered_method=True)
+
+    @staticmethod
+    def MediaStream(request_iterator,
+            target,
+            options=(),
+            channel_credentials=None,
+            call_credentials=None,
+            insecure=False,
+            compression=None,
+            wait_for_ready=None,
+            timeout=None,
+            metadata=None):
+        return grpc.experimental.stream_stream(
+            request_iterator,
+            target,
+            '/videoanalysis.VideoAnalysisService/MediaStream',
+            video__analysis__pb2.MediaStreamRequest.SerializeToString,
+            video__analysis__pb2.MediaStreamResponse.FromString,
+            options,
+            channel_credentials,
+            insecure,
+            call_credentials,
+            compression,
+            wait_for_ready,
+            timeout,
+            metadata,
+            _registered_method=True)
+
+    @staticmethod
+    def CheckLocalPath(request,
+            target,
+            options=(),
+            channel_credentials=None,
+            call_credentials=None,
+            insecure=False,
+            compression=None,
+            wait_for_ready=None,
+            timeout=None,
+            metadata=None):
+        return grpc.experimental.unary_unary(
+            request,
+            target,
+            '/videoanalysis.VideoAnalysisService/CheckLocalPath',
+            video__analysis__pb2.CheckLocalPathRequest.SerializeToString,
+            video__analysis__pb2.CheckLocalPathResponse.FromString,
+            options,
+            channel_credentials,
+            insecure,
+            call_credentials,
+            compression,
+            wait_for_ready,
+            timeout,
+            metadata,
+            _registered_method=True)
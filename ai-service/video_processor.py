@@ -90,6 +90,24 @@ class VideoProcessor:
             logger.error(f"Unexpected error in slice_video: {e}")
             raise VideoProcessingError(f"Video processing failed: {e}")
 
+    @staticmethod
+    def _input_args(video_path: str) -> List[str]:
+        """
+        Build FFmpeg input arguments for a video path
+
+        Segment playlists (*.ffconcat, written by core-service for the incremental
+        master video) are read through the concat demuxer.
+
+        Args:
+            video_path: Path to video file or segment playlist
+
+        Returns:
+            Arguments to place before the input file (including -i)
+        """
+        if video_path.endswith('.ffconcat'):
+            return ['-f', 'concat', '-safe', '0', '-i', video_path]
+        return ['-i', video_path]
+
     def _get_video_duration(self, video_path: str) -> float:
         """
         Get video duration using ffprobe
@@ -106,8 +124,10 @@ class VideoProcessor:
                 '-v', 'error',
                 '-show_entries', 'format=duration',
                 '-of', 'default=noprint_wrappers=1:nokey=1',
-                video_path
             ]
+            if video_path.endswith('.ffconcat'):
+                cmd += ['-f', 'concat', '-safe', '0']
+            cmd.append(video_path)
 
             result = subprocess.run(
                 cmd,
@@ -178,7 +198,7 @@ class VideoProcessor:
             cmd = [
                 'ffmpeg',
                 '-y',  # Overwrite output file
-                '-i', input_path,
+                *self._input_args(input_path),
                 '-ss', str(start),
                 '-t', str(duration),
                 '-c:v', 'libvpx-vp9',  # VP9 video codec for WebM
@@ -338,7 +358,7 @@ class VideoProcessor:
                 '-y',
                 '-ss', str(start_time),
                 '-to', str(end_time),
-                '-i', video_path,
+                *self._input_args(video_path),
                 '-c', 'copy',  # Copy without re-encoding for speed
                 output_path
             ]
@@ -0,0 +1,50 @@
+package com.skiuo.coreservice.client;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Part;
+
+import java.io.RandomAccessFile;
+
+/**
+ * MinIO client exposing the S3 multipart upload calls, which MinioAsyncClient keeps protected
+ * (its putObject uploads the parts of one object one after another).
+ * Blocking: each call waits for its response.
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    public MinioMultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public String createMultipartUpload(String bucketName, String objectName, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        return createMultipartUploadAsync(bucketName, null, objectName, headers, null)
+                .get()
+                .result()
+                .uploadId();
+    }
+
+    /**
+     * Upload one part read from the file's current position
+     *
+     * @return ETag of the part
+     */
+    public String uploadPart(String bucketName, String objectName, String uploadId, int partNumber,
+                             RandomAccessFile file, long length) throws Exception {
+        return uploadPartAsync(bucketName, null, objectName, file, length, uploadId, partNumber, null, null)
+                .get()
+                .etag();
+    }
+
+    public void completeMultipartUpload(String bucketName, String objectName, String uploadId,
+                                        Part[] parts) throws Exception {
+        completeMultipartUploadAsync(bucketName, null, objectName, uploadId, parts, null, null).get();
+    }
+
+    public void abortMultipartUpload(String bucketName, String objectName, String uploadId) throws Exception {
+        abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null).get();
+    }
+}
@@ -0,0 +1,20 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "admission")
+@Data
+public class AdmissionConfig {
+
+    private Boolean enabled = true;
+    private Integer maxQueuedTasks = 80;  // Chunk tasks waiting in session lanes + video task pool queue
+    private Integer maxSessionLaneDepth = 5;  // Chunks of one session queued or running (429 beyond this)
+    private Integer maxAiCallsInFlight = 32;  // Concurrent AnalyzeVideo/Refine/Title/Memory calls
+    private Long minFreeDiskMb = 1024L;  // Free space required under video.temp-path after storing the chunk
+    private Double newSessionHeadroom = 0.8;  // New sessions are shed at this fraction of the limits
+    private Integer retryAfterSeconds = 5;  // Retry-After for queue/AI saturation
+    private Integer diskRetryAfterSeconds = 30;  // Retry-After when temp disk is low
+}
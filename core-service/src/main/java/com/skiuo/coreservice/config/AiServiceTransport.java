@@ -0,0 +1,70 @@
+package com.skiuo.coreservice.config;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Channel builders for ai-service addresses.
+ *
+ * host:port connects over TCP; unix:///path/to/ai.sock connects over a Unix domain socket
+ * (Netty epoll, Linux only), which skips the loopback TCP stack when ai-service runs on the
+ * same host. Domain socket channels share one epoll event loop group, created with the first
+ * such channel and shut down by {@link #close()} after the channels.
+ */
+@Slf4j
+public class AiServiceTransport implements AutoCloseable {
+
+    public static final String UNIX_SCHEME = "unix:";
+
+    private EventLoopGroup domainSocketGroup;
+
+    public static boolean isDomainSocket(String address) {
+        return address.startsWith(UNIX_SCHEME);
+    }
+
+    /**
+     * Socket file of a unix: address (unix:///abs/path, unix:/abs/path or unix:relative/path)
+     */
+    public static String socketPath(String address) {
+        String path = address.substring(UNIX_SCHEME.length());
+        return path.startsWith("//") ? path.substring(2) : path;
+    }
+
+    /**
+     * Builder of a plaintext channel to one ai-service address
+     */
+    public synchronized ManagedChannelBuilder<?> forAddress(String address) {
+        if (!isDomainSocket(address)) {
+            return ManagedChannelBuilder.forTarget(address).usePlaintext();
+        }
+        if (!Epoll.isAvailable()) {
+            throw new IllegalStateException("Unix domain socket transport requires Netty epoll (Linux): "
+                    + Epoll.unavailabilityCause());
+        }
+        if (domainSocketGroup == null) {
+            domainSocketGroup = new EpollEventLoopGroup(0, new DefaultThreadFactory("grpc-uds", true));
+        }
+        return NettyChannelBuilder.forAddress(new DomainSocketAddress(socketPath(address)))
+                .eventLoopGroup(domainSocketGroup)
+                .channelType(EpollDomainSocketChannel.class)
+                .overrideAuthority("localhost")
+                .usePlaintext();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (domainSocketGroup != null) {
+            domainSocketGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+            domainSocketGroup = null;
+        }
+    }
+}
@@ -19,6 +19,10 @@ public class AsyncConfig {
     private Integer maxPoolSize = 20;
     private Integer queueCapacity = 100;
     private String threadNamePrefix = "video-task-";
+    private Integer preparePoolSize = 4;
+    private Integer prepareQueueCapacity = 100;
+    private Integer analysisPoolSize = 8;
+    private Integer analysisQueueCapacity = 100;
 
     @Bean(name = "videoTaskExecutor")
     public Executor videoTaskExecutor() {
@@ -32,4 +36,38 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Prepare stage of the sliding window pipeline (extract segment, upload, sign URL).
+     * Kept separate from videoTaskExecutor so look-ahead work never competes with session lanes.
+     */
+    @Bean(name = "windowPrepareExecutor")
+    public Executor windowPrepareExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(preparePoolSize);
+        executor.setMaxPoolSize(preparePoolSize);
+        executor.setQueueCapacity(prepareQueueCapacity);
+        executor.setThreadNamePrefix("window-prepare-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Ordered commit of analyzed windows (stream, save, advance session) and FULL-mode saves.
+     * AI calls themselves are non-blocking, so this pool only runs short database and storage work.
+     */
+    @Bean(name = "windowAnalysisExecutor")
+    public Executor windowAnalysisExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(analysisPoolSize);
+        executor.setMaxPoolSize(analysisPoolSize);
+        executor.setQueueCapacity(analysisQueueCapacity);
+        executor.setThreadNamePrefix("window-analysis-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
 }
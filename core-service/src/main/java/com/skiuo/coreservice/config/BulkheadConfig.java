@@ -0,0 +1,15 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "grpc.ai-service.bulkhead")
+@Data
+public class BulkheadConfig {
+
+    private Integer aiAnalysisPermits = 16;  // Concurrent AnalyzeVideo streams
+    private Integer aiTextPermits = 16;  // Concurrent RefineAnalysis / GenerateTitle / ExtractUserMemory calls
+    private Integer mediaPermits = 32;  // Concurrent FFmpeg RPCs (extract, concat, probe, process)
+}
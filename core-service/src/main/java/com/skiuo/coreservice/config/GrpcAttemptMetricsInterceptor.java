@@ -0,0 +1,82 @@
+package com.skiuo.coreservice.config;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the extra attempts grpc-java makes under the channel's call policy.
+ *
+ * Every attempt of a call gets its own stream tracer; attempts after the first are
+ * counted as video.grpc.retries with type retry, hedge or transparent (a retry
+ * grpc-java does on its own when the request never reached the server).
+ * Calls ending in DEADLINE_EXCEEDED are counted as video.grpc.deadline.exceeded.
+ */
+@Component
+public class GrpcAttemptMetricsInterceptor implements ClientInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final GrpcPolicyConfig grpcPolicyConfig;
+
+    public GrpcAttemptMetricsInterceptor(MeterRegistry meterRegistry, GrpcPolicyConfig grpcPolicyConfig) {
+        this.meterRegistry = meterRegistry;
+        this.grpcPolicyConfig = grpcPolicyConfig;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        String methodName = method.getBareMethodName();
+        String extraAttemptType = grpcPolicyConfig.resolve(methodName).isHedged() ? "hedge" : "retry";
+
+        CallOptions traced = callOptions.withStreamTracerFactory(new ClientStreamTracer.Factory() {
+            @Override
+            public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+                if (info.isTransparentRetry()) {
+                    retries(methodName, "transparent").increment();
+                } else if (info.getPreviousAttempts() > 0) {
+                    retries(methodName, extraAttemptType).increment();
+                }
+                return new ClientStreamTracer() {
+                };
+            }
+        });
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, traced)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (status.getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                            Counter.builder("video.grpc.deadline.exceeded")
+                                    .description("ai-service calls that ran out of their deadline")
+                                    .tag("method", methodName)
+                                    .register(meterRegistry)
+                                    .increment();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private Counter retries(String methodName, String type) {
+        return Counter.builder("video.grpc.retries")
+                .description("Additional attempts of ai-service calls")
+                .tag("method", methodName)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
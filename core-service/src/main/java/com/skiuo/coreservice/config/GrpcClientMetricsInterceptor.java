@@ -0,0 +1,187 @@
+package com.skiuo.coreservice.config;
+
+import com.google.protobuf.MessageLite;
+import com.skiuo.grpc.AnalysisRequest;
+import com.skiuo.grpc.AnalyzeAndRefineRequest;
+import com.skiuo.grpc.ExtractUserMemoryRequest;
+import com.skiuo.grpc.GenerateTitleRequest;
+import com.skiuo.grpc.ProcessRequest;
+import com.skiuo.grpc.RefineAnalysisRequest;
+import com.skiuo.grpc.VideoAnalysisServiceGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call metrics of ai-service RPCs.
+ *
+ * Records, tagged with method, ai_model and analysis_mode (taken from the request, "none"
+ * for FFmpeg RPCs):
+ * - video.grpc.client.calls{status}: whole-call latency histogram including retries
+ * - video.grpc.client.request.bytes / response.bytes: serialized payload sizes per call
+ *   (summed over all messages of a streaming call, recorded once when it closes)
+ * - video.grpc.client.first.message and message.gap: time to the first streamed response and
+ *   between streamed responses of server- and bidi-streaming RPCs (AnalyzeVideo,
+ *   AnalyzeAndRefine, MediaStream)
+ *
+ * ai_model comes from the client's upload form, so only the models ai-service serves are
+ * used as tag values; anything else is tagged "other" to keep the meter count bounded.
+ */
+@Component
+public class GrpcClientMetricsInterceptor implements ClientInterceptor {
+
+    private static final String NONE = "none";
+    private static final String OTHER = "other";
+    private static final Set<String> AI_MODELS = Set.of("qwen", "gemini");
+
+    private final MeterRegistry meterRegistry;
+
+    public GrpcClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        if (!VideoAnalysisServiceGrpc.SERVICE_NAME.equals(method.getServiceName())) {
+            // Health checks and other services are not measured
+            return next.newCall(method, callOptions);
+        }
+
+        String methodName = method.getBareMethodName();
+        boolean streaming = method.getType() == MethodDescriptor.MethodType.SERVER_STREAMING
+                || method.getType() == MethodDescriptor.MethodType.BIDI_STREAMING;
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            private volatile String aiModel = NONE;
+            private volatile String analysisMode = NONE;
+            private long startNanos;
+            private long lastMessageNanos;
+            private volatile long requestBytes;  // Written by the caller, read when the call closes
+            private long responseBytes;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                startNanos = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                        long now = System.nanoTime();
+                        responseBytes += serializedSize(message);
+                        if (streaming) {
+                            if (lastMessageNanos == 0) {
+                                timer("video.grpc.client.first.message", "Time to the first streamed ai-service message")
+                                        .record(now - startNanos, TimeUnit.NANOSECONDS);
+                            } else {
+                                timer("video.grpc.client.message.gap", "Time between streamed ai-service messages")
+                                        .record(now - lastMessageNanos, TimeUnit.NANOSECONDS);
+                            }
+                            lastMessageNanos = now;
+                        }
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        Timer.builder("video.grpc.client.calls")
+                                .description("ai-service call latency by method and status")
+                                .tags("method", methodName, "status", status.getCode().name(),
+                                        "ai_model", aiModel, "analysis_mode", analysisMode)
+                                .publishPercentileHistogram()
+                                .register(meterRegistry)
+                                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                        bytes("video.grpc.client.request.bytes", "ai-service request payload per call")
+                                .record(requestBytes);
+                        bytes("video.grpc.client.response.bytes", "ai-service response payload per call")
+                                .record(responseBytes);
+                        super.onClose(status, trailers);
+                    }
+
+                    private Timer timer(String name, String description) {
+                        return Timer.builder(name)
+                                .description(description)
+                                .tags("method", methodName, "ai_model", aiModel, "analysis_mode", analysisMode)
+                                .publishPercentiles(0.5, 0.99)
+                                .register(meterRegistry);
+                    }
+                }, headers);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                String[] labels = labels(message);
+                aiModel = labels[0];
+                analysisMode = labels[1];
+                // Messages of one call are sent one at a time, so this is not a lost update
+                requestBytes += serializedSize(message);
+                super.sendMessage(message);
+            }
+
+            private DistributionSummary bytes(String name, String description) {
+                return DistributionSummary.builder(name)
+                        .description(description)
+                        .baseUnit("bytes")
+                        .tags("method", methodName, "ai_model", aiModel, "analysis_mode", analysisMode)
+                        .register(meterRegistry);
+            }
+        };
+    }
+
+    /**
+     * ai_model and analysis_mode of a request
+     */
+    private static String[] labels(Object request) {
+        if (request instanceof AnalysisRequest analysis) {
+            return new String[]{model(analysis.getAiModel()), label(analysis.getAnalysisMode())};
+        }
+        if (request instanceof AnalyzeAndRefineRequest fused) {
+            return labels(fused.getAnalysis());
+        }
+        if (request instanceof RefineAnalysisRequest refine) {
+            return new String[]{model(refine.getAiModel()), NONE};
+        }
+        if (request instanceof GenerateTitleRequest title) {
+            return new String[]{model(title.getAiModel()), NONE};
+        }
+        if (request instanceof ExtractUserMemoryRequest memory) {
+            return new String[]{model(memory.getAiModel()), NONE};
+        }
+        if (request instanceof ProcessRequest process) {
+            return new String[]{NONE, label(process.getAnalysisMode())};
+        }
+        return new String[]{NONE, NONE};
+    }
+
+    /**
+     * ai_model tag: a known model, "none" when unset, otherwise "other"
+     */
+    private static String model(String value) {
+        if (value == null || value.isEmpty()) {
+            return NONE;
+        }
+        String model = value.toLowerCase(Locale.ROOT);
+        return AI_MODELS.contains(model) ? model : OTHER;
+    }
+
+    private static String label(String value) {
+        return value == null || value.isEmpty() ? NONE : value;
+    }
+
+    private static long serializedSize(Object message) {
+        return message instanceof MessageLite lite ? lite.getSerializedSize() : 0;
+    }
+}
@@ -1,12 +1,18 @@
 package com.skiuo.coreservice.config;
 
+import com.skiuo.coreservice.service.AiServiceRouter;
+import com.skiuo.grpc.VideoAnalysisServiceGrpc;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServiceDescriptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -22,18 +28,96 @@ public class GrpcConfig {
     @Value("${grpc.ai-service.max-inbound-message-size:104857600}")
     private int maxInboundMessageSize;
 
-    @Bean
-    public ManagedChannel aiServiceChannel() {
-        log.info("Creating gRPC channel to ai-service: {}:{}", aiServiceHost, aiServicePort);
+    /**
+     * Unix domain socket of an ai-service on the same host (used instead of host/port when set)
+     */
+    @Value("${grpc.ai-service.socket-path:}")
+    private String aiServiceSocketPath;
 
-        return ManagedChannelBuilder
-                .forAddress(aiServiceHost, aiServicePort)
-                .usePlaintext()
+    /**
+     * ai-service targets: host:port, dns:///host:port or unix:///path entries
+     * (defaults to socket-path, else host/port above)
+     */
+    @Value("${grpc.ai-service.targets:}")
+    private List<String> aiServiceTargets;
+
+    @Value("${grpc.ai-service.load-balancing:least_request}")
+    private String loadBalancing;
+
+    @Value("${grpc.ai-service.health-check-interval-ms:5000}")
+    private long healthCheckIntervalMs;
+
+    @Value("${grpc.ai-service.separate-media-channel:true}")
+    private boolean separateMediaChannel;
+
+    @Value("${grpc.ai-service.media-failover-ms:30000}")
+    private long mediaFailoverMs;
+
+    @Bean(destroyMethod = "close")
+    public AiServiceTransport aiServiceTransport() {
+        return new AiServiceTransport();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public AiServiceRouter aiServiceRouter(AiServiceTransport aiServiceTransport,
+                                           GrpcPolicyConfig grpcPolicyConfig,
+                                           GrpcAttemptMetricsInterceptor grpcAttemptMetricsInterceptor,
+                                           GrpcClientMetricsInterceptor grpcClientMetricsInterceptor,
+                                           MeterRegistry meterRegistry) {
+        List<String> targets = aiServiceTargets.stream()
+                .map(String::trim)
+                .filter(target -> !target.isEmpty())
+                .toList();
+        if (targets.isEmpty()) {
+            targets = List.of(aiServiceSocketPath.isBlank()
+                    ? aiServiceHost + ":" + aiServicePort
+                    : AiServiceTransport.UNIX_SCHEME + "//" + aiServiceSocketPath.trim());
+        }
+        log.info("Creating gRPC router to ai-service: targets={}, loadBalancing={}", targets, loadBalancing);
+
+        return new AiServiceRouter(
+                targets,
+                AiServiceRouter.LoadBalancing.from(loadBalancing),
+                address -> aiServiceChannel(aiServiceTransport.forAddress(address), address, grpcPolicyConfig,
+                        grpcAttemptMetricsInterceptor, grpcClientMetricsInterceptor),
+                VideoAnalysisServiceGrpc.SERVICE_NAME,
+                healthCheckIntervalMs,
+                separateMediaChannel,
+                mediaFailoverMs,
+                meterRegistry);
+    }
+
+    /**
+     * Channel to one ai-service backend (same keepalive, message size and call policy over TCP
+     * or a Unix domain socket)
+     */
+    private ManagedChannel aiServiceChannel(ManagedChannelBuilder<?> transport, String address,
+                                            GrpcPolicyConfig grpcPolicyConfig,
+                                            GrpcAttemptMetricsInterceptor grpcAttemptMetricsInterceptor,
+                                            GrpcClientMetricsInterceptor grpcClientMetricsInterceptor) {
+        log.info("Creating gRPC channel to ai-service: {}", address);
+
+        ManagedChannelBuilder<?> builder = transport
                 .maxInboundMessageSize(maxInboundMessageSize)
                 .keepAliveTime(60, TimeUnit.SECONDS)
                 .keepAliveTimeout(30, TimeUnit.SECONDS)
                 .keepAliveWithoutCalls(true)
                 .idleTimeout(10, TimeUnit.MINUTES)
-                .build();
+                .intercept(grpcAttemptMetricsInterceptor, grpcClientMetricsInterceptor);
+
+        if (Boolean.TRUE.equals(grpcPolicyConfig.getEnabled())) {
+            // Deadlines, retries and hedging per method (grpc.ai-service.policy)
+            ServiceDescriptor service = VideoAnalysisServiceGrpc.getServiceDescriptor();
+            List<String> methods = service.getMethods().stream()
+                    .map(MethodDescriptor::getBareMethodName)
+                    .toList();
+            int maxAttempts = grpcPolicyConfig.maxAttempts(methods);
+            builder.defaultServiceConfig(grpcPolicyConfig.toServiceConfig(service.getName(), methods))
+                    .enableRetry()
+                    .maxRetryAttempts(maxAttempts)
+                    .maxHedgedAttempts(maxAttempts);
+        }
+
+        return builder.build();
     }
 }
@@ -0,0 +1,146 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-RPC call policy of the ai-service channel: deadline, retries and hedging.
+ *
+ * Methods are keyed by their kebab-case name (extract-segment, refine-analysis, ...);
+ * unset fields fall back to {@link #defaults}. The policy is applied as the channel's
+ * default gRPC service config, so retries and hedged attempts are handled by grpc-java
+ * itself (a streaming call is never retried once a response message has arrived).
+ * Hedging sends parallel attempts, so only enable it for read-only RPCs.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "grpc.ai-service.policy")
+@Data
+public class GrpcPolicyConfig {
+
+    private Boolean enabled = true;
+    private MethodPolicy defaults = new MethodPolicy(120L, 1, 500L, 10000L, 2.0, List.of("UNAVAILABLE"), 0, 1000L);
+    private Map<String, MethodPolicy> methods = new HashMap<>();
+
+    @Data
+    public static class MethodPolicy {
+        private Long deadlineSeconds;        // Whole-call deadline including retries
+        private Integer maxAttempts;         // 1 = no retry
+        private Long initialBackoffMs;
+        private Long maxBackoffMs;
+        private Double backoffMultiplier;
+        private List<String> retryableStatusCodes;  // gRPC status names, also non-fatal codes when hedging
+        private Integer hedgedAttempts;      // > 1 replaces retries with hedged attempts
+        private Long hedgingDelayMs;         // Delay before each additional hedged attempt
+
+        public MethodPolicy() {
+        }
+
+        public MethodPolicy(Long deadlineSeconds, Integer maxAttempts, Long initialBackoffMs, Long maxBackoffMs,
+                            Double backoffMultiplier, List<String> retryableStatusCodes,
+                            Integer hedgedAttempts, Long hedgingDelayMs) {
+            this.deadlineSeconds = deadlineSeconds;
+            this.maxAttempts = maxAttempts;
+            this.initialBackoffMs = initialBackoffMs;
+            this.maxBackoffMs = maxBackoffMs;
+            this.backoffMultiplier = backoffMultiplier;
+            this.retryableStatusCodes = retryableStatusCodes;
+            this.hedgedAttempts = hedgedAttempts;
+            this.hedgingDelayMs = hedgingDelayMs;
+        }
+
+        public boolean isHedged() {
+            return hedgedAttempts != null && hedgedAttempts > 1;
+        }
+    }
+
+    /**
+     * Effective policy of a method (method overrides on top of the defaults)
+     *
+     * @param bareMethodName gRPC method name, e.g. ExtractSegment
+     */
+    public MethodPolicy resolve(String bareMethodName) {
+        MethodPolicy override = methods.get(toKey(bareMethodName));
+        if (override == null) {
+            return defaults;
+        }
+        return new MethodPolicy(
+                override.getDeadlineSeconds() != null ? override.getDeadlineSeconds() : defaults.getDeadlineSeconds(),
+                override.getMaxAttempts() != null ? override.getMaxAttempts() : defaults.getMaxAttempts(),
+                override.getInitialBackoffMs() != null ? override.getInitialBackoffMs() : defaults.getInitialBackoffMs(),
+                override.getMaxBackoffMs() != null ? override.getMaxBackoffMs() : defaults.getMaxBackoffMs(),
+                override.getBackoffMultiplier() != null ? override.getBackoffMultiplier() : defaults.getBackoffMultiplier(),
+                override.getRetryableStatusCodes() != null ? override.getRetryableStatusCodes() : defaults.getRetryableStatusCodes(),
+                override.getHedgedAttempts() != null ? override.getHedgedAttempts() : defaults.getHedgedAttempts(),
+                override.getHedgingDelayMs() != null ? override.getHedgingDelayMs() : defaults.getHedgingDelayMs());
+    }
+
+    /**
+     * Build the gRPC service config (JSON-like map) for the given methods of a service
+     *
+     * @param serviceName     Fully qualified service name
+     * @param bareMethodNames Methods of the service
+     */
+    public Map<String, Object> toServiceConfig(String serviceName, Collection<String> bareMethodNames) {
+        List<Object> methodConfigs = new ArrayList<>();
+        for (String method : bareMethodNames) {
+            MethodPolicy policy = resolve(method);
+
+            Map<String, Object> methodConfig = new LinkedHashMap<>();
+            methodConfig.put("name", List.of(Map.of("service", serviceName, "method", method)));
+            if (policy.getDeadlineSeconds() != null && policy.getDeadlineSeconds() > 0) {
+                methodConfig.put("timeout", policy.getDeadlineSeconds() + "s");
+            }
+
+            // Service config numbers must be doubles and durations strings
+            if (policy.isHedged()) {
+                Map<String, Object> hedging = new LinkedHashMap<>();
+                hedging.put("maxAttempts", (double) policy.getHedgedAttempts());
+                hedging.put("hedgingDelay", seconds(policy.getHedgingDelayMs()));
+                hedging.put("nonFatalStatusCodes", policy.getRetryableStatusCodes());
+                methodConfig.put("hedgingPolicy", hedging);
+            } else if (policy.getMaxAttempts() != null && policy.getMaxAttempts() > 1
+                    && policy.getRetryableStatusCodes() != null && !policy.getRetryableStatusCodes().isEmpty()) {
+                Map<String, Object> retry = new LinkedHashMap<>();
+                retry.put("maxAttempts", (double) policy.getMaxAttempts());
+                retry.put("initialBackoff", seconds(policy.getInitialBackoffMs()));
+                retry.put("maxBackoff", seconds(policy.getMaxBackoffMs()));
+                retry.put("backoffMultiplier", policy.getBackoffMultiplier());
+                retry.put("retryableStatusCodes", policy.getRetryableStatusCodes());
+                methodConfig.put("retryPolicy", retry);
+            }
+            methodConfigs.add(methodConfig);
+        }
+        return Map.of("methodConfig", methodConfigs);
+    }
+
+    /**
+     * Highest attempt count of any method (the channel caps attempts at this value)
+     */
+    public int maxAttempts(Collection<String> bareMethodNames) {
+        int max = 1;
+        for (String method : bareMethodNames) {
+            MethodPolicy policy = resolve(method);
+            max = Math.max(max, policy.isHedged() ? policy.getHedgedAttempts() : policy.getMaxAttempts());
+        }
+        return max;
+    }
+
+    /**
+     * ExtractSegment -> extract-segment
+     */
+    static String toKey(String bareMethodName) {
+        return bareMethodName.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase();
+    }
+
+    private static String seconds(Long millis) {
+        return (millis / 1000.0) + "s";
+    }
+}
@@ -0,0 +1,15 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "storage.local")
+@Data
+public class LocalStorageConfig {
+
+    private String directory;  // Root directory of the stored objects
+    private String publicUrl;  // Base URL of core-service as seen by ai-service / the model
+    private String signingKey;  // HMAC key of object URLs (random per start when empty)
+}
@@ -0,0 +1,18 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "media")
+@Data
+public class MediaConfig {
+
+    private String backend = "grpc";  // grpc (ai-service over gRPC) | local (ffmpeg/ffprobe run by core-service)
+    private String ffmpegPath = "ffmpeg";
+    private String ffprobePath = "ffprobe";
+    private Integer maxProcesses = 4;  // Concurrent local ffmpeg/ffprobe processes (local backend)
+    private Long ffmpegTimeoutSeconds = 600L;  // Kill a local ffmpeg run after this long
+    private Long ffprobeTimeoutSeconds = 30L;  // Kill a local ffprobe run after this long
+}
@@ -0,0 +1,34 @@
+package com.skiuo.coreservice.config;
+
+import com.skiuo.coreservice.service.GrpcClientService;
+import com.skiuo.coreservice.service.GrpcMediaOps;
+import com.skiuo.coreservice.service.LocalMediaOps;
+import com.skiuo.coreservice.service.MediaOps;
+import com.skiuo.coreservice.service.VideoDurationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class MediaOpsConfig {
+
+    /**
+     * Media operations backend selected by media.backend (grpc | local).
+     * The inferred destroy method kills local processes still running on shutdown.
+     */
+    @Bean
+    public MediaOps mediaOps(MediaConfig mediaConfig, VideoConfig videoConfig,
+                             GrpcClientService grpcClientService, MeterRegistry meterRegistry) {
+        VideoDurationCache durationCache = new VideoDurationCache(videoConfig.getDurationCacheSize(), meterRegistry);
+
+        MediaOps mediaOps = switch (mediaConfig.getBackend().toLowerCase()) {
+            case "grpc" -> new GrpcMediaOps(grpcClientService, durationCache);
+            case "local" -> new LocalMediaOps(mediaConfig, durationCache, meterRegistry);
+            default -> throw new IllegalArgumentException("Unknown media.backend: " + mediaConfig.getBackend());
+        };
+        log.info("Media operations backend: {}", mediaOps);
+        return mediaOps;
+    }
+}
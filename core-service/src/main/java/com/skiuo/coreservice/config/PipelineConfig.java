@@ -0,0 +1,17 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pipeline")
+@Data
+public class PipelineConfig {
+
+    private Boolean recoveryEnabled = true;
+    private Integer leaseSeconds = 120;  // A job whose owner missed heartbeats for this long is recovered
+    private Long heartbeatIntervalMs = 30000L;  // Lease renewal of jobs held by this instance
+    private Long recoveryIntervalMs = 60000L;  // Periodic scan (in addition to the startup scan)
+    private Integer maxAttempts = 3;  // Recoveries of one job before its session is marked FAILED
+}
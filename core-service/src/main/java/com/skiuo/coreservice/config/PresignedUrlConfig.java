@@ -0,0 +1,15 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "storage.presigned-url")
+@Data
+public class PresignedUrlConfig {
+
+    private Long ttlSeconds = 3600L;  // Validity of a signed URL
+    private Long minRemainingSeconds = 900L;  // Re-sign once less validity than this is left
+    private Integer cacheSize = 10000;  // Cached URLs (least recently used evicted)
+}
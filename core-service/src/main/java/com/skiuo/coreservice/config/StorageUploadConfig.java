@@ -0,0 +1,15 @@
+package com.skiuo.coreservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "storage.multipart")
+@Data
+public class StorageUploadConfig {
+
+    private Integer thresholdMb = 64;  // Large-file uploads below this size go as one PUT
+    private Integer partSizeMb = 16;  // Part size (raised to the 5 MB minimum / 10000-part limit)
+    private Integer concurrency = 4;  // Parts uploaded at once, across all uploads
+}
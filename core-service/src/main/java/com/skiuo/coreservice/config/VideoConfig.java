@@ -12,4 +12,11 @@ public class VideoConfig {
     private String tempPath = "/Users/hupax/ski/temp";
     private Integer windowSize = 15;  // Overridden by application.yml: ${VIDEO_WINDOW_SIZE:15}
     private Integer windowStep = 10;  // Overridden by application.yml: ${VIDEO_WINDOW_STEP:10}
+    private Integer pipelineDepth = 2;  // Windows extracted/uploaded ahead of the AI stage
+    private Integer catchUpParallelism = 3;  // Concurrent AI stages when several windows are due (1 = serial)
+    private Boolean streamRawTokens = true;  // Push raw AI tokens as provisional results before refinement
+    private Boolean fusedAnalysis = true;  // Analyze + refine in one AnalyzeAndRefine call (falls back when unsupported)
+    private Integer durationReconcileInterval = 10;  // Full master probe every N chunks (and on the last chunk)
+    private Integer durationCacheSize = 1024;  // Probed durations kept, keyed by (path, size, mtime)
+    private String masterMode = "incremental";  // incremental (segment playlist) | concat (rewrite master per chunk)
 }
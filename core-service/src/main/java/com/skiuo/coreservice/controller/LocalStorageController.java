@@ -0,0 +1,134 @@
+package com.skiuo.coreservice.controller;
+
+import com.skiuo.coreservice.exception.StorageException;
+import com.skiuo.coreservice.service.LocalStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves objects of the local storage backend through their signed URLs.
+ *
+ * Supports single byte ranges (206 / 416); a multi-range request gets the whole file.
+ * The body is handed to Tomcat's sendfile when the connector supports it, so the file goes
+ * from page cache to socket without passing through the JVM; otherwise it is copied with
+ * FileChannel.transferTo.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class LocalStorageController {
+
+    // Tomcat sendfile request attributes (org.apache.coyote.Constants / Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalStorageService localStorageService;
+
+    /**
+     * Download object
+     * GET /storage/local/{objectName}?expires=...&signature=...
+     */
+    @GetMapping(LocalStorageService.URL_PATH + "{*objectName}")
+    public void getObject(@PathVariable String objectName,
+                          @RequestParam long expires,
+                          @RequestParam String signature,
+                          @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        String name = objectName.startsWith("/") ? objectName.substring(1) : objectName;
+        if (!localStorageService.verify(name, expires, signature)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid or expired signature");
+            return;
+        }
+
+        Path file;
+        try {
+            file = localStorageService.resolve(name);
+        } catch (StorageException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+        if (rangeHeader != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        // HttpRange clamps the end to the file but not the start
+                        throw new IllegalArgumentException("Range starts beyond the object: " + rangeHeader);
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);  // Exclusive
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // Client went away mid-download (the model aborted or retried)
+            log.debug("Local object download of {} interrupted: {}", name, e.getMessage());
+        }
+    }
+}
@@ -7,11 +7,13 @@ import com.skiuo.coreservice.entity.Session;
 import com.skiuo.coreservice.entity.VideoChunk;
 import com.skiuo.coreservice.repository.SessionRepository;
 import com.skiuo.coreservice.repository.VideoChunkRepository;
+import com.skiuo.coreservice.service.AdmissionControlService;
 import com.skiuo.coreservice.service.AnalysisService;
 import com.skiuo.coreservice.service.VideoProcessingService;
 import com.skiuo.coreservice.service.VideoUploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,6 +36,7 @@ public class VideoController {
     private final SessionRepository sessionRepository;
     private final VideoChunkRepository videoChunkRepository;
     private final AuthServiceClient authServiceClient;
+    private final AdmissionControlService admissionControlService;
 
     /**
      * Upload video chunk
@@ -70,6 +73,19 @@ public class VideoController {
             log.info("Received video upload: sessionId={}, userId={}, chunkIndex={}, size={}",
                     sessionId, userId, chunkIndex, file.getSize());
 
+            // Admission control: refuse before the chunk is written to temp storage
+            AdmissionControlService.Decision decision = admissionControlService.admit(sessionId, file.getSize());
+            if (!decision.isAdmitted()) {
+                return ResponseEntity.status(decision.getStatus())
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.getRetryAfterSeconds()))
+                        .body(VideoUploadResponse.builder()
+                                .sessionId(sessionId)
+                                .status("REJECTED")
+                                .message("Server busy (" + decision.getReason() + "), retry after "
+                                        + decision.getRetryAfterSeconds() + "s")
+                                .build());
+            }
+
             // Parse analysis mode
             Session.AnalysisMode mode = Session.AnalysisMode.valueOf(analysisMode.toUpperCase());
 
@@ -0,0 +1,106 @@
+package com.skiuo.coreservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted unit of pipeline work (one uploaded chunk, or the completion of a session).
+ * Window progress itself is durable through sessions.last_window_start_time and
+ * analysis_records, so replaying a chunk job resumes windows where they stopped.
+ */
+@Entity
+@Table(name = "pipeline_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "job_type", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private JobType jobType;
+
+    @Column(name = "chunk_id")
+    private Long chunkId;
+
+    @Column(name = "chunk_index")
+    private Integer chunkIndex;
+
+    @Column(name = "local_path", length = 500)
+    private String localPath;  // Uploaded chunk file under video.temp-path
+
+    @Column(name = "last_chunk")
+    private Boolean lastChunk;
+
+    @Column(name = "appended")
+    private Boolean appended;  // Chunk is already part of the master video (skip on replay)
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    @Column(name = "attempts")
+    private Integer attempts;
+
+    @Column(name = "owner", length = 100)
+    private String owner;  // Instance that holds the lease
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (heartbeatAt == null) {
+            heartbeatAt = LocalDateTime.now();
+        }
+        if (status == null) {
+            status = JobStatus.PENDING;
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+        if (appended == null) {
+            appended = false;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum JobType {
+        CHUNK,
+        COMPLETION
+    }
+
+    public enum JobStatus {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
@@ -0,0 +1,66 @@
+package com.skiuo.coreservice.repository;
+
+import com.skiuo.coreservice.entity.PipelineJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PipelineJobRepository extends JpaRepository<PipelineJob, Long> {
+
+    /**
+     * Unfinished jobs whose lease has expired, in submission order per session
+     */
+    @Query("SELECT j FROM PipelineJob j WHERE j.status IN :statuses AND j.heartbeatAt < :cutoff " +
+           "ORDER BY j.sessionId ASC, j.id ASC")
+    List<PipelineJob> findStale(@Param("statuses") Collection<PipelineJob.JobStatus> statuses,
+                                @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Take over an expired lease (no-op if another instance claimed or renewed it first)
+     *
+     * @return 1 if claimed, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PipelineJob j SET j.owner = :owner, j.heartbeatAt = :now, j.attempts = j.attempts + 1 " +
+           "WHERE j.id = :id AND j.heartbeatAt < :cutoff AND j.status IN :statuses")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("cutoff") LocalDateTime cutoff,
+              @Param("statuses") Collection<PipelineJob.JobStatus> statuses);
+
+    /**
+     * Record a state transition of a job, only while this instance still owns its lease
+     *
+     * @return 1 if updated, 0 if the job was claimed by another instance
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PipelineJob j SET j.status = :status, j.appended = :appended, j.lastError = :lastError, " +
+           "j.heartbeatAt = :now, j.updatedAt = :now WHERE j.id = :id AND j.owner = :owner")
+    int updateOwned(@Param("id") Long id,
+                    @Param("owner") String owner,
+                    @Param("status") PipelineJob.JobStatus status,
+                    @Param("appended") Boolean appended,
+                    @Param("lastError") String lastError,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Renew the lease of jobs held by this instance
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PipelineJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.owner = :owner")
+    int heartbeat(@Param("ids") Collection<Long> ids,
+                  @Param("owner") String owner,
+                  @Param("now") LocalDateTime now);
+}
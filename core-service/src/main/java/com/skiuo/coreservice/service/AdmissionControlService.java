@@ -0,0 +1,181 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.AdmissionConfig;
+import com.skiuo.coreservice.config.VideoConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+/**
+ * Admission control for chunk uploads.
+ *
+ * Uploads are checked against the pipeline backlog before the chunk is written to
+ * video.temp-path, so overload shows up as a 429/503 with Retry-After at the edge
+ * instead of a 202 followed by a rejected task or a FAILED session. Signals:
+ * - queued chunk tasks (session lanes + video task pool queue)
+ * - chunk tasks of the uploading session (per-session backpressure, 429)
+ * - AI calls in flight
+ * - free disk under the temp path
+ * Chunks of running sessions get the full limits; new sessions are shed earlier
+ * (admission.new-session-headroom) so recordings in progress keep going.
+ */
+@Service
+@Slf4j
+public class AdmissionControlService {
+
+    private final AdmissionConfig admissionConfig;
+    private final VideoConfig videoConfig;
+    private final SessionTaskExecutor sessionTaskExecutor;
+    private final GrpcClientService grpcClientService;
+    private final Executor videoTaskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Counter admitted;
+
+    public AdmissionControlService(AdmissionConfig admissionConfig,
+                                   VideoConfig videoConfig,
+                                   SessionTaskExecutor sessionTaskExecutor,
+                                   GrpcClientService grpcClientService,
+                                   @Qualifier("videoTaskExecutor") Executor videoTaskExecutor,
+                                   MeterRegistry meterRegistry) {
+        this.admissionConfig = admissionConfig;
+        this.videoConfig = videoConfig;
+        this.sessionTaskExecutor = sessionTaskExecutor;
+        this.grpcClientService = grpcClientService;
+        this.videoTaskExecutor = videoTaskExecutor;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("video.admission.queue.depth", this, AdmissionControlService::queuedTasks)
+                .description("Chunk tasks waiting in session lanes and the video task pool")
+                .register(meterRegistry);
+        Gauge.builder("video.admission.ai.inflight", grpcClientService, GrpcClientService::getAiCallsInFlight)
+                .description("AI model calls currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("video.admission.temp.free", this, AdmissionControlService::freeTempBytes)
+                .description("Usable disk space under video.temp-path")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.admitted = Counter.builder("video.admission.admitted")
+                .description("Chunk uploads admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decide whether a chunk upload can be accepted
+     *
+     * @param sessionId Existing session ID, or null for a new session
+     * @param fileSize  Size of the uploaded chunk in bytes
+     * @return Admission decision (rejections carry the HTTP status and Retry-After)
+     */
+    public Decision admit(Long sessionId, long fileSize) {
+        if (!Boolean.TRUE.equals(admissionConfig.getEnabled())) {
+            return Decision.ADMITTED;
+        }
+
+        // New sessions are shed first so recordings in progress keep their chunks flowing
+        double headroom = sessionId == null ? admissionConfig.getNewSessionHeadroom() : 1.0;
+
+        long freeBytes = freeTempBytes();
+        long minFreeBytes = admissionConfig.getMinFreeDiskMb() * 1024 * 1024;
+        if (freeBytes - fileSize < minFreeBytes / headroom) {
+            return reject(Reason.TEMP_DISK_LOW, sessionId,
+                    String.format("free=%dMB, required=%dMB", freeBytes / (1024 * 1024), admissionConfig.getMinFreeDiskMb()));
+        }
+
+        int queued = queuedTasks();
+        if (queued >= admissionConfig.getMaxQueuedTasks() * headroom) {
+            return reject(Reason.QUEUE_FULL, sessionId,
+                    String.format("queued=%d, limit=%d", queued, admissionConfig.getMaxQueuedTasks()));
+        }
+
+        int aiInFlight = grpcClientService.getAiCallsInFlight();
+        if (aiInFlight >= admissionConfig.getMaxAiCallsInFlight() * headroom) {
+            return reject(Reason.AI_SATURATED, sessionId,
+                    String.format("inFlight=%d, limit=%d", aiInFlight, admissionConfig.getMaxAiCallsInFlight()));
+        }
+
+        if (sessionId != null) {
+            int laneDepth = sessionTaskExecutor.laneDepth(sessionId);
+            if (laneDepth >= admissionConfig.getMaxSessionLaneDepth()) {
+                return reject(Reason.SESSION_BACKLOG, sessionId,
+                        String.format("laneDepth=%d, limit=%d", laneDepth, admissionConfig.getMaxSessionLaneDepth()));
+            }
+        }
+
+        admitted.increment();
+        return Decision.ADMITTED;
+    }
+
+    /**
+     * Chunk tasks waiting to run: per-session lanes plus the video task pool queue
+     */
+    public int queuedTasks() {
+        int poolQueued = videoTaskExecutor instanceof ThreadPoolTaskExecutor pool
+                ? pool.getThreadPoolExecutor().getQueue().size()
+                : 0;
+        return sessionTaskExecutor.queuedTasks() + poolQueued;
+    }
+
+    /**
+     * Usable bytes on the file system holding video.temp-path
+     */
+    public long freeTempBytes() {
+        File tempDir = new File(videoConfig.getTempPath());
+        while (tempDir != null && !tempDir.exists()) {
+            tempDir = tempDir.getParentFile();
+        }
+        return tempDir != null ? tempDir.getUsableSpace() : 0L;
+    }
+
+    private Decision reject(Reason reason, Long sessionId, String detail) {
+        Counter.builder("video.admission.rejected")
+                .description("Chunk uploads rejected by admission control")
+                .tag("reason", reason.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+
+        int retryAfter = reason == Reason.TEMP_DISK_LOW
+                ? admissionConfig.getDiskRetryAfterSeconds()
+                : admissionConfig.getRetryAfterSeconds();
+        HttpStatus status = reason == Reason.SESSION_BACKLOG
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+
+        log.warn("Upload rejected by admission control: sessionId={}, reason={}, {}, retryAfter={}s",
+                sessionId, reason, detail, retryAfter);
+        return new Decision(false, reason, status, retryAfter);
+    }
+
+    /**
+     * Why an upload was rejected
+     */
+    public enum Reason {
+        QUEUE_FULL,        // Pipeline backlog over admission.max-queued-tasks
+        AI_SATURATED,      // AI calls in flight over admission.max-ai-calls-in-flight
+        TEMP_DISK_LOW,     // Free temp disk under admission.min-free-disk-mb
+        SESSION_BACKLOG    // This session is ahead of its own processing
+    }
+
+    /**
+     * Admission decision
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Decision {
+        static final Decision ADMITTED = new Decision(true, null, HttpStatus.ACCEPTED, 0);
+
+        private final boolean admitted;
+        private final Reason reason;
+        private final HttpStatus status;
+        private final int retryAfterSeconds;
+    }
+}
@@ -0,0 +1,387 @@
+package com.skiuo.coreservice.service;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Client-side routing across ai-service instances.
+ *
+ * Targets are static host:port or unix:///path entries (Unix domain socket, see
+ * AiServiceTransport) or dns:///host:port names; a DNS name expands to one backend per resolved
+ * address and is re-resolved on every health round. Each backend has its
+ * own channel and is probed with the gRPC health protocol (a server without the health service
+ * answers UNIMPLEMENTED and counts as healthy).
+ *
+ * AI RPCs go to {@link #balanced()}: the healthy backend with the fewest calls in flight
+ * (least_request) or the next one in turn (round_robin). When no backend is healthy all of them
+ * are used, and calls fail or retry per the call policy.
+ *
+ * FFmpeg RPCs go to {@link #forKey(String)}. In path mode they work on files local to one node
+ * (a session's segments and playlist live on the backend that wrote them), so a session must
+ * stay put: rendezvous hashing runs over every configured backend, healthy or not, and a
+ * session only moves once its backend has been unhealthy for longer than mediaFailoverMs
+ * (a single failed probe does not strand its files on another node).
+ *
+ * With separateMediaChannel each backend gets a second channel (its own HTTP/2 connection)
+ * for FFmpeg RPCs, so open AI streams never hold up short media calls at the transport.
+ */
+@Slf4j
+public class AiServiceRouter {
+
+    private static final String DNS_SCHEME = "dns";
+
+    public enum LoadBalancing {
+        ROUND_ROBIN,
+        LEAST_REQUEST;
+
+        public static LoadBalancing from(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private final List<String> targets;
+    private final LoadBalancing loadBalancing;
+    private final Function<String, ManagedChannel> channelFactory;
+    private final String healthServiceName;
+    private final long healthCheckIntervalMs;
+    private final boolean separateMediaChannel;
+    private final long mediaFailoverMs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Backend> backends = new ConcurrentHashMap<>();
+    private final AtomicLong rotation = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-service-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param targets               host:port or dns:///host:port entries
+     * @param loadBalancing         Balancing of AI RPCs
+     * @param channelFactory        Builds the channel of one backend address (host:port)
+     * @param healthServiceName     Service name sent in health checks
+     * @param healthCheckIntervalMs Health probe and DNS refresh interval (0 disables health checks)
+     * @param separateMediaChannel  Open a second channel per backend for FFmpeg RPCs
+     * @param mediaFailoverMs       How long a session's backend must stay unhealthy before its
+     *                              FFmpeg RPCs move to the next backend
+     */
+    public AiServiceRouter(List<String> targets, LoadBalancing loadBalancing,
+                           Function<String, ManagedChannel> channelFactory, String healthServiceName,
+                           long healthCheckIntervalMs, boolean separateMediaChannel, long mediaFailoverMs,
+                           MeterRegistry meterRegistry) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("At least one ai-service target is required");
+        }
+        this.targets = List.copyOf(targets);
+        this.loadBalancing = loadBalancing;
+        this.channelFactory = channelFactory;
+        this.healthServiceName = healthServiceName;
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+        this.separateMediaChannel = separateMediaChannel;
+        this.mediaFailoverMs = mediaFailoverMs;
+        this.meterRegistry = meterRegistry;
+
+        refreshBackends();
+
+        Gauge.builder("video.grpc.backends", backends, Map::size)
+                .description("ai-service backends known to the router")
+                .register(meterRegistry);
+        Gauge.builder("video.grpc.backends.healthy", this, router -> router.healthyBackends().size())
+                .description("ai-service backends passing health checks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start periodic health checks and DNS refresh
+     */
+    public void start() {
+        if (healthCheckIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::healthRound, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("ai-service router started: targets={}, backends={}, loadBalancing={}",
+                targets, backends.keySet(), loadBalancing);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        backends.values().forEach(Backend::shutdownNow);
+    }
+
+    /**
+     * Channel for calls that can run on any backend (AI model RPCs)
+     */
+    public Channel balanced() {
+        List<Backend> candidates = candidates();
+        if (candidates.size() == 1) {
+            return candidates.get(0).counted;
+        }
+
+        int offset = (int) Math.floorMod(rotation.getAndIncrement(), (long) candidates.size());
+        if (loadBalancing == LoadBalancing.ROUND_ROBIN) {
+            return candidates.get(offset).counted;
+        }
+
+        // Least request: fewest calls in flight, ties broken by rotation
+        Backend best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Backend backend = candidates.get((offset + i) % candidates.size());
+            if (best == null || backend.inFlight.get() < best.inFlight.get()) {
+                best = backend;
+            }
+        }
+        return best.counted;
+    }
+
+    /**
+     * Channel pinned to a routing key (FFmpeg RPCs of one session).
+     * Backends are ranked by rendezvous score over all of them; the first one that is healthy,
+     * or unhealthy for less than mediaFailoverMs, is used (the top one when none is).
+     *
+     * @param key Routing key, e.g. the session ID
+     */
+    public Channel forKey(String key) {
+        List<Backend> ranked = new ArrayList<>(backends.values());
+        ranked.sort(Comparator.comparingLong((Backend backend) -> rendezvousScore(key, backend.address)).reversed()
+                .thenComparing(backend -> backend.address));
+        long now = System.currentTimeMillis();
+        for (Backend backend : ranked) {
+            if (backend.healthy || now - backend.unhealthySinceMs < mediaFailoverMs) {
+                return backend.media;
+            }
+        }
+        return ranked.get(0).media;
+    }
+
+    private List<Backend> candidates() {
+        List<Backend> healthy = healthyBackends();
+        if (!healthy.isEmpty()) {
+            return healthy;
+        }
+        List<Backend> all = new ArrayList<>(backends.values());
+        all.sort((a, b) -> a.address.compareTo(b.address));
+        return all;
+    }
+
+    private List<Backend> healthyBackends() {
+        List<Backend> healthy = new ArrayList<>();
+        for (Backend backend : backends.values()) {
+            if (backend.healthy) {
+                healthy.add(backend);
+            }
+        }
+        // Stable order so round-robin and rendezvous hashing see the same list on every call
+        healthy.sort((a, b) -> a.address.compareTo(b.address));
+        return healthy;
+    }
+
+    private static long rendezvousScore(String key, String address) {
+        CRC32 crc = new CRC32();
+        crc.update((key + "@" + address).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private void healthRound() {
+        try {
+            refreshBackends();
+            backends.values().forEach(this::checkHealth);
+        } catch (Exception e) {
+            log.warn("ai-service health round failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resolve targets to backend addresses, opening channels for new ones and closing removed ones
+     */
+    private synchronized void refreshBackends() {
+        Set<String> addresses = new LinkedHashSet<>();
+        for (String target : targets) {
+            addresses.addAll(resolve(target));
+        }
+        if (addresses.isEmpty()) {
+            // Keep the current backends rather than routing nowhere on a DNS hiccup
+            log.warn("No ai-service addresses resolved for targets {}", targets);
+            return;
+        }
+
+        for (String address : addresses) {
+            backends.computeIfAbsent(address, this::openBackend);
+        }
+        for (String address : List.copyOf(backends.keySet())) {
+            if (!addresses.contains(address)) {
+                Backend removed = backends.remove(address);
+                meterRegistry.remove(removed.inFlightGauge);
+                removed.shutdown();
+                log.info("Removed ai-service backend: {}", address);
+            }
+        }
+    }
+
+    private List<String> resolve(String target) {
+        if (!target.startsWith(DNS_SCHEME + ":")) {
+            return List.of(target.trim());
+        }
+        URI uri = URI.create(target.trim());
+        String authority = uri.getPath() != null && uri.getPath().length() > 1 ? uri.getPath().substring(1) : uri.getSchemeSpecificPart();
+        String hostName = authority.substring(0, authority.lastIndexOf(':'));
+        String port = authority.substring(authority.lastIndexOf(':') + 1);
+        try {
+            List<String> addresses = new ArrayList<>();
+            for (InetAddress address : InetAddress.getAllByName(hostName)) {
+                String host = address instanceof Inet6Address ? "[" + address.getHostAddress() + "]" : address.getHostAddress();
+                addresses.add(host + ":" + port);
+            }
+            return addresses;
+        } catch (UnknownHostException e) {
+            // Fall back to the name itself; the backend's channel keeps resolving it
+            log.warn("Failed to resolve ai-service target {}: {}", target, e.getMessage());
+            return List.of(authority);
+        }
+    }
+
+    private Backend openBackend(String address) {
+        ManagedChannel channel = channelFactory.apply(address);
+        ManagedChannel mediaChannel = separateMediaChannel ? channelFactory.apply(address) : channel;
+        Backend backend = new Backend(address, channel, mediaChannel);
+        backend.inFlightGauge = Gauge.builder("video.grpc.backend.inflight", backend.inFlight, AtomicInteger::get)
+                .description("Calls in flight per ai-service backend")
+                .tag("backend", address)
+                .register(meterRegistry);
+        log.info("Added ai-service backend: {}", address);
+        return backend;
+    }
+
+    private void checkHealth(Backend backend) {
+        HealthGrpc.newStub(backend.channel)
+                .withDeadlineAfter(Math.max(1000, healthCheckIntervalMs / 2), TimeUnit.MILLISECONDS)
+                .check(HealthCheckRequest.newBuilder().setService(healthServiceName).build(),
+                        new StreamObserver<HealthCheckResponse>() {
+                            @Override
+                            public void onNext(HealthCheckResponse response) {
+                                backend.setHealthy(response.getStatus() == HealthCheckResponse.ServingStatus.SERVING);
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                                // No health service on the server: treat reachability as health
+                                backend.setHealthy(Status.fromThrowable(t).getCode() == Status.Code.UNIMPLEMENTED);
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                            }
+                        });
+    }
+
+    /**
+     * One ai-service address with its own channel and in-flight count
+     */
+    private static final class Backend {
+        private final String address;
+        private final ManagedChannel channel;
+        private final ManagedChannel mediaChannel;
+        private final Channel counted;  // AI RPCs
+        private final Channel media;    // FFmpeg RPCs
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean healthy = true;  // Until the first probe says otherwise
+        private volatile long unhealthySinceMs;
+        private Gauge inFlightGauge;
+
+        private Backend(String address, ManagedChannel channel, ManagedChannel mediaChannel) {
+            this.address = address;
+            this.channel = channel;
+            this.mediaChannel = mediaChannel;
+            this.counted = ClientInterceptors.intercept(channel, new InFlightInterceptor(inFlight));
+            this.media = ClientInterceptors.intercept(mediaChannel, new InFlightInterceptor(inFlight));
+        }
+
+        private void shutdown() {
+            channel.shutdown();
+            mediaChannel.shutdown();
+        }
+
+        private void shutdownNow() {
+            channel.shutdownNow();
+            mediaChannel.shutdownNow();
+        }
+
+        private void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                log.warn("ai-service backend {} is now {}", address, healthy ? "healthy" : "unhealthy");
+                if (!healthy) {
+                    unhealthySinceMs = System.currentTimeMillis();
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+
+    /**
+     * Counts calls between start and close on one backend
+     */
+    private static final class InFlightInterceptor implements ClientInterceptor {
+        private final AtomicInteger inFlight;
+
+        private InFlightInterceptor(AtomicInteger inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    inFlight.incrementAndGet();
+                    try {
+                        super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                            @Override
+                            public void onClose(Status status, Metadata trailers) {
+                                inFlight.decrementAndGet();
+                                super.onClose(status, trailers);
+                            }
+                        }, headers);
+                    } catch (RuntimeException e) {
+                        inFlight.decrementAndGet();
+                        throw e;
+                    }
+                }
+            };
+        }
+    }
+}
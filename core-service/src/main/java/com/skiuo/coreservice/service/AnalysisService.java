@@ -91,6 +91,7 @@ public class AnalysisService {
 
     /**
      * Send streaming result to WebSocket clients
+     * (final refined content; replaces any provisional content of the window)
      *
      * @param sessionId   Session ID
      * @param windowIndex Window index
@@ -118,6 +119,35 @@ public class AnalysisService {
         }
     }
 
+    /**
+     * Send a raw (provisional) token chunk to WebSocket clients.
+     * Clients append provisional chunks for a window and replace them when the
+     * refined analysis_result for the same window arrives.
+     *
+     * @param sessionId   Session ID
+     * @param windowIndex Window index
+     * @param content     Raw token chunk
+     */
+    public void sendProvisionalResult(Long sessionId, Integer windowIndex, String content) {
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "analysis_raw");
+            message.put("sessionId", sessionId);
+            message.put("windowIndex", windowIndex);
+            message.put("content", content);
+            message.put("timestamp", System.currentTimeMillis());
+
+            messagingTemplate.convertAndSend("/topic/session/" + sessionId, message);
+
+        } catch (Exception e) {
+            log.error("Failed to send provisional WebSocket message: {}", e.getMessage());
+            // Don't throw - WebSocket failures shouldn't break processing
+        }
+    }
+
     /**
      * Get all analysis records for a session
      */
@@ -0,0 +1,166 @@
+package com.skiuo.coreservice.service;
+
+import io.grpc.Context;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking permit pool for one category of ai-service calls.
+ *
+ * A call starts right away while permits are free; otherwise it waits in FIFO order and is
+ * started by the call that releases a permit. No thread is parked while waiting. Queue wait
+ * is recorded as video.grpc.bulkhead.wait{category}.
+ *
+ * Handing a permit over only starts the next call (the supplier returns its future without
+ * blocking). When queued calls fail synchronously, each failure releases again on the same
+ * thread; those hand-offs are queued on a per-thread trampoline and started in a loop, so
+ * draining a long queue never grows the stack.
+ */
+public class Bulkhead {
+
+    // Hand-offs made on this thread while it is already starting handed-off calls
+    private static final ThreadLocal<Deque<Runnable>> trampoline = new ThreadLocal<>();
+
+    private final String category;
+    private final int permits;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private final Timer waitTimer;
+    private int inUse;
+
+    public Bulkhead(String category, int permits, MeterRegistry meterRegistry) {
+        this.category = category;
+        this.permits = Math.max(1, permits);
+        this.waitTimer = Timer.builder("video.grpc.bulkhead.wait")
+                .description("Time ai-service calls waited for a bulkhead permit")
+                .tag("category", category)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        Gauge.builder("video.grpc.bulkhead.in.use", this, Bulkhead::inUse)
+                .description("Bulkhead permits held by running ai-service calls")
+                .tag("category", category)
+                .register(meterRegistry);
+        Gauge.builder("video.grpc.bulkhead.queued", this, Bulkhead::queued)
+                .description("ai-service calls waiting for a bulkhead permit")
+                .tag("category", category)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start a call once a permit is available; the permit is held until the call's future completes
+     *
+     * @param call Starts the call and returns its future
+     * @return Future completed with the call's result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+
+        Runnable start = () -> {
+            waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            if (result.isDone()) {
+                // Cancelled by the caller while waiting
+                release();
+                return;
+            }
+
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (Throwable t) {
+                future = CompletableFuture.failedFuture(t);
+            }
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        boolean runNow;
+        synchronized (this) {
+            runNow = inUse < permits;
+            if (runNow) {
+                inUse++;
+            } else {
+                // Start in the caller's gRPC context, so cancelling it also cancels a queued call
+                waiting.addLast(Context.current().wrap(start));
+            }
+        }
+        if (runNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    /**
+     * Hand the permit to the next waiting call, or return it to the pool
+     */
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) {
+                inUse--;
+            }
+        }
+        if (next != null) {
+            startHandedOff(next);
+        }
+    }
+
+    /**
+     * Start a call that was handed a permit: in a loop on the outermost release of this thread,
+     * queued behind it on nested ones
+     */
+    private static void startHandedOff(Runnable start) {
+        Deque<Runnable> pending = trampoline.get();
+        if (pending != null) {
+            pending.addLast(start);
+            return;
+        }
+
+        pending = new ArrayDeque<>();
+        trampoline.set(pending);
+        RuntimeException failure = null;
+        try {
+            for (Runnable next = start; next != null; next = pending.pollFirst()) {
+                try {
+                    next.run();
+                } catch (RuntimeException e) {
+                    // Keep starting the others: each of them already holds a permit
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        } finally {
+            trampoline.remove();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public synchronized int inUse() {
+        return inUse;
+    }
+
+    public synchronized int queued() {
+        return waiting.size();
+    }
+}
@@ -26,6 +26,7 @@ public class CleanupService {
     private final StorageServiceFactory storageServiceFactory;
     private final SessionRepository sessionRepository;
     private final VideoChunkRepository videoChunkRepository;
+    private final MasterVideoService masterVideoService;
 
     /**
      * Cleanup after video processing completes
@@ -78,15 +79,15 @@ public class CleanupService {
                     try {
                         StorageService storageService = storageServiceFactory.getStorageService(session.getStorageType());
                         String storagePath = "sessions/" + session.getId() + "/master_video_final.webm";
-                        storageService.uploadFile(session.getMasterVideoPath(), storagePath);
+                        storageService.uploadLargeFile(masterVideoService.materialize(session), storagePath);
                         log.info("Uploaded final master video to storage: {}", storagePath);
                     } catch (Exception e) {
                         log.error("Failed to upload master video to storage: {}", e.getMessage());
                     }
                 }
 
-                // Always delete local master video
-                deleteLocalFile(session.getMasterVideoPath());
+                // Always delete local master video (including playlist segments)
+                masterVideoService.deleteMasterFiles(session.getMasterVideoPath());
                 log.info("Deleted local master video: {}", session.getMasterVideoPath());
 
                 // Clear master video path in session
@@ -117,7 +118,8 @@ public class CleanupService {
 
     /**
      * Scheduled task: cleanup old temporary files
-     * Runs every hour, deletes files older than 2 hours
+     * Runs every hour, deletes files older than 2 hours.
+     * Segments of a master playlist are kept while the playlist itself is still being appended to.
      */
     @Scheduled(fixedRate = 3600000) // 1 hour
     public void cleanupOldTempFiles() {
@@ -133,8 +135,13 @@ public class CleanupService {
                     .filter(Files::isRegularFile)
                     .filter(path -> {
                         try {
+                            Path reference = path;
+                            Path playlist = path.resolveSibling(MasterVideoService.PLAYLIST_NAME);
+                            if (path.getFileName().toString().startsWith("segment_") && Files.exists(playlist)) {
+                                reference = playlist;
+                            }
                             LocalDateTime fileTime = LocalDateTime.ofInstant(
-                                    Files.getLastModifiedTime(path).toInstant(),
+                                    Files.getLastModifiedTime(reference).toInstant(),
                                     java.time.ZoneId.systemDefault()
                             );
                             return fileTime.isBefore(twoHoursAgo);
@@ -3,8 +3,15 @@ package com.skiuo.coreservice.service;
 import com.qcloud.cos.COSClient;
 import com.qcloud.cos.exception.CosClientException;
 import com.qcloud.cos.exception.CosServiceException;
+import com.qcloud.cos.exception.MultiObjectDeleteException;
 import com.qcloud.cos.http.HttpMethodName;
+import com.qcloud.cos.model.AbortMultipartUploadRequest;
+import com.qcloud.cos.model.CompleteMultipartUploadRequest;
+import com.qcloud.cos.model.DeleteObjectsRequest;
+import com.qcloud.cos.model.InitiateMultipartUploadRequest;
+import com.qcloud.cos.model.PartETag;
 import com.qcloud.cos.model.PutObjectRequest;
+import com.qcloud.cos.model.UploadPartRequest;
 import com.qcloud.cos.model.GeneratePresignedUrlRequest;
 import com.skiuo.coreservice.config.CosConfig;
 import com.skiuo.coreservice.exception.StorageException;
@@ -13,8 +20,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -23,9 +39,19 @@ public class CosService implements StorageService {
 
     private final COSClient cosClient;
     private final CosConfig cosConfig;
+    private final StorageReadiness storageReadiness;
+    private final MultipartUploader multipartUploader;
+    private final PresignedUrlCache presignedUrlCache;
 
+    /**
+     * Ensure the bucket is ready (checked once, then cached by StorageReadiness)
+     */
     @Override
     public void ensureStorageReady() {
+        storageReadiness.ensureReady("cos", this::verifyBucket);
+    }
+
+    private void verifyBucket() {
         try {
             if (!cosClient.doesBucketExist(cosConfig.getBucketName())) {
                 throw new StorageException("COS bucket does not exist: " + cosConfig.getBucketName());
@@ -42,14 +68,14 @@ public class CosService implements StorageService {
 
     @Override
     public String uploadFile(String localFilePath, String objectName) {
-        try {
-            ensureStorageReady();
+        ensureStorageReady();
 
-            File file = new File(localFilePath);
-            if (!file.exists()) {
-                throw new StorageException("File not found: " + localFilePath);
-            }
+        File file = new File(localFilePath);
+        if (!file.exists()) {
+            throw new StorageException("File not found: " + localFilePath);
+        }
 
+        try {
             // Create put request
             PutObjectRequest putObjectRequest = new PutObjectRequest(
                     cosConfig.getBucketName(),
@@ -64,9 +90,13 @@ public class CosService implements StorageService {
             return objectName;
 
         } catch (CosServiceException e) {
+            if ("NoSuchBucket".equals(e.getErrorCode())) {
+                storageReadiness.invalidate("cos");
+            }
             log.error("Failed to upload file to COS: {}", e.getMessage());
             throw new StorageException("Failed to upload file to COS", e);
         } catch (CosClientException e) {
+            storageReadiness.invalidate("cos");
             log.error("Failed to connect to COS during upload: {}", e.getMessage());
             throw new StorageException("Failed to connect to COS during upload", e);
         } catch (Exception e) {
@@ -75,12 +105,69 @@ public class CosService implements StorageService {
         }
     }
 
+    /**
+     * Upload a large file to COS as parallel parts (single PUT below the multipart threshold)
+     */
+    @Override
+    public String uploadLargeFile(String localFilePath, String objectName) {
+        File file = new File(localFilePath);
+        if (!file.exists()) {
+            throw new StorageException("File not found: " + localFilePath);
+        }
+        if (!multipartUploader.isMultipart(file.length())) {
+            return uploadFile(localFilePath, objectName);
+        }
+
+        ensureStorageReady();
+        String bucket = cosConfig.getBucketName();
+        multipartUploader.upload("cos", file.toPath(), file.length(), new MultipartUploader.Target() {
+            @Override
+            public String initiate() {
+                return cosClient.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, objectName))
+                        .getUploadId();
+            }
+
+            @Override
+            public String uploadPart(String uploadId, int partNumber, Path path, long offset, long length) throws IOException {
+                try (InputStream data = Channels.newInputStream(FileChannel.open(path).position(offset))) {
+                    UploadPartRequest request = new UploadPartRequest();
+                    request.setBucketName(bucket);
+                    request.setKey(objectName);
+                    request.setUploadId(uploadId);
+                    request.setPartNumber(partNumber);
+                    request.setInputStream(data);
+                    request.setPartSize(length);
+                    return cosClient.uploadPart(request).getPartETag().getETag();
+                }
+            }
+
+            @Override
+            public void complete(String uploadId, List<MultipartUploader.UploadedPart> parts) {
+                List<PartETag> etags = new ArrayList<>();
+                parts.forEach(part -> etags.add(new PartETag(part.getPartNumber(), part.getEtag())));
+                cosClient.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, objectName, uploadId, etags));
+            }
+
+            @Override
+            public void abort(String uploadId) {
+                cosClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, objectName, uploadId));
+            }
+        });
+
+        log.info("Uploaded file to COS in parts: {} -> {}", localFilePath, objectName);
+        return objectName;
+    }
+
+    /**
+     * Presigned GET URL, reused from the cache while enough validity remains
+     */
     @Override
     public String generatePublicUrl(String objectName) {
-        try {
-            // Generate presigned URL valid for 1 hour (same as MinIO/OSS)
-            Date expiration = new Date(System.currentTimeMillis() + 3600 * 1000L);
+        return presignedUrlCache.get("cos", objectName, expiration -> signUrl(objectName, expiration));
+    }
 
+    private String signUrl(String objectName, Date expiration) {
+        try {
             // Create presigned URL request
             GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(
                     cosConfig.getBucketName(),
@@ -92,7 +179,7 @@ public class CosService implements StorageService {
             // Generate presigned URL
             URL url = cosClient.generatePresignedUrl(request);
 
-            log.debug("Generated presigned URL for: {} (expires in 1 hour)", objectName);
+            log.debug("Generated presigned URL for: {} (expires {})", objectName, expiration);
             return url.toString();
 
         } catch (CosClientException e) {
@@ -105,6 +192,7 @@ public class CosService implements StorageService {
     public void deleteObject(String objectName) {
         try {
             cosClient.deleteObject(cosConfig.getBucketName(), objectName);
+            presignedUrlCache.evict("cos", objectName);
             log.info("Deleted object from COS: {}", objectName);
 
         } catch (CosServiceException e) {
@@ -115,4 +203,33 @@ public class CosService implements StorageService {
             throw new StorageException("Failed to connect to COS during deletion", e);
         }
     }
+
+    @Override
+    public List<String> deleteObjects(List<String> objectNames) {
+        try {
+            DeleteObjectsRequest request = new DeleteObjectsRequest(cosConfig.getBucketName());
+            request.setKeys(objectNames.stream().map(DeleteObjectsRequest.KeyVersion::new).toList());
+            cosClient.deleteObjects(request);
+            objectNames.forEach(name -> presignedUrlCache.evict("cos", name));
+
+            log.info("Deleted {} objects from COS", objectNames.size());
+            return List.of();
+
+        } catch (MultiObjectDeleteException e) {
+            // Partial failure: the exception lists the keys that were not deleted
+            List<String> failed = e.getErrors().stream().map(MultiObjectDeleteException.DeleteError::getKey).toList();
+            Set<String> notDeleted = new HashSet<>(failed);
+            objectNames.stream()
+                    .filter(name -> !notDeleted.contains(name))
+                    .forEach(name -> presignedUrlCache.evict("cos", name));
+            log.warn("Failed to delete {} of {} objects from COS", failed.size(), objectNames.size());
+            return failed;
+        } catch (CosServiceException e) {
+            log.error("Failed to delete objects from COS: {}", e.getMessage());
+            throw new StorageException("Failed to delete objects from COS", e);
+        } catch (CosClientException e) {
+            log.error("Failed to connect to COS during batch deletion: {}", e.getMessage());
+            throw new StorageException("Failed to connect to COS during batch deletion", e);
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.VideoConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Master video duration ledger.
+ *
+ * The master length is advanced by per-chunk durations (client-reported VideoChunk.duration,
+ * or a probe of the small chunk file when the client sent none) instead of running ffprobe
+ * over the ever-growing master after every append. A full probe is only done every
+ * video.duration-reconcile-interval chunks and on the last chunk, and the difference
+ * between ledger and probe is reported as video.duration.drift.
+ *
+ * The incremental master (segment playlist) already advances by a probe of each small
+ * segment, so there the ledger only schedules the reconcile, which probes the playlist
+ * through the concat demuxer and catches a session length that no longer matches it.
+ */
+@Component
+@Slf4j
+public class DurationLedger {
+
+    private final MediaOps mediaOps;
+    private final VideoConfig videoConfig;
+    private final MeterRegistry meterRegistry;
+    private final Counter probesSkipped;
+    private final Counter reconciles;
+
+    public DurationLedger(MediaOps mediaOps, VideoConfig videoConfig, MeterRegistry meterRegistry) {
+        this.mediaOps = mediaOps;
+        this.videoConfig = videoConfig;
+        this.meterRegistry = meterRegistry;
+        this.probesSkipped = Counter.builder("video.duration.probes.skipped")
+                .description("Duration probes avoided by using client chunk metadata")
+                .register(meterRegistry);
+        this.reconciles = Counter.builder("video.duration.reconciles")
+                .description("Full master video probes used to reconcile the ledger")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Duration of a newly appended chunk
+     *
+     * @param chunkPath      Local chunk file (probed only if the client sent no duration)
+     * @param clientDuration Duration reported by the client, may be null
+     * @return Chunk duration in seconds
+     */
+    public double chunkDuration(String chunkPath, Double clientDuration) {
+        if (clientDuration != null && clientDuration > 0) {
+            probesSkipped.increment();
+            return clientDuration;
+        }
+        return mediaOps.getVideoDuration(chunkPath);
+    }
+
+    /**
+     * Whether the ledger should be reconciled against a full probe after this chunk
+     */
+    public boolean shouldReconcile(Integer chunkIndex, boolean isLastChunk) {
+        int interval = videoConfig.getDurationReconcileInterval();
+        return isLastChunk || interval <= 1 || (chunkIndex != null && (chunkIndex + 1) % interval == 0);
+    }
+
+    /**
+     * Probe the full master video and report drift against the ledger
+     *
+     * @param masterVideoPath Master video path
+     * @param ledgerLength    Length accumulated by the ledger
+     * @return Probed length (authoritative)
+     */
+    public double reconcile(String masterVideoPath, double ledgerLength) {
+        double probed = mediaOps.getVideoDuration(masterVideoPath);
+        reconciles.increment();
+        recordDrift("reconcile", probed - ledgerLength);
+        log.info("Reconciled master duration: ledger={}s, probed={}s, drift={}s",
+                ledgerLength, probed, probed - ledgerLength);
+        return probed;
+    }
+
+    /**
+     * Record the absolute drift between an estimated and a measured duration
+     *
+     * @param source Where the drift was observed (reconcile = ledger vs full probe, client = client vs segment probe)
+     * @param drift  Measured minus estimated, in seconds
+     */
+    public void recordDrift(String source, double drift) {
+        DistributionSummary.builder("video.duration.drift")
+                .description("Absolute difference between estimated and probed duration (seconds)")
+                .baseUnit("seconds")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(Math.abs(drift));
+    }
+}
@@ -1,28 +1,103 @@
 package com.skiuo.coreservice.service;
 
+import com.skiuo.coreservice.config.BulkheadConfig;
+import com.skiuo.coreservice.config.VideoConfig;
 import com.skiuo.coreservice.exception.GrpcException;
 import com.skiuo.grpc.*;
-import io.grpc.ManagedChannel;
+import io.grpc.Channel;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-
+import java.util.function.Function;
+
+/**
+ * Client of ai-service.
+ *
+ * Every RPC has a non-blocking variant (suffix Async, or analyzeVideo) built on the async stub
+ * that returns a CompletableFuture completed from the gRPC callback, so callers can compose
+ * pipelines without parking a thread per in-flight call. The blocking methods wait on those
+ * futures and are kept for short call sites (segment append, probes, recovery).
+ * Failures complete the future with a {@link GrpcException}. Deadlines and retries come
+ * from the channel's call policy (grpc.ai-service.policy, see GrpcPolicyConfig).
+ *
+ * AI model RPCs are balanced across ai-service backends; FFmpeg RPCs are routed by session
+ * (the session directory under video.temp-path), see {@link AiServiceRouter}. They pass local
+ * paths to backends that share video.temp-path and stream the bytes through MediaStream to
+ * those that do not ({@link MediaStreamClient}); grpc.ai-service.media-transfer=auto decides
+ * per backend by asking it to read a marker file (CheckLocalPath). ProcessVideo is path-only.
+ *
+ * Calls are admitted through one {@link Bulkhead} per category (AI analysis, AI text, FFmpeg
+ * media), so long model streams can never take the permits of short media operations.
+ *
+ * A window's analysis and refinement run as one AnalyzeAndRefine call when video.fused-analysis
+ * is on; backends that answer UNIMPLEMENTED (older ai-service) get the two-call path instead.
+ */
 @Service
 @Slf4j
 public class GrpcClientService {
 
-    private final VideoAnalysisServiceGrpc.VideoAnalysisServiceBlockingStub blockingStub;
-    private final VideoAnalysisServiceGrpc.VideoAnalysisServiceStub asyncStub;
+    private final AiServiceRouter router;
+    private final Path tempPath;
+    private final Bulkhead analysisBulkhead;
+    private final Bulkhead textBulkhead;
+    private final Bulkhead mediaBulkhead;
+    private final AtomicInteger aiCallsInFlight = new AtomicInteger();
+    private final boolean fusedAnalysis;
+    private final AtomicLong fusedRetryAt = new AtomicLong();  // nanoTime before which the fused RPC is skipped
+    private final String mediaTransfer;  // auto | path | stream
+    private final MediaStreamClient mediaStream;
+    private final Map<Channel, CompletableFuture<Boolean>> sharedFilesystem =
+            Collections.synchronizedMap(new WeakHashMap<>());  // media channel -> backend reads video.temp-path
+    private final String localityToken = UUID.randomUUID().toString();
+    private volatile Path localityMarker;
+
+    // Re-probe AnalyzeAndRefine this long after an UNIMPLEMENTED answer (rolling ai-service upgrades)
+    private static final long FUSED_RETRY_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    public GrpcClientService(AiServiceRouter aiServiceRouter, VideoConfig videoConfig,
+                             BulkheadConfig bulkheadConfig, MeterRegistry meterRegistry,
+                             @Value("${grpc.ai-service.media-transfer:auto}") String mediaTransfer) {
+        this.router = aiServiceRouter;
+        this.mediaTransfer = mediaTransfer.trim().toLowerCase(Locale.ROOT);
+        this.mediaStream = new MediaStreamClient(bulkheadConfig.getMediaPermits());
+        this.tempPath = Paths.get(videoConfig.getTempPath()).toAbsolutePath().normalize();
+        this.fusedAnalysis = !Boolean.FALSE.equals(videoConfig.getFusedAnalysis());
+        this.analysisBulkhead = new Bulkhead("ai_analysis", bulkheadConfig.getAiAnalysisPermits(), meterRegistry);
+        this.textBulkhead = new Bulkhead("ai_text", bulkheadConfig.getAiTextPermits(), meterRegistry);
+        this.mediaBulkhead = new Bulkhead("media", bulkheadConfig.getMediaPermits(), meterRegistry);
+        log.info("GrpcClientService initialized with router: {}, media transfer: {}", aiServiceRouter, this.mediaTransfer);
+    }
 
-    public GrpcClientService(ManagedChannel aiServiceChannel) {
-        this.blockingStub = VideoAnalysisServiceGrpc.newBlockingStub(aiServiceChannel);
-        this.asyncStub = VideoAnalysisServiceGrpc.newStub(aiServiceChannel);
-        log.info("GrpcClientService initialized with channel: {}", aiServiceChannel);
+    /**
+     * Number of AI model calls (analyze, refine, title, memory) currently in flight,
+     * including calls waiting for a bulkhead permit
+     */
+    public int getAiCallsInFlight() {
+        return aiCallsInFlight.get();
     }
 
     /**
@@ -38,34 +113,32 @@ public class GrpcClientService {
      */
     public List<WindowInfo> processVideo(String sessionId, Long chunkId, String videoPath,
                                           String analysisMode, int windowSize, int windowStep) {
-        try {
-            ProcessRequest request = ProcessRequest.newBuilder()
-                    .setSessionId(sessionId)
-                    .setChunkId(chunkId)
-                    .setVideoPath(videoPath)
-                    .setAnalysisMode(analysisMode)
-                    .setWindowSize(windowSize)
-                    .setWindowStep(windowStep)
-                    .build();
-
-            log.info("Calling ProcessVideo gRPC: sessionId={}, chunkId={}, mode={}",
-                    sessionId, chunkId, analysisMode);
-
-            ProcessResponse response = blockingStub.processVideo(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("ProcessVideo failed: " + response.getError());
-            }
+        return await(processVideoAsync(sessionId, chunkId, videoPath, analysisMode, windowSize, windowStep),
+                "ProcessVideo");
+    }
 
+    /**
+     * Non-blocking ProcessVideo
+     */
+    public CompletableFuture<List<WindowInfo>> processVideoAsync(String sessionId, Long chunkId, String videoPath,
+                                                                 String analysisMode, int windowSize, int windowStep) {
+        ProcessRequest request = ProcessRequest.newBuilder()
+                .setSessionId(sessionId)
+                .setChunkId(chunkId)
+                .setVideoPath(videoPath)
+                .setAnalysisMode(analysisMode)
+                .setWindowSize(windowSize)
+                .setWindowStep(windowStep)
+                .build();
+
+        log.info("Calling ProcessVideo gRPC: sessionId={}, chunkId={}, mode={}",
+                sessionId, chunkId, analysisMode);
+
+        return mediaBulkhead.submit(() -> unary("ProcessVideo", mediaStub(sessionId)::processVideo, request, ProcessResponse::getError, response -> {
             List<WindowInfo> windows = response.getWindowsList();
             log.info("ProcessVideo completed: {} windows created", windows.size());
-
             return windows;
-
-        } catch (Exception e) {
-            log.error("Failed to call ProcessVideo gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call ProcessVideo gRPC", e);
-        }
+        }));
     }
 
     /**
@@ -87,6 +160,15 @@ public class GrpcClientService {
                                                     String context, Double startOffset,
                                                     Double endOffset, String analysisMode,
                                                     String userMemory, Consumer<String> onChunk) {
+        return aiCall(analysisBulkhead.submit(() -> startAnalyzeVideo(sessionId, windowIndex, videoUrl, aiModel,
+                context, startOffset, endOffset, analysisMode, userMemory, onChunk)));
+    }
+
+    private CompletableFuture<String> startAnalyzeVideo(String sessionId, int windowIndex,
+                                                        String videoUrl, String aiModel,
+                                                        String context, Double startOffset,
+                                                        Double endOffset, String analysisMode,
+                                                        String userMemory, Consumer<String> onChunk) {
         CompletableFuture<String> future = new CompletableFuture<>();
         StringBuilder fullContent = new StringBuilder();
 
@@ -108,7 +190,7 @@ public class GrpcClientService {
             log.info("🚀 [URL-TRACK] Sending to ai-service via gRPC: sessionId={}, windowIndex={}, videoUrl={}",
                     sessionId, windowIndex, videoUrl);
 
-            asyncStub.analyzeVideo(request, new StreamObserver<AnalysisResponse>() {
+            aiStub().analyzeVideo(request, new StreamObserver<AnalysisResponse>() {
                 @Override
                 public void onNext(AnalysisResponse response) {
                     if (response.getError() != null && !response.getError().isEmpty()) {
@@ -153,19 +235,147 @@ public class GrpcClientService {
     }
 
     /**
-     * Synchronous version of analyzeVideo (waits for completion)
+     * Analyze a window and refine the result
+     *
+     * Uses the AnalyzeAndRefine RPC (both phases run inside ai-service, raw tokens are streamed
+     * to onChunk as they arrive) and falls back to AnalyzeVideo + RefineAnalysis when the backend
+     * does not implement it.
+     *
+     * @param sessionId     Session ID
+     * @param windowIndex   Window index
+     * @param videoUrl      MinIO presigned URL
+     * @param aiModel       AI model name (qwen/gemini)
+     * @param context       Previous window result
+     * @param startOffset   Start time offset
+     * @param endOffset     End time offset
+     * @param analysisMode  Analysis mode (full/sliding_window)
+     * @param userMemory    User memory JSON string
+     * @param videoDuration Total video duration (refine metadata)
+     * @param onChunk       Callback for each raw streaming chunk
+     * @return CompletableFuture with the raw and refined result
      */
-    public String analyzeVideoSync(String sessionId, int windowIndex, String videoUrl,
-                                    String aiModel, String context, Double startOffset,
-                                    Double endOffset, String analysisMode,
-                                    String userMemory, Consumer<String> onChunk) {
+    public CompletableFuture<AnalysisResult> analyzeAndRefine(String sessionId, int windowIndex,
+                                                              String videoUrl, String aiModel,
+                                                              String context, Double startOffset,
+                                                              Double endOffset, String analysisMode,
+                                                              String userMemory, double videoDuration,
+                                                              Consumer<String> onChunk) {
+        if (!fusedAnalysis || System.nanoTime() - fusedRetryAt.get() < 0) {
+            return analyzeThenRefine(sessionId, windowIndex, videoUrl, aiModel, context, startOffset, endOffset,
+                    analysisMode, userMemory, videoDuration, onChunk);
+        }
+
+        return aiCall(analysisBulkhead.submit(() -> startAnalyzeAndRefine(sessionId, windowIndex, videoUrl, aiModel,
+                context, startOffset, endOffset, analysisMode, userMemory, videoDuration, onChunk)))
+                .exceptionallyCompose(error -> {
+                    if (Status.fromThrowable(error).getCode() != Status.Code.UNIMPLEMENTED) {
+                        return CompletableFuture.failedFuture(error);
+                    }
+                    // Nothing was streamed: the backend rejected the method before running it
+                    fusedRetryAt.set(System.nanoTime() + FUSED_RETRY_INTERVAL_NANOS);
+                    log.warn("AnalyzeAndRefine not implemented by ai-service, using AnalyzeVideo + RefineAnalysis");
+                    return analyzeThenRefine(sessionId, windowIndex, videoUrl, aiModel, context, startOffset,
+                            endOffset, analysisMode, userMemory, videoDuration, onChunk);
+                });
+    }
+
+    private CompletableFuture<AnalysisResult> startAnalyzeAndRefine(String sessionId, int windowIndex,
+                                                                    String videoUrl, String aiModel,
+                                                                    String context, Double startOffset,
+                                                                    Double endOffset, String analysisMode,
+                                                                    String userMemory, double videoDuration,
+                                                                    Consumer<String> onChunk) {
+        CompletableFuture<AnalysisResult> future = new CompletableFuture<>();
+        StringBuilder rawContent = new StringBuilder();
+        StringBuilder refinedContent = new StringBuilder();
+
         try {
-            return analyzeVideo(sessionId, windowIndex, videoUrl, aiModel, context,
-                    startOffset, endOffset, analysisMode, userMemory, onChunk).get(5, TimeUnit.MINUTES);
+            AnalyzeAndRefineRequest request = AnalyzeAndRefineRequest.newBuilder()
+                    .setAnalysis(AnalysisRequest.newBuilder()
+                            .setSessionId(sessionId)
+                            .setWindowIndex(windowIndex)
+                            .setVideoUrl(videoUrl)
+                            .setAiModel(aiModel)
+                            .setContext(context != null ? context : "")
+                            .setStartOffset(startOffset.intValue())
+                            .setEndOffset(endOffset.intValue())
+                            .setAnalysisMode(analysisMode)
+                            .setUserMemory(userMemory != null ? userMemory : ""))
+                    .setMetadata(VideoMetadata.newBuilder()
+                            .setVideoDuration(videoDuration))
+                    .build();
+
+            log.info("Calling AnalyzeAndRefine gRPC: sessionId={}, windowIndex={}, model={}",
+                    sessionId, windowIndex, aiModel);
+
+            aiStub().analyzeAndRefine(request, new StreamObserver<AnalyzeAndRefineResponse>() {
+                private boolean refined;
+
+                @Override
+                public void onNext(AnalyzeAndRefineResponse response) {
+                    if (!response.getError().isEmpty()) {
+                        log.error("AnalyzeAndRefine error in {} phase: {}", response.getPhase(), response.getError());
+                        future.completeExceptionally(new GrpcException(response.getError()));
+                        return;
+                    }
+
+                    if (response.getPhase() == AnalysisPhase.ANALYSIS_PHASE_REFINED) {
+                        refinedContent.append(response.getContent());
+                        refined = true;
+                        return;
+                    }
+
+                    String content = response.getContent();
+                    rawContent.append(content);
+                    if (onChunk != null) {
+                        onChunk.accept(content);
+                    }
+                    if (response.getIsFinal()) {
+                        log.info("AnalyzeAndRefine raw phase completed: sessionId={}, windowIndex={}, length={}",
+                                sessionId, windowIndex, rawContent.length());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    log.error("AnalyzeAndRefine gRPC error: {}", t.getMessage());
+                    future.completeExceptionally(new GrpcException("AnalyzeAndRefine failed", t));
+                }
+
+                @Override
+                public void onCompleted() {
+                    if (!refined) {
+                        future.completeExceptionally(new GrpcException("AnalyzeAndRefine completed without a refined result"));
+                        return;
+                    }
+                    log.info("AnalyzeAndRefine completed: sessionId={}, windowIndex={}, refinedLength={}",
+                            sessionId, windowIndex, refinedContent.length());
+                    future.complete(new AnalysisResult(rawContent.toString(), refinedContent.toString()));
+                }
+            });
+
         } catch (Exception e) {
-            log.error("AnalyzeVideo sync failed: {}", e.getMessage());
-            throw new GrpcException("AnalyzeVideo sync failed", e);
+            log.error("Failed to call AnalyzeAndRefine gRPC: {}", e.getMessage());
+            future.completeExceptionally(new GrpcException("Failed to call AnalyzeAndRefine gRPC", e));
         }
+
+        return future;
+    }
+
+    /**
+     * Two-call path: AnalyzeVideo, then RefineAnalysis on its result
+     */
+    private CompletableFuture<AnalysisResult> analyzeThenRefine(String sessionId, int windowIndex,
+                                                                String videoUrl, String aiModel,
+                                                                String context, Double startOffset,
+                                                                Double endOffset, String analysisMode,
+                                                                String userMemory, double videoDuration,
+                                                                Consumer<String> onChunk) {
+        return analyzeVideo(sessionId, windowIndex, videoUrl, aiModel, context, startOffset, endOffset,
+                analysisMode, userMemory, onChunk)
+                .thenCompose(rawResult -> refineAnalysisAsync(sessionId, windowIndex, rawResult, videoDuration,
+                        userMemory, aiModel)
+                        .thenApply(refinedResult -> new AnalysisResult(rawResult, refinedResult)));
     }
 
     /**
@@ -177,28 +387,27 @@ public class GrpcClientService {
      * @return Path to extracted tail file
      */
     public String extractTail(String videoPath, String outputPath, int duration) {
-        try {
-            ExtractTailRequest request = ExtractTailRequest.newBuilder()
-                    .setVideoPath(videoPath)
-                    .setOutputPath(outputPath)
-                    .setDuration(duration)
-                    .build();
-
-            log.info("Calling ExtractTail gRPC: video={}, duration={}s", videoPath, duration);
-
-            ExtractTailResponse response = blockingStub.extractTail(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("ExtractTail failed: " + response.getError());
-            }
-
-            log.info("ExtractTail completed: output={}", response.getOutputPath());
-            return response.getOutputPath();
+        return await(extractTailAsync(videoPath, outputPath, duration), "ExtractTail");
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call ExtractTail gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call ExtractTail gRPC", e);
-        }
+    /**
+     * Non-blocking ExtractTail
+     */
+    public CompletableFuture<String> extractTailAsync(String videoPath, String outputPath, int duration) {
+        ExtractTailRequest request = ExtractTailRequest.newBuilder()
+                .setVideoPath(videoPath)
+                .setOutputPath(outputPath)
+                .setDuration(duration)
+                .build();
+
+        log.info("Calling ExtractTail gRPC: video={}, duration={}s", videoPath, duration);
+
+        return mediaBulkhead.submit(() -> media(sessionKey(videoPath),
+                channel -> unary("ExtractTail", stub(channel)::extractTail, request, ExtractTailResponse::getError, response -> {
+                    log.info("ExtractTail completed: output={}", response.getOutputPath());
+                    return response.getOutputPath();
+                }),
+                channel -> mediaStream.extractTail(channel, videoPath, outputPath, duration)));
     }
 
     /**
@@ -211,29 +420,29 @@ public class GrpcClientService {
      * @return Path to extracted segment file
      */
     public String extractSegment(String videoPath, String outputPath, Double startTime, Double endTime) {
-        try {
-            ExtractSegmentRequest request = ExtractSegmentRequest.newBuilder()
-                    .setVideoPath(videoPath)
-                    .setOutputPath(outputPath)
-                    .setStartTime(startTime.floatValue())
-                    .setEndTime(endTime.floatValue())
-                    .build();
-
-            log.info("Calling ExtractSegment gRPC: video={}, range=[{}s, {}s]", videoPath, startTime, endTime);
-
-            ExtractSegmentResponse response = blockingStub.extractSegment(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("ExtractSegment failed: " + response.getError());
-            }
-
-            log.info("ExtractSegment completed: output={}", response.getOutputPath());
-            return response.getOutputPath();
+        return await(extractSegmentAsync(videoPath, outputPath, startTime, endTime), "ExtractSegment");
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call ExtractSegment gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call ExtractSegment gRPC", e);
-        }
+    /**
+     * Non-blocking ExtractSegment
+     */
+    public CompletableFuture<String> extractSegmentAsync(String videoPath, String outputPath,
+                                                         Double startTime, Double endTime) {
+        ExtractSegmentRequest request = ExtractSegmentRequest.newBuilder()
+                .setVideoPath(videoPath)
+                .setOutputPath(outputPath)
+                .setStartTime(startTime.floatValue())
+                .setEndTime(endTime.floatValue())
+                .build();
+
+        log.info("Calling ExtractSegment gRPC: video={}, range=[{}s, {}s]", videoPath, startTime, endTime);
+
+        return mediaBulkhead.submit(() -> media(sessionKey(videoPath),
+                channel -> unary("ExtractSegment", stub(channel)::extractSegment, request, ExtractSegmentResponse::getError, response -> {
+                    log.info("ExtractSegment completed: output={}", response.getOutputPath());
+                    return response.getOutputPath();
+                }),
+                channel -> mediaStream.extractSegment(channel, videoPath, outputPath, startTime, endTime)));
     }
 
     /**
@@ -243,27 +452,26 @@ public class GrpcClientService {
      * @return Duration in seconds
      */
     public Double getVideoDuration(String videoPath) {
-        try {
-            GetVideoDurationRequest request = GetVideoDurationRequest.newBuilder()
-                    .setVideoPath(videoPath)
-                    .build();
-
-            log.info("Calling GetVideoDuration gRPC: video={}", videoPath);
-
-            GetVideoDurationResponse response = blockingStub.getVideoDuration(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("GetVideoDuration failed: " + response.getError());
-            }
-
-            Double duration = (double) response.getDuration();
-            log.info("GetVideoDuration completed: duration={}s", duration);
-            return duration;
+        return await(getVideoDurationAsync(videoPath), "GetVideoDuration");
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call GetVideoDuration gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call GetVideoDuration gRPC", e);
-        }
+    /**
+     * Non-blocking GetVideoDuration (uncached, see {@link MediaOps#getVideoDurationAsync})
+     */
+    public CompletableFuture<Double> getVideoDurationAsync(String videoPath) {
+        GetVideoDurationRequest request = GetVideoDurationRequest.newBuilder()
+                .setVideoPath(videoPath)
+                .build();
+
+        log.info("Calling GetVideoDuration gRPC: video={}", videoPath);
+
+        return mediaBulkhead.submit(() -> media(sessionKey(videoPath),
+                channel -> unary("GetVideoDuration", stub(channel)::getVideoDuration, request, GetVideoDurationResponse::getError, response -> {
+                    Double duration = (double) response.getDuration();
+                    log.info("GetVideoDuration completed: duration={}s", duration);
+                    return duration;
+                }),
+                channel -> mediaStream.getVideoDuration(channel, videoPath)));
     }
 
     /**
@@ -274,27 +482,26 @@ public class GrpcClientService {
      * @return Path to concatenated video
      */
     public String concatVideos(List<String> videoPaths, String outputPath) {
-        try {
-            ConcatVideosRequest request = ConcatVideosRequest.newBuilder()
-                    .addAllVideoPaths(videoPaths)
-                    .setOutputPath(outputPath)
-                    .build();
-
-            log.info("Calling ConcatVideos gRPC: {} videos", videoPaths.size());
-
-            ConcatVideosResponse response = blockingStub.concatVideos(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("ConcatVideos failed: " + response.getError());
-            }
-
-            log.info("ConcatVideos completed: output={}", response.getOutputPath());
-            return response.getOutputPath();
+        return await(concatVideosAsync(videoPaths, outputPath), "ConcatVideos");
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call ConcatVideos gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call ConcatVideos gRPC", e);
-        }
+    /**
+     * Non-blocking ConcatVideos
+     */
+    public CompletableFuture<String> concatVideosAsync(List<String> videoPaths, String outputPath) {
+        ConcatVideosRequest request = ConcatVideosRequest.newBuilder()
+                .addAllVideoPaths(videoPaths)
+                .setOutputPath(outputPath)
+                .build();
+
+        log.info("Calling ConcatVideos gRPC: {} videos", videoPaths.size());
+
+        return mediaBulkhead.submit(() -> media(sessionKey(outputPath),
+                channel -> unary("ConcatVideos", stub(channel)::concatVideos, request, ConcatVideosResponse::getError, response -> {
+                    log.info("ConcatVideos completed: output={}", response.getOutputPath());
+                    return response.getOutputPath();
+                }),
+                channel -> mediaStream.concatVideos(channel, videoPaths, outputPath)));
     }
 
     /**
@@ -308,32 +515,30 @@ public class GrpcClientService {
      */
     public String generateTitle(String sessionId, List<String> analysisResults,
                                 String userMemory, String aiModel) {
-        try {
-            log.info("Calling GenerateTitle gRPC: session={}, model={}, results_count={}",
-                    sessionId, aiModel, analysisResults.size());
-
-            GenerateTitleRequest request = GenerateTitleRequest.newBuilder()
-                    .setSessionId(sessionId)
-                    .addAllAnalysisResults(analysisResults)
-                    .setUserMemory(userMemory != null ? userMemory : "")
-                    .setAiModel(aiModel)
-                    .build();
-
-            GenerateTitleResponse response = blockingStub
-                    .withDeadlineAfter(300, TimeUnit.SECONDS)
-                    .generateTitle(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("GenerateTitle failed: " + response.getError());
-            }
-
-            log.info("GenerateTitle completed: title={}", response.getTitle());
-            return response.getTitle();
+        return await(generateTitleAsync(sessionId, analysisResults, userMemory, aiModel), "GenerateTitle");
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call GenerateTitle gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call GenerateTitle gRPC", e);
-        }
+    /**
+     * Non-blocking GenerateTitle
+     */
+    public CompletableFuture<String> generateTitleAsync(String sessionId, List<String> analysisResults,
+                                                        String userMemory, String aiModel) {
+        log.info("Calling GenerateTitle gRPC: session={}, model={}, results_count={}",
+                sessionId, aiModel, analysisResults.size());
+
+        GenerateTitleRequest request = GenerateTitleRequest.newBuilder()
+                .setSessionId(sessionId)
+                .addAllAnalysisResults(analysisResults)
+                .setUserMemory(userMemory != null ? userMemory : "")
+                .setAiModel(aiModel)
+                .build();
+
+        return aiCall(textBulkhead.submit(() -> unary("GenerateTitle",
+                aiStub()::generateTitle,
+                request, GenerateTitleResponse::getError, response -> {
+                    log.info("GenerateTitle completed: title={}", response.getTitle());
+                    return response.getTitle();
+                })));
     }
 
     /**
@@ -349,38 +554,37 @@ public class GrpcClientService {
      */
     public String refineAnalysis(String sessionId, int windowIndex, String rawContent,
                                  double videoDuration, String userMemory, String aiModel) {
-        try {
-            log.info("Calling RefineAnalysis gRPC: session={}, window={}, model={}",
-                    sessionId, windowIndex, aiModel);
-
-            VideoMetadata metadata = VideoMetadata.newBuilder()
-                    .setVideoDuration(videoDuration)
-                    .build();
-
-            RefineAnalysisRequest request = RefineAnalysisRequest.newBuilder()
-                    .setSessionId(sessionId)
-                    .setWindowIndex(windowIndex)
-                    .setRawContent(rawContent)
-                    .setMetadata(metadata)
-                    .setUserMemory(userMemory != null ? userMemory : "")
-                    .setAiModel(aiModel)
-                    .build();
-
-            RefineAnalysisResponse response = blockingStub
-                    .withDeadlineAfter(300, TimeUnit.SECONDS)
-                    .refineAnalysis(request);
-
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("RefineAnalysis failed: " + response.getError());
-            }
-
-            log.info("RefineAnalysis completed: length={}", response.getRefinedContent().length());
-            return response.getRefinedContent();
+        return await(refineAnalysisAsync(sessionId, windowIndex, rawContent, videoDuration, userMemory, aiModel),
+                "RefineAnalysis");
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call RefineAnalysis gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call RefineAnalysis gRPC", e);
-        }
+    /**
+     * Non-blocking RefineAnalysis
+     */
+    public CompletableFuture<String> refineAnalysisAsync(String sessionId, int windowIndex, String rawContent,
+                                                         double videoDuration, String userMemory, String aiModel) {
+        log.info("Calling RefineAnalysis gRPC: session={}, window={}, model={}",
+                sessionId, windowIndex, aiModel);
+
+        VideoMetadata metadata = VideoMetadata.newBuilder()
+                .setVideoDuration(videoDuration)
+                .build();
+
+        RefineAnalysisRequest request = RefineAnalysisRequest.newBuilder()
+                .setSessionId(sessionId)
+                .setWindowIndex(windowIndex)
+                .setRawContent(rawContent)
+                .setMetadata(metadata)
+                .setUserMemory(userMemory != null ? userMemory : "")
+                .setAiModel(aiModel)
+                .build();
+
+        return aiCall(textBulkhead.submit(() -> unary("RefineAnalysis",
+                aiStub()::refineAnalysis,
+                request, RefineAnalysisResponse::getError, response -> {
+                    log.info("RefineAnalysis completed: length={}", response.getRefinedContent().length());
+                    return response.getRefinedContent();
+                })));
     }
 
     /**
@@ -394,31 +598,242 @@ public class GrpcClientService {
      */
     public String extractUserMemory(String sessionId, List<String> analysisResults,
                                     String currentMemory, String aiModel) {
-        try {
-            log.info("Calling ExtractUserMemory gRPC: session={}, model={}, results_count={}",
-                    sessionId, aiModel, analysisResults.size());
+        return await(extractUserMemoryAsync(sessionId, analysisResults, currentMemory, aiModel), "ExtractUserMemory");
+    }
 
-            ExtractUserMemoryRequest request = ExtractUserMemoryRequest.newBuilder()
-                    .setSessionId(sessionId)
-                    .addAllAnalysisResults(analysisResults)
-                    .setCurrentMemory(currentMemory != null ? currentMemory : "{}")
-                    .setAiModel(aiModel)
-                    .build();
+    /**
+     * Non-blocking ExtractUserMemory
+     */
+    public CompletableFuture<String> extractUserMemoryAsync(String sessionId, List<String> analysisResults,
+                                                            String currentMemory, String aiModel) {
+        log.info("Calling ExtractUserMemory gRPC: session={}, model={}, results_count={}",
+                sessionId, aiModel, analysisResults.size());
+
+        ExtractUserMemoryRequest request = ExtractUserMemoryRequest.newBuilder()
+                .setSessionId(sessionId)
+                .addAllAnalysisResults(analysisResults)
+                .setCurrentMemory(currentMemory != null ? currentMemory : "{}")
+                .setAiModel(aiModel)
+                .build();
+
+        return aiCall(textBulkhead.submit(() -> unary("ExtractUserMemory",
+                aiStub()::extractUserMemory,
+                request, ExtractUserMemoryResponse::getError, response -> {
+                    log.info("ExtractUserMemory completed: length={}", response.getNewMemory().length());
+                    return response.getNewMemory();
+                })));
+    }
+
+    /**
+     * Stub for AI model RPCs (any backend)
+     */
+    private VideoAnalysisServiceGrpc.VideoAnalysisServiceStub aiStub() {
+        return VideoAnalysisServiceGrpc.newStub(router.balanced());
+    }
+
+    /**
+     * Stub for FFmpeg RPCs of a session (the backend that sees the session's files)
+     */
+    private VideoAnalysisServiceGrpc.VideoAnalysisServiceStub mediaStub(String sessionKey) {
+        return stub(router.forKey(sessionKey));
+    }
+
+    private static VideoAnalysisServiceGrpc.VideoAnalysisServiceStub stub(Channel channel) {
+        return VideoAnalysisServiceGrpc.newStub(channel);
+    }
+
+    /**
+     * Run a media operation on the session's backend, by path or by streamed bytes
+     *
+     * @param sessionKey Session routing key
+     * @param byPath     Call passing local paths (backend shares video.temp-path)
+     * @param byStream   Call streaming the files through MediaStream
+     */
+    private <T> CompletableFuture<T> media(String sessionKey,
+                                           Function<Channel, CompletableFuture<T>> byPath,
+                                           Function<Channel, CompletableFuture<T>> byStream) {
+        Channel channel = router.forKey(sessionKey);
+        return sharesFilesystem(channel).thenCompose(shared -> shared ? byPath.apply(channel) : byStream.apply(channel));
+    }
+
+    /**
+     * Whether the backend behind a media channel reads the same video.temp-path.
+     * Probed once per channel in auto mode: the backend must confirm that a marker file holds our token.
+     * A backend without CheckLocalPath (older ai-service) has no MediaStream either and keeps
+     * path mode; other probe failures use path mode for this call and probe again next time.
+     */
+    private CompletableFuture<Boolean> sharesFilesystem(Channel channel) {
+        if ("path".equals(mediaTransfer)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if ("stream".equals(mediaTransfer)) {
+            return CompletableFuture.completedFuture(false);
+        }
 
-            ExtractUserMemoryResponse response = blockingStub
-                    .withDeadlineAfter(300, TimeUnit.SECONDS)
-                    .extractUserMemory(request);
+        CompletableFuture<Boolean> probe;
+        synchronized (sharedFilesystem) {
+            CompletableFuture<Boolean> known = sharedFilesystem.get(channel);
+            if (known != null) {
+                return known;
+            }
+            probe = new CompletableFuture<>();
+            sharedFilesystem.put(channel, probe);
+        }
+
+        probeLocality(channel).whenComplete((shared, error) -> {
+            if (error == null) {
+                log.info("ai-service {} {} video.temp-path: media transfer by {}",
+                        channel.authority(), shared ? "shares" : "does not share", shared ? "path" : "stream");
+                probe.complete(shared);
+                return;
+            }
+            if (Status.fromThrowable(error).getCode() == Status.Code.UNIMPLEMENTED) {
+                log.info("ai-service {} has no CheckLocalPath: media transfer by path", channel.authority());
+            } else {
+                log.warn("Locality probe of ai-service {} failed, using path mode: {}",
+                        channel.authority(), error.getMessage());
+                synchronized (sharedFilesystem) {
+                    sharedFilesystem.remove(channel, probe);
+                }
+            }
+            probe.complete(true);
+        });
+        return probe;
+    }
+
+    private CompletableFuture<Boolean> probeLocality(Channel channel) {
+        Path marker;
+        try {
+            marker = localityMarker();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new GrpcException("Failed to write locality marker", e));
+        }
+        CheckLocalPathRequest request = CheckLocalPathRequest.newBuilder()
+                .setPath(marker.toString())
+                .setToken(localityToken)
+                .build();
+        // An unreadable marker is an answer (no shared filesystem), not a failed call
+        return unary("CheckLocalPath", stub(channel)::checkLocalPath, request, response -> "",
+                CheckLocalPathResponse::getMatch);
+    }
 
-            if (response.getError() != null && !response.getError().isEmpty()) {
-                throw new GrpcException("ExtractUserMemory failed: " + response.getError());
+    /**
+     * Marker file under video.temp-path holding this instance's random token
+     */
+    private Path localityMarker() throws IOException {
+        Path marker = localityMarker;
+        if (marker == null) {
+            synchronized (this) {
+                marker = localityMarker;
+                if (marker == null) {
+                    Files.createDirectories(tempPath);
+                    marker = tempPath.resolve(".locality-" + localityToken);
+                    Files.writeString(marker, localityToken, StandardCharsets.UTF_8);
+                    marker.toFile().deleteOnExit();
+                    localityMarker = marker;
+                }
             }
+        }
+        return marker;
+    }
+
+    /**
+     * Session routing key of a local media path: its session directory under video.temp-path
+     * (temp/{sessionId}/...), or its parent directory for paths outside temp-path
+     */
+    private String sessionKey(String mediaPath) {
+        Path path = Paths.get(mediaPath).toAbsolutePath().normalize();
+        if (path.startsWith(tempPath) && path.getNameCount() > tempPath.getNameCount() + 1) {
+            return path.getName(tempPath.getNameCount()).toString();
+        }
+        Path parent = path.getParent();
+        return parent != null ? parent.toString() : mediaPath;
+    }
+
+    /**
+     * Issue a unary call on the async stub and adapt it to a CompletableFuture
+     *
+     * @param rpc      RPC name (for errors and logs)
+     * @param call     Async stub method
+     * @param request  Request message
+     * @param error    Extracts the error field of the response
+     * @param result   Maps a successful response to the result
+     * @return Future completed from the gRPC callback
+     */
+    private <Req, Resp, T> CompletableFuture<T> unary(String rpc,
+                                                      BiConsumer<Req, StreamObserver<Resp>> call,
+                                                      Req request,
+                                                      Function<Resp, String> error,
+                                                      Function<Resp, T> result) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            call.accept(request, new StreamObserver<Resp>() {
+                @Override
+                public void onNext(Resp response) {
+                    String message = error.apply(response);
+                    if (message != null && !message.isEmpty()) {
+                        log.error("{} failed: {}", rpc, message);
+                        future.completeExceptionally(new GrpcException(rpc + " failed: " + message));
+                        return;
+                    }
+                    try {
+                        future.complete(result.apply(response));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(new GrpcException("Failed to handle " + rpc + " response", e));
+                    }
+                }
 
-            log.info("ExtractUserMemory completed: length={}", response.getNewMemory().length());
-            return response.getNewMemory();
+                @Override
+                public void onError(Throwable t) {
+                    log.error("Failed to call {} gRPC: {}", rpc, t.getMessage());
+                    future.completeExceptionally(new GrpcException("Failed to call " + rpc + " gRPC", t));
+                }
 
+                @Override
+                public void onCompleted() {
+                    if (!future.isDone()) {
+                        future.completeExceptionally(new GrpcException(rpc + " completed without a response"));
+                    }
+                }
+            });
         } catch (Exception e) {
-            log.error("Failed to call ExtractUserMemory gRPC: {}", e.getMessage());
-            throw new GrpcException("Failed to call ExtractUserMemory gRPC", e);
+            log.error("Failed to call {} gRPC: {}", rpc, e.getMessage());
+            future.completeExceptionally(new GrpcException("Failed to call " + rpc + " gRPC", e));
+        }
+        return future;
+    }
+
+    /**
+     * Count an AI model call as in flight until its future completes
+     */
+    private <T> CompletableFuture<T> aiCall(CompletableFuture<T> future) {
+        aiCallsInFlight.incrementAndGet();
+        future.whenComplete((result, error) -> aiCallsInFlight.decrementAndGet());
+        return future;
+    }
+
+    /**
+     * Wait for a call started by one of the non-blocking variants
+     */
+    private static <T> T await(CompletableFuture<T> future, String rpc) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GrpcException) {
+                throw (GrpcException) cause;
+            }
+            throw new GrpcException("Failed to call " + rpc + " gRPC", cause);
         }
     }
+
+    /**
+     * Raw and refined analysis of one window
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class AnalysisResult {
+        private final String rawResult;
+        private final String refinedResult;
+    }
 }
@@ -0,0 +1,44 @@
+package com.skiuo.coreservice.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Media operations run by ai-service over gRPC (media.backend=grpc)
+ */
+public class GrpcMediaOps implements MediaOps {
+
+    private final GrpcClientService grpcClientService;
+    private final VideoDurationCache durationCache;
+
+    public GrpcMediaOps(GrpcClientService grpcClientService, VideoDurationCache durationCache) {
+        this.grpcClientService = grpcClientService;
+        this.durationCache = durationCache;
+    }
+
+    @Override
+    public CompletableFuture<String> extractSegmentAsync(String videoPath, String outputPath,
+                                                         Double startTime, Double endTime) {
+        return grpcClientService.extractSegmentAsync(videoPath, outputPath, startTime, endTime);
+    }
+
+    @Override
+    public CompletableFuture<String> extractTailAsync(String videoPath, String outputPath, int duration) {
+        return grpcClientService.extractTailAsync(videoPath, outputPath, duration);
+    }
+
+    @Override
+    public CompletableFuture<String> concatVideosAsync(List<String> videoPaths, String outputPath) {
+        return grpcClientService.concatVideosAsync(videoPaths, outputPath);
+    }
+
+    @Override
+    public CompletableFuture<Double> getVideoDurationAsync(String videoPath) {
+        return durationCache.get(videoPath, grpcClientService::getVideoDurationAsync);
+    }
+
+    @Override
+    public String toString() {
+        return "GrpcMediaOps";
+    }
+}
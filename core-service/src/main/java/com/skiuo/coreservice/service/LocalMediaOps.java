@@ -0,0 +1,296 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.MediaConfig;
+import com.skiuo.coreservice.exception.VideoProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Media operations run as local ffmpeg/ffprobe processes (media.backend=local).
+ *
+ * Same commands as ai-service's video_processor, without the gRPC and Python hop. At most
+ * media.max-processes processes run at once (further operations wait without blocking a
+ * thread), each is killed after its timeout, and stdout/stderr go to temp files so a chatty
+ * process can never stall on a full pipe; the stderr tail is kept in the failure message.
+ * Cancelling the future of a running process kills it, and processes still running on
+ * shutdown are killed. Runs are timed as video.media.local.process{operation,outcome}.
+ */
+@Slf4j
+public class LocalMediaOps implements MediaOps {
+
+    private static final int STDERR_TAIL_CHARS = 2000;
+    private static final double RANGE_TOLERANCE = 0.1;  // Same tolerance as ai-service for float end times
+    private static final List<String> VP9_ARGS = List.of(
+            "-c:v", "libvpx-vp9",  // VP9 required by the Qwen API
+            "-c:a", "libopus",
+            "-b:v", "1M",
+            "-crf", "30");
+
+    private final MediaConfig mediaConfig;
+    private final VideoDurationCache durationCache;
+    private final MeterRegistry meterRegistry;
+    private final Bulkhead processes;
+    private final Set<Process> live = ConcurrentHashMap.newKeySet();
+
+    public LocalMediaOps(MediaConfig mediaConfig, VideoDurationCache durationCache, MeterRegistry meterRegistry) {
+        this.mediaConfig = mediaConfig;
+        this.durationCache = durationCache;
+        this.meterRegistry = meterRegistry;
+        this.processes = new Bulkhead("media_local", mediaConfig.getMaxProcesses(), meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<String> extractSegmentAsync(String videoPath, String outputPath,
+                                                         Double startTime, Double endTime) {
+        return getVideoDurationAsync(videoPath).thenCompose(videoDuration -> {
+            if (startTime < 0 || endTime > videoDuration + RANGE_TOLERANCE || startTime >= endTime) {
+                return CompletableFuture.failedFuture(new VideoProcessingException(String.format(Locale.ROOT,
+                        "Invalid time range: [%.3f, %.3f] for video duration %.3fs", startTime, endTime, videoDuration)));
+            }
+
+            // Input seeking with stream copy (no re-encode)
+            List<String> command = ffmpeg();
+            command.addAll(List.of("-ss", seconds(startTime), "-to", seconds(Math.min(endTime, videoDuration))));
+            command.addAll(input(videoPath));
+            command.addAll(List.of("-c", "copy", outputPath));
+
+            return run("ExtractSegment", command, mediaConfig.getFfmpegTimeoutSeconds()).thenApply(output -> {
+                log.info("ExtractSegment completed locally: output={}, range=[{}s, {}s]", outputPath, startTime, endTime);
+                return outputPath;
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> extractTailAsync(String videoPath, String outputPath, int duration) {
+        return getVideoDurationAsync(videoPath).thenCompose(videoDuration -> {
+            if (videoDuration <= duration) {
+                // Video shorter than the tail: copy it whole
+                try {
+                    Files.copy(Paths.get(videoPath), Paths.get(outputPath),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                    return CompletableFuture.completedFuture(outputPath);
+                } catch (IOException e) {
+                    return CompletableFuture.failedFuture(new VideoProcessingException("Tail extraction failed", e));
+                }
+            }
+
+            List<String> command = ffmpeg();
+            command.addAll(input(videoPath));
+            command.addAll(List.of("-ss", seconds(videoDuration - duration), "-t", String.valueOf(duration)));
+            command.addAll(VP9_ARGS);
+            command.add(outputPath);
+
+            return run("ExtractTail", command, mediaConfig.getFfmpegTimeoutSeconds()).thenApply(output -> {
+                log.info("ExtractTail completed locally: output={}, duration={}s", outputPath, duration);
+                return outputPath;
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> concatVideosAsync(List<String> videoPaths, String outputPath) {
+        Path listPath = Paths.get(outputPath + ".concat.txt");
+        try {
+            StringBuilder list = new StringBuilder();
+            for (String videoPath : videoPaths) {
+                // Concat demuxer list: absolute paths, single quotes escaped as '\''
+                String absolute = Paths.get(videoPath).toAbsolutePath().toString();
+                list.append("file '").append(absolute.replace("'", "'\\''")).append("'\n");
+            }
+            Files.writeString(listPath, list, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new VideoProcessingException("Video concatenation failed", e));
+        }
+
+        List<String> command = ffmpeg();
+        command.addAll(List.of("-f", "concat", "-safe", "0", "-i", listPath.toString()));
+        command.addAll(VP9_ARGS);
+        command.add(outputPath);
+
+        return run("ConcatVideos", command, mediaConfig.getFfmpegTimeoutSeconds())
+                .whenComplete((output, error) -> deleteQuietly(listPath))
+                .thenApply(output -> {
+                    log.info("ConcatVideos completed locally: {} videos, output={}", videoPaths.size(), outputPath);
+                    return outputPath;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Double> getVideoDurationAsync(String videoPath) {
+        return durationCache.get(videoPath, this::probeDuration);
+    }
+
+    private CompletableFuture<Double> probeDuration(String videoPath) {
+        List<String> command = new ArrayList<>(List.of(mediaConfig.getFfprobePath(),
+                "-v", "error",
+                "-show_entries", "format=duration",
+                "-of", "default=noprint_wrappers=1:nokey=1"));
+        if (MasterVideoService.isPlaylist(videoPath)) {
+            command.addAll(List.of("-f", "concat", "-safe", "0"));
+        }
+        command.add(videoPath);
+
+        return run("GetVideoDuration", command, mediaConfig.getFfprobeTimeoutSeconds()).thenApply(output -> {
+            try {
+                double duration = Double.parseDouble(output);
+                log.info("GetVideoDuration completed locally: video={}, duration={}s", videoPath, duration);
+                return duration;
+            } catch (NumberFormatException e) {
+                throw new VideoProcessingException("Invalid duration value from ffprobe: " + output);
+            }
+        });
+    }
+
+    /**
+     * Kill processes still running (bean destroy method)
+     */
+    public void shutdown() {
+        for (Process process : live) {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Run a command once a process permit is free
+     *
+     * @return Future of the trimmed stdout; cancelling it kills the process
+     */
+    private CompletableFuture<String> run(String operation, List<String> command, long timeoutSeconds) {
+        AtomicReference<Process> running = new AtomicReference<>();
+        CompletableFuture<String> result = processes.submit(() -> start(operation, command, timeoutSeconds, running));
+        result.whenComplete((output, error) -> {
+            Process process = running.get();
+            if (result.isCancelled() && process != null) {
+                process.destroyForcibly();
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<String> start(String operation, List<String> command, long timeoutSeconds,
+                                            AtomicReference<Process> running) {
+        Path stdout = null;
+        Path stderr = null;
+        Process process;
+        try {
+            stdout = Files.createTempFile("media-", ".out");
+            stderr = Files.createTempFile("media-", ".err");
+            process = new ProcessBuilder(command)
+                    .redirectOutput(stdout.toFile())
+                    .redirectError(stderr.toFile())
+                    .start();
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            deleteQuietly(stdout);
+            deleteQuietly(stderr);
+            return CompletableFuture.failedFuture(
+                    new VideoProcessingException(operation + " failed to start " + command.get(0), e));
+        }
+
+        running.set(process);
+        live.add(process);
+        long startNanos = System.nanoTime();
+        Path out = stdout;
+        Path err = stderr;
+
+        return process.onExit()
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .handle((exited, error) -> {
+                    live.remove(process);
+                    try {
+                        if (error != null) {
+                            process.destroyForcibly();
+                            boolean timedOut = error instanceof TimeoutException || error.getCause() instanceof TimeoutException;
+                            record(operation, timedOut ? "timeout" : "failure", startNanos);
+                            String reason = timedOut ? "timed out after " + timeoutSeconds + "s" : "was interrupted";
+                            log.error("{} {} locally: {}", operation, reason, tail(err));
+                            throw new VideoProcessingException(operation + " " + reason + ": " + tail(err), error);
+                        }
+                        int exitCode = process.exitValue();
+                        if (exitCode != 0) {
+                            record(operation, "failure", startNanos);
+                            String message = tail(err);
+                            log.error("{} failed locally (exit {}): {}", operation, exitCode, message);
+                            throw new VideoProcessingException(operation + " failed (exit " + exitCode + "): " + message);
+                        }
+                        record(operation, "success", startNanos);
+                        return Files.readString(out, StandardCharsets.UTF_8).trim();
+                    } catch (IOException e) {
+                        throw new VideoProcessingException(operation + " output could not be read", e);
+                    } finally {
+                        deleteQuietly(out);
+                        deleteQuietly(err);
+                    }
+                });
+    }
+
+    private List<String> ffmpeg() {
+        return new ArrayList<>(List.of(mediaConfig.getFfmpegPath(), "-nostdin", "-y", "-v", "error"));
+    }
+
+    /**
+     * Input arguments; segment playlists are read through the concat demuxer
+     */
+    private static List<String> input(String videoPath) {
+        if (MasterVideoService.isPlaylist(videoPath)) {
+            return List.of("-f", "concat", "-safe", "0", "-i", videoPath);
+        }
+        return List.of("-i", videoPath);
+    }
+
+    private static String seconds(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String tail(Path stderr) {
+        try {
+            String text = new String(Files.readAllBytes(stderr), StandardCharsets.UTF_8).trim();
+            return text.length() > STDERR_TAIL_CHARS ? text.substring(text.length() - STDERR_TAIL_CHARS) : text;
+        } catch (IOException e) {
+            return "(stderr unavailable)";
+        }
+    }
+
+    private void record(String operation, String outcome, long startNanos) {
+        Timer.builder("video.media.local.process")
+                .description("Local ffmpeg/ffprobe runs")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LocalMediaOps(maxProcesses=" + mediaConfig.getMaxProcesses() + ")";
+    }
+}
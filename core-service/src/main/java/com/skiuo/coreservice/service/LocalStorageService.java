@@ -0,0 +1,219 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.LocalStorageConfig;
+import com.skiuo.coreservice.exception.StorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Storage on the local filesystem, for single-box and test deployments (storageType "local").
+ *
+ * Objects are files under storage.local.directory. Their URLs point at core-service
+ * (LocalStorageController, /storage/local/{object}) and carry an expiry and an HMAC-SHA256
+ * signature over (object, expiry), so they behave like the presigned URLs of OSS / COS and are
+ * cached the same way by {@link PresignedUrlCache}.
+ */
+@Service
+@Slf4j
+public class LocalStorageService implements StorageService {
+
+    public static final String URL_PATH = "/storage/local/";
+    private static final String HMAC = "HmacSHA256";
+
+    private final LocalStorageConfig config;
+    private final StorageReadiness storageReadiness;
+    private final PresignedUrlCache presignedUrlCache;
+    private final Path root;
+    private final ThreadLocal<Mac> mac;
+
+    public LocalStorageService(LocalStorageConfig config, StorageReadiness storageReadiness,
+                               PresignedUrlCache presignedUrlCache) {
+        this.config = config;
+        this.storageReadiness = storageReadiness;
+        this.presignedUrlCache = presignedUrlCache;
+        this.root = Paths.get(config.getDirectory() == null || config.getDirectory().isBlank()
+                ? System.getProperty("java.io.tmpdir") + "/skiuo-storage"
+                : config.getDirectory()).toAbsolutePath().normalize();
+
+        byte[] key;
+        if (config.getSigningKey() == null || config.getSigningKey().isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            log.warn("storage.local.signing-key not set, using a random key: local URLs will not survive a restart");
+        } else {
+            key = config.getSigningKey().getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Ensure the directory is ready (checked once, then cached by StorageReadiness)
+     */
+    @Override
+    public void ensureStorageReady() {
+        storageReadiness.ensureReady("local", this::verifyDirectory);
+    }
+
+    private void verifyDirectory() {
+        try {
+            Files.createDirectories(root);
+        } catch (Exception e) {
+            log.error("Failed to create local storage directory {}: {}", root, e.getMessage());
+            throw new StorageException("Failed to create local storage directory " + root, e);
+        }
+        if (!Files.isWritable(root)) {
+            throw new StorageException("Local storage directory is not writable: " + root);
+        }
+    }
+
+    /**
+     * Copy file into the storage directory (written next to the target, then moved into place,
+     * so the object is never served half-written)
+     *
+     * @param localFilePath Local file path
+     * @param objectName    Object name (relative path under the directory)
+     * @return Object name
+     */
+    @Override
+    public String uploadFile(String localFilePath, String objectName) {
+        ensureStorageReady();
+
+        Path source = Paths.get(localFilePath);
+        if (!Files.isReadable(source)) {
+            // The source is not part of the storage directory: readiness stays as it is
+            throw new StorageException("File not found: " + localFilePath);
+        }
+
+        try {
+            Path target = resolve(objectName);
+            Files.createDirectories(target.getParent());
+            Path part = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+            try {
+                Files.copy(source, part);
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+
+            log.info("Stored file locally: {} -> {}", localFilePath, target);
+            return objectName;
+
+        } catch (StorageException e) {
+            throw e;
+        } catch (Exception e) {
+            storageReadiness.invalidate("local");
+            log.error("Failed to store file locally: {}", e.getMessage());
+            throw new StorageException("Failed to store file locally", e);
+        }
+    }
+
+    /**
+     * Generate signed URL served by core-service
+     *
+     * @param objectName Object name
+     * @return URL valid for storage.presigned-url.ttl-seconds
+     */
+    @Override
+    public String generatePublicUrl(String objectName) {
+        return presignedUrlCache.get("local", objectName, expiration -> signUrl(objectName, expiration));
+    }
+
+    private String signUrl(String objectName, Date expiration) {
+        long expires = expiration.getTime() / 1000L;
+        String url = String.format("%s%s%s?expires=%d&signature=%s",
+                stripTrailingSlash(config.getPublicUrl()),
+                URL_PATH,
+                UriUtils.encodePath(objectName, StandardCharsets.UTF_8),
+                expires,
+                sign(objectName, expires));
+
+        log.debug("Generated local URL for: {}", objectName);
+        return url;
+    }
+
+    /**
+     * Delete object file
+     *
+     * @param objectName Object name
+     */
+    @Override
+    public void deleteObject(String objectName) {
+        try {
+            Files.deleteIfExists(resolve(objectName));
+            presignedUrlCache.evict("local", objectName);
+            log.info("Deleted local object: {}", objectName);
+
+        } catch (StorageException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to delete local object: {}", e.getMessage());
+            throw new StorageException("Failed to delete local object", e);
+        }
+    }
+
+    /**
+     * Check a URL's expiry and signature
+     *
+     * @param objectName Object name from the URL path
+     * @param expires    Expiry (epoch seconds) from the URL
+     * @param signature  Signature from the URL
+     * @return true if the URL was issued by this service and has not expired
+     */
+    public boolean verify(String objectName, long expires, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000L) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sign(objectName, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * File of an object
+     *
+     * @throws StorageException if the name escapes the storage directory
+     */
+    public Path resolve(String objectName) {
+        Path path = root.resolve(objectName).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new StorageException("Invalid object name: " + objectName);
+        }
+        return path;
+    }
+
+    private String sign(String objectName, long expires) {
+        byte[] digest = mac.get().doFinal((objectName + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        if (url == null) {
+            return "";
+        }
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
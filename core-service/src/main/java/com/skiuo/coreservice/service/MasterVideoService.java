@@ -0,0 +1,265 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.VideoConfig;
+import com.skiuo.coreservice.entity.Session;
+import com.skiuo.coreservice.exception.VideoProcessingException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental (append-only) master video.
+ *
+ * Instead of re-concatenating the whole recording on every chunk, each chunk is
+ * converted to VP9 once and stored as a segment file in the session directory.
+ * The master video is an FFmpeg concat playlist (master_video.ffconcat) that only
+ * ever gets two lines appended per chunk, so the work per chunk stays constant.
+ * ai-service reads the playlist through the concat demuxer, so window extraction
+ * keeps working against the master path as before.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MasterVideoService {
+
+    public static final String PLAYLIST_NAME = "master_video.ffconcat";
+    public static final String MATERIALIZED_NAME = "master_video.webm";
+    private static final String PLAYLIST_HEADER = "ffconcat version 1.0";
+    private static final double SEGMENT_TOLERANCE = 0.05;  // Seconds of float slack at segment edges
+    private static final Pattern FILE_LINE = Pattern.compile("^file '(.+)'$");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^segment_(\\d+)\\.webm$");
+
+    private final VideoConfig videoConfig;
+    private final MediaOps mediaOps;
+    private final DurationLedger durationLedger;
+
+    /**
+     * Whether new sessions should use the incremental master video
+     */
+    public boolean isIncrementalMode() {
+        return "incremental".equalsIgnoreCase(videoConfig.getMasterMode());
+    }
+
+    /**
+     * Whether the given master video path is a segment playlist
+     */
+    public static boolean isPlaylist(String masterVideoPath) {
+        return masterVideoPath != null && masterVideoPath.endsWith(".ffconcat");
+    }
+
+    /**
+     * Append a chunk to the session's segment playlist.
+     * Only the new chunk is converted and probed; the session length is advanced
+     * by the segment duration instead of re-reading the whole master video, and is
+     * reconciled against a probe of the playlist on the duration ledger's schedule.
+     *
+     * @param session    Session entity (masterVideoPath and currentVideoLength are updated)
+     * @param chunkPath  Local path to the uploaded chunk
+     * @param chunkIndex Chunk index (used for the segment file name)
+     * @param clientDuration Duration reported by the client (only used for drift reporting)
+     * @param isLastChunk Whether this is the last chunk (forces a duration reconcile)
+     * @return Appended segment
+     */
+    public Segment appendSegment(Session session, String chunkPath, Integer chunkIndex, Double clientDuration,
+                                 boolean isLastChunk) {
+        try {
+            Path sessionDir = Paths.get(videoConfig.getTempPath(), session.getId().toString());
+            if (!Files.exists(sessionDir)) {
+                Files.createDirectories(sessionDir);
+            }
+
+            // Convert only this chunk to VP9 (single-video "concat" = conversion)
+            String segmentName = String.format("segment_%05d.webm", chunkIndex);
+            Path segmentPath = sessionDir.resolve(segmentName);
+            mediaOps.concatVideos(List.of(chunkPath), segmentPath.toString());
+
+            // The segment is probed (not the whole master): its duration drives concat demuxer offsets
+            Double segmentDuration = mediaOps.getVideoDuration(segmentPath.toString());
+            if (clientDuration != null && clientDuration > 0) {
+                durationLedger.recordDrift("client", segmentDuration - clientDuration);
+            }
+
+            Path playlistPath = sessionDir.resolve(PLAYLIST_NAME);
+            StringBuilder entry = new StringBuilder();
+            if (!Files.exists(playlistPath)) {
+                entry.append(PLAYLIST_HEADER).append('\n');
+            }
+            entry.append("file '").append(segmentName).append("'\n");
+            entry.append(String.format(Locale.ROOT, "duration %.3f\n", segmentDuration));
+            Files.writeString(playlistPath, entry, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+            double startTime = session.getCurrentVideoLength() != null && session.getMasterVideoPath() != null
+                    ? session.getCurrentVideoLength() : 0.0;
+
+            if (session.getMasterVideoPath() == null) {
+                session.setMasterVideoPath(playlistPath.toString());
+                session.setLastWindowStartTime((double) -videoConfig.getWindowStep());
+            }
+            session.setCurrentVideoLength(startTime + segmentDuration);
+            if (durationLedger.shouldReconcile(chunkIndex, isLastChunk)) {
+                // The concat demuxer's view of the playlist is what window extraction reads
+                session.setCurrentVideoLength(
+                        durationLedger.reconcile(session.getMasterVideoPath(), session.getCurrentVideoLength()));
+            }
+
+            log.info("Appended segment to master playlist: session={}, segment={}, start={}s, duration={}s, total={}s",
+                    session.getId(), segmentName, startTime, segmentDuration, session.getCurrentVideoLength());
+
+            return Segment.builder()
+                    .path(segmentPath.toString())
+                    .chunkIndex(chunkIndex)
+                    .startTime(startTime)
+                    .duration(segmentDuration)
+                    .build();
+
+        } catch (IOException e) {
+            log.error("Failed to append segment to master playlist: {}", e.getMessage(), e);
+            throw new VideoProcessingException("Failed to append segment to master playlist", e);
+        }
+    }
+
+    /**
+     * List the segments of a playlist with their start offsets on the master timeline
+     *
+     * @param playlistPath Path to master_video.ffconcat
+     * @return Segments in playback order
+     */
+    public List<Segment> listSegments(String playlistPath) {
+        List<Segment> segments = new ArrayList<>();
+        Path playlist = Paths.get(playlistPath);
+        if (!Files.exists(playlist)) {
+            return segments;
+        }
+
+        try {
+            double offset = 0.0;
+            Segment current = null;
+            for (String line : Files.readAllLines(playlist, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                Matcher fileMatcher = FILE_LINE.matcher(line);
+                if (fileMatcher.matches()) {
+                    String name = fileMatcher.group(1);
+                    Matcher nameMatcher = SEGMENT_NAME.matcher(name);
+                    current = Segment.builder()
+                            .path(playlist.resolveSibling(name).toString())
+                            .chunkIndex(nameMatcher.matches() ? Integer.parseInt(nameMatcher.group(1)) : null)
+                            .startTime(offset)
+                            .duration(0.0)
+                            .build();
+                    segments.add(current);
+                } else if (line.startsWith("duration ") && current != null) {
+                    current.setDuration(Double.parseDouble(line.substring("duration ".length()).trim()));
+                    offset += current.getDuration();
+                }
+            }
+            return segments;
+
+        } catch (IOException | NumberFormatException e) {
+            log.error("Failed to read master playlist {}: {}", playlistPath, e.getMessage());
+            throw new VideoProcessingException("Failed to read master playlist", e);
+        }
+    }
+
+    /**
+     * Find the segment that fully contains a time range on the master timeline
+     *
+     * @param segments  Segments from {@link #listSegments(String)}
+     * @param startTime Range start (seconds)
+     * @param endTime   Range end (seconds)
+     * @return Containing segment, or null if the range crosses a segment boundary
+     */
+    public static Segment findContainingSegment(List<Segment> segments, double startTime, double endTime) {
+        for (Segment segment : segments) {
+            if (startTime >= segment.getStartTime() - SEGMENT_TOLERANCE
+                    && endTime <= segment.getEndTime() + SEGMENT_TOLERANCE) {
+                return segment;
+            }
+            if (segment.getStartTime() > startTime) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Produce a single playable file for the master video.
+     * Playlists are remuxed with stream copy (segments are already VP9), so this is
+     * one linear pass at session end instead of a re-encode per chunk.
+     *
+     * @param session Session entity
+     * @return Path to a regular video file
+     */
+    public String materialize(Session session) {
+        String masterPath = session.getMasterVideoPath();
+        if (!isPlaylist(masterPath)) {
+            return masterPath;
+        }
+
+        String outputPath = Paths.get(masterPath).resolveSibling(MATERIALIZED_NAME).toString();
+        mediaOps.extractSegment(masterPath, outputPath, 0.0, session.getCurrentVideoLength());
+        log.info("Materialized master playlist: session={}, output={}, length={}s",
+                session.getId(), outputPath, session.getCurrentVideoLength());
+        return outputPath;
+    }
+
+    /**
+     * Delete all local files belonging to the master video (playlist, segments, materialized file)
+     *
+     * @param masterVideoPath Session master video path
+     */
+    public void deleteMasterFiles(String masterVideoPath) {
+        if (masterVideoPath == null) {
+            return;
+        }
+        List<String> paths = new ArrayList<>();
+        if (isPlaylist(masterVideoPath)) {
+            listSegments(masterVideoPath).forEach(segment -> paths.add(segment.getPath()));
+            paths.add(Paths.get(masterVideoPath).resolveSibling(MATERIALIZED_NAME).toString());
+        }
+        paths.add(masterVideoPath);
+
+        for (String path : paths) {
+            try {
+                Files.deleteIfExists(Paths.get(path));
+            } catch (IOException e) {
+                log.warn("Failed to delete master video file: {}, error={}", path, e.getMessage());
+            }
+        }
+        log.info("Deleted master video files: {} ({} files)", masterVideoPath, paths.size());
+    }
+
+    /**
+     * A converted chunk on the master video timeline
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Segment {
+        private String path;
+        private Integer chunkIndex;
+        private Double startTime;  // Offset on the master timeline (seconds)
+        private Double duration;   // Segment duration (seconds)
+
+        public Double getEndTime() {
+            return startTime + duration;
+        }
+    }
+}
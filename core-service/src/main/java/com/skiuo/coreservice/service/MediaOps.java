@@ -0,0 +1,83 @@
+package com.skiuo.coreservice.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * FFmpeg media operations on local files.
+ *
+ * Implemented over gRPC by ai-service ({@link GrpcMediaOps}) or by running ffmpeg/ffprobe in
+ * this process ({@link LocalMediaOps}); the backend is chosen by media.backend. Both backends
+ * read and write the same local paths. The blocking variants wait on the non-blocking ones.
+ */
+public interface MediaOps {
+
+    /**
+     * Extract a time range from a video (stream copy)
+     *
+     * @param videoPath  Input video file path (or segment playlist)
+     * @param outputPath Output file path for segment
+     * @param startTime  Start time in seconds
+     * @param endTime    End time in seconds
+     * @return Future of the path of the extracted segment
+     */
+    CompletableFuture<String> extractSegmentAsync(String videoPath, String outputPath, Double startTime, Double endTime);
+
+    /**
+     * Extract the last N seconds of a video
+     *
+     * @param videoPath  Input video file path
+     * @param outputPath Output file path for tail
+     * @param duration   Duration to extract in seconds
+     * @return Future of the path of the extracted tail
+     */
+    CompletableFuture<String> extractTailAsync(String videoPath, String outputPath, int duration);
+
+    /**
+     * Concatenate videos into one VP9 file (a single input converts it)
+     *
+     * @param videoPaths Video file paths (in order)
+     * @param outputPath Output file path
+     * @return Future of the path of the concatenated video
+     */
+    CompletableFuture<String> concatVideosAsync(List<String> videoPaths, String outputPath);
+
+    /**
+     * Probe the duration of a video (or segment playlist)
+     *
+     * @param videoPath Video file path
+     * @return Future of the duration in seconds
+     */
+    CompletableFuture<Double> getVideoDurationAsync(String videoPath);
+
+    default String extractSegment(String videoPath, String outputPath, Double startTime, Double endTime) {
+        return await(extractSegmentAsync(videoPath, outputPath, startTime, endTime));
+    }
+
+    default String extractTail(String videoPath, String outputPath, int duration) {
+        return await(extractTailAsync(videoPath, outputPath, duration));
+    }
+
+    default String concatVideos(List<String> videoPaths, String outputPath) {
+        return await(concatVideosAsync(videoPaths, outputPath));
+    }
+
+    default Double getVideoDuration(String videoPath) {
+        return await(getVideoDurationAsync(videoPath));
+    }
+
+    /**
+     * Wait for a non-blocking operation, rethrowing its failure unwrapped
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.skiuo.coreservice.service;
+
+import com.google.protobuf.ByteString;
+import com.skiuo.coreservice.exception.GrpcException;
+import com.skiuo.grpc.MediaChunk;
+import com.skiuo.grpc.MediaOperation;
+import com.skiuo.grpc.MediaStreamRequest;
+import com.skiuo.grpc.MediaStreamResponse;
+import com.skiuo.grpc.VideoAnalysisServiceGrpc;
+import io.grpc.Channel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * FFmpeg RPCs on streamed bytes, for ai-service backends that cannot read video.temp-path.
+ *
+ * Inputs are read with FileChannels into pooled direct buffers and sent in 1 MiB chunks only
+ * while the call is ready (gRPC flow control), so a slow backend never makes the client hold
+ * whole files in memory. The output is written to a .part file and moved into place when the
+ * stream completes. A segment playlist input is trimmed to the segments overlapping the
+ * requested range, and playlist durations are summed locally instead of shipping segments.
+ */
+@Slf4j
+public class MediaStreamClient {
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+    private static final String PLAYLIST_HEADER = "ffconcat version 1.0";
+    private static final String PLAYLIST_INPUT = "input.ffconcat";
+
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * @param pooledBuffers Direct buffers kept for reuse (one is in use per sending call)
+     */
+    public MediaStreamClient(int pooledBuffers) {
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, pooledBuffers));
+    }
+
+    public CompletableFuture<String> extractSegment(Channel channel, String videoPath, String outputPath,
+                                                    double startTime, double endTime) {
+        if (!MasterVideoService.isPlaylist(videoPath)) {
+            MediaOperation operation = MediaOperation.newBuilder()
+                    .setType("extract_segment")
+                    .addInputNames(inputName(0, videoPath))
+                    .setOutputName(outputName(outputPath))
+                    .setStartTime((float) startTime)
+                    .setEndTime((float) endTime)
+                    .build();
+            return call(channel, operation, List.of(Paths.get(videoPath)), Paths.get(outputPath))
+                    .thenApply(duration -> outputPath);
+        }
+
+        // Ship only the segments the range touches, with a playlist rewritten to match
+        Path playlistFile = Paths.get(outputPath + ".ffconcat");
+        Playlist trimmed;
+        try {
+            trimmed = Playlist.read(Paths.get(videoPath)).trim(startTime, endTime);
+            Files.writeString(playlistFile, trimmed.text(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new GrpcException("Failed to prepare playlist " + videoPath, e));
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        inputs.add(playlistFile);
+        inputs.addAll(trimmed.files);
+        MediaOperation operation = MediaOperation.newBuilder()
+                .setType("extract_segment")
+                .addInputNames(PLAYLIST_INPUT)
+                .addAllInputNames(trimmed.names())
+                .setOutputName(outputName(outputPath))
+                .setStartTime((float) (startTime - trimmed.offset))
+                .setEndTime((float) (endTime - trimmed.offset))
+                .build();
+        log.debug("Streaming {} of {} playlist segments for [{}s, {}s]",
+                trimmed.files.size(), trimmed.total, startTime, endTime);
+
+        return call(channel, operation, inputs, Paths.get(outputPath))
+                .whenComplete((duration, error) -> deleteQuietly(playlistFile))
+                .thenApply(duration -> outputPath);
+    }
+
+    public CompletableFuture<String> extractTail(Channel channel, String videoPath, String outputPath, int duration) {
+        MediaOperation operation = MediaOperation.newBuilder()
+                .setType("extract_tail")
+                .addInputNames(inputName(0, videoPath))
+                .setOutputName(outputName(outputPath))
+                .setDuration(duration)
+                .build();
+        return call(channel, operation, List.of(Paths.get(videoPath)), Paths.get(outputPath))
+                .thenApply(result -> outputPath);
+    }
+
+    public CompletableFuture<String> concatVideos(Channel channel, List<String> videoPaths, String outputPath) {
+        MediaOperation.Builder operation = MediaOperation.newBuilder()
+                .setType("concat_videos")
+                .setOutputName(outputName(outputPath));
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < videoPaths.size(); i++) {
+            operation.addInputNames(inputName(i, videoPaths.get(i)));
+            inputs.add(Paths.get(videoPaths.get(i)));
+        }
+        return call(channel, operation.build(), inputs, Paths.get(outputPath))
+                .thenApply(result -> outputPath);
+    }
+
+    public CompletableFuture<Double> getVideoDuration(Channel channel, String videoPath) {
+        List<Path> inputs = new ArrayList<>();
+        MediaOperation.Builder operation = MediaOperation.newBuilder().setType("get_video_duration");
+
+        if (MasterVideoService.isPlaylist(videoPath)) {
+            Playlist playlist;
+            try {
+                playlist = Playlist.read(Paths.get(videoPath));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new GrpcException("Failed to read playlist " + videoPath, e));
+            }
+            if (playlist.hasDurations()) {
+                // The concat demuxer reports exactly the sum of the duration lines
+                return CompletableFuture.completedFuture(playlist.totalDuration());
+            }
+            // Entries without durations: ship the playlist, rewritten to the streamed names
+            Path playlistFile = Paths.get(videoPath + ".stream.ffconcat");
+            try {
+                Files.writeString(playlistFile, playlist.text(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new GrpcException("Failed to prepare playlist " + videoPath, e));
+            }
+            inputs.add(playlistFile);
+            inputs.addAll(playlist.files);
+            operation.addInputNames(PLAYLIST_INPUT).addAllInputNames(playlist.names());
+            return call(channel, operation.build(), inputs, null)
+                    .whenComplete((duration, error) -> deleteQuietly(playlistFile))
+                    .thenApply(Float::doubleValue);
+        }
+
+        inputs.add(Paths.get(videoPath));
+        operation.addInputNames(inputName(0, videoPath));
+        return call(channel, operation.build(), inputs, null).thenApply(Float::doubleValue);
+    }
+
+    /**
+     * Run one MediaStream call
+     *
+     * @param output Where the streamed output is written, null for operations without output
+     * @return Future of the duration reported by the server (0 unless probing)
+     */
+    private CompletableFuture<Float> call(Channel channel, MediaOperation operation, List<Path> inputs, Path output) {
+        MediaCall call = new MediaCall(operation, inputs, output);
+        try {
+            VideoAnalysisServiceGrpc.newStub(channel).mediaStream(call);
+        } catch (RuntimeException e) {
+            call.fail(new GrpcException("Failed to call MediaStream gRPC", e));
+        }
+        return call.future;
+    }
+
+    private ByteBuffer borrow() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private void release(ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+
+    /**
+     * Streamed input name: position plus the original extension (names must be unique)
+     */
+    private static String inputName(int index, String path) {
+        return "input_" + index + extension(path);
+    }
+
+    private static String outputName(String path) {
+        return "output" + extension(path);
+    }
+
+    private static String extension(String path) {
+        String fileName = Paths.get(path).getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(dot) : ".webm";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to do with it
+            }
+        }
+    }
+
+    /**
+     * One MediaStream call: sends the inputs as flow control allows and writes the output.
+     * gRPC delivers onReady and response callbacks of a call one at a time.
+     */
+    private final class MediaCall implements ClientResponseObserver<MediaStreamRequest, MediaStreamResponse> {
+        private final MediaOperation operation;
+        private final List<Path> inputs;
+        private final Path output;
+        private final Path part;
+        private final CompletableFuture<Float> future = new CompletableFuture<>();
+        private ClientCallStreamObserver<MediaStreamRequest> requestStream;
+        private boolean operationSent;
+        private boolean halfClosed;
+        private int inputIndex;
+        private FileChannel reading;
+        private FileChannel writing;
+        private float duration;
+        private String error;
+
+        private MediaCall(MediaOperation operation, List<Path> inputs, Path output) {
+            this.operation = operation;
+            this.inputs = inputs;
+            this.output = output;
+            this.part = output != null ? output.resolveSibling(output.getFileName() + ".part") : null;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<MediaStreamRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(this::pump);
+        }
+
+        /**
+         * Send until the transport buffer is full; called again when the call becomes ready
+         */
+        private void pump() {
+            if (halfClosed || future.isDone()) {
+                return;
+            }
+            try {
+                while (requestStream.isReady()) {
+                    if (!operationSent) {
+                        requestStream.onNext(MediaStreamRequest.newBuilder().setOperation(operation).build());
+                        operationSent = true;
+                        continue;
+                    }
+                    if (reading == null) {
+                        if (inputIndex == inputs.size()) {
+                            requestStream.onCompleted();
+                            halfClosed = true;
+                            return;
+                        }
+                        reading = FileChannel.open(inputs.get(inputIndex), StandardOpenOption.READ);
+                    }
+
+                    ByteBuffer buffer = borrow();
+                    try {
+                        if (reading.read(buffer) < 0) {
+                            reading.close();
+                            reading = null;
+                            inputIndex++;
+                            continue;
+                        }
+                        buffer.flip();
+                        requestStream.onNext(MediaStreamRequest.newBuilder()
+                                .setChunk(MediaChunk.newBuilder()
+                                        .setInputIndex(inputIndex)
+                                        .setData(ByteString.copyFrom(buffer)))
+                                .build());
+                    } finally {
+                        release(buffer);
+                    }
+                }
+            } catch (IOException e) {
+                fail(new GrpcException("Failed to read media input " + inputs.get(inputIndex), e));
+                requestStream.cancel("Failed to read media input", e);
+            }
+        }
+
+        @Override
+        public void onNext(MediaStreamResponse response) {
+            if (!response.getError().isEmpty()) {
+                error = response.getError();
+                return;
+            }
+            try {
+                if (response.hasChunk() && output != null) {
+                    if (writing == null) {
+                        writing = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+                    }
+                    ByteBuffer data = response.getChunk().getData().asReadOnlyByteBuffer();
+                    while (data.hasRemaining()) {
+                        writing.write(data);
+                    }
+                }
+            } catch (IOException e) {
+                fail(new GrpcException("Failed to write media output " + output, e));
+                requestStream.cancel("Failed to write media output", e);
+                return;
+            }
+            if (response.getDone()) {
+                duration = response.getDuration();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.error("MediaStream {} gRPC error: {}", operation.getType(), t.getMessage());
+            fail(new GrpcException("MediaStream " + operation.getType() + " failed", t));
+        }
+
+        @Override
+        public void onCompleted() {
+            closeQuietly(reading);
+            closeQuietly(writing);
+            if (error != null) {
+                log.error("MediaStream {} failed: {}", operation.getType(), error);
+                fail(new GrpcException("MediaStream " + operation.getType() + " failed: " + error));
+                return;
+            }
+            if (output != null) {
+                if (writing == null) {
+                    fail(new GrpcException("MediaStream " + operation.getType() + " returned no output"));
+                    return;
+                }
+                try {
+                    move(part, output);
+                } catch (IOException e) {
+                    fail(new GrpcException("Failed to move media output to " + output, e));
+                    return;
+                }
+            }
+            log.info("MediaStream {} completed: inputs={}, output={}", operation.getType(), inputs.size(), output);
+            future.complete(duration);
+        }
+
+        private void fail(Throwable t) {
+            closeQuietly(reading);
+            closeQuietly(writing);
+            if (part != null) {
+                deleteQuietly(part);
+            }
+            future.completeExceptionally(t);
+        }
+
+        private void move(Path from, Path to) throws IOException {
+            try {
+                Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Entries of a segment playlist (ffconcat with file and duration lines)
+     */
+    private static final class Playlist {
+        private final List<Path> files;
+        private final List<Double> durations;  // NaN when an entry has no duration line
+        private final double offset;           // Start of the first entry on the original timeline
+        private final int total;               // Entries in the original playlist
+
+        private Playlist(List<Path> files, List<Double> durations, double offset, int total) {
+            this.files = files;
+            this.durations = durations;
+            this.offset = offset;
+            this.total = total;
+        }
+
+        static Playlist read(Path playlist) throws IOException {
+            Path dir = playlist.toAbsolutePath().getParent();
+            List<Path> files = new ArrayList<>();
+            List<Double> durations = new ArrayList<>();
+            for (String line : Files.readAllLines(playlist, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.startsWith("file ")) {
+                    String name = line.substring("file ".length()).trim();
+                    if (name.length() >= 2 && name.startsWith("'") && name.endsWith("'")) {
+                        name = name.substring(1, name.length() - 1).replace("'\\''", "'");
+                    }
+                    files.add(dir.resolve(name));
+                    durations.add(Double.NaN);
+                } else if (line.startsWith("duration ") && !durations.isEmpty()) {
+                    durations.set(durations.size() - 1, Double.parseDouble(line.substring("duration ".length()).trim()));
+                }
+            }
+            return new Playlist(files, durations, 0.0, files.size());
+        }
+
+        boolean hasDurations() {
+            return durations.stream().noneMatch(d -> d.isNaN());
+        }
+
+        double totalDuration() {
+            return durations.stream().mapToDouble(Double::doubleValue).sum();
+        }
+
+        /**
+         * Entries overlapping [start, end), or the whole playlist when durations are unknown
+         */
+        Playlist trim(double start, double end) {
+            if (!hasDurations()) {
+                return this;
+            }
+            List<Path> keptFiles = new ArrayList<>();
+            List<Double> keptDurations = new ArrayList<>();
+            double position = 0.0;
+            double keptOffset = 0.0;
+            for (int i = 0; i < files.size(); i++) {
+                double entryEnd = position + durations.get(i);
+                if (entryEnd > start && position < end) {
+                    if (keptFiles.isEmpty()) {
+                        keptOffset = position;
+                    }
+                    keptFiles.add(files.get(i));
+                    keptDurations.add(durations.get(i));
+                }
+                position = entryEnd;
+            }
+            return keptFiles.isEmpty() ? this : new Playlist(keptFiles, keptDurations, keptOffset, total);
+        }
+
+        /**
+         * Streamed names of the entries, in order
+         */
+        List<String> names() {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                names.add("segment_" + i + extension(files.get(i).toString()));
+            }
+            return names;
+        }
+
+        /**
+         * Playlist text referencing the streamed names
+         */
+        String text() {
+            StringBuilder text = new StringBuilder(PLAYLIST_HEADER).append('\n');
+            List<String> names = names();
+            for (int i = 0; i < files.size(); i++) {
+                text.append("file '").append(names.get(i)).append("'\n");
+                if (!durations.get(i).isNaN()) {
+                    text.append(String.format(Locale.ROOT, "duration %.3f\n", durations.get(i)));
+                }
+            }
+            return text.toString();
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.skiuo.coreservice.service;
 
+import com.skiuo.coreservice.client.MinioMultipartClient;
 import com.skiuo.coreservice.config.MinioConfig;
 import com.skiuo.coreservice.exception.StorageException;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.ServerException;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Part;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -22,12 +32,19 @@ public class MinioService implements StorageService {
 
     private final MinioClient minioClient;
     private final MinioConfig minioConfig;
+    private final StorageReadiness storageReadiness;
+    private final MinioMultipartClient minioMultipartClient;
+    private final MultipartUploader multipartUploader;
 
     /**
-     * Ensure storage is ready (bucket exists, create if not)
+     * Ensure the bucket is ready (checked once, then cached by StorageReadiness)
      */
     @Override
     public void ensureStorageReady() {
+        storageReadiness.ensureReady("minio", this::verifyBucket);
+    }
+
+    private void verifyBucket() {
         try {
             boolean exists = minioClient.bucketExists(
                     BucketExistsArgs.builder()
@@ -50,7 +67,9 @@ public class MinioService implements StorageService {
     }
 
     /**
-     * Upload file from local path to MinIO
+     * Upload file from local path to MinIO.
+     * Bucket readiness is only invalidated when MinIO reports the bucket missing or cannot
+     * be reached; an unreadable local file says nothing about the backend.
      *
      * @param localFilePath Local file path
      * @param objectName    Object name in MinIO
@@ -58,32 +77,99 @@ public class MinioService implements StorageService {
      */
     @Override
     public String uploadFile(String localFilePath, String objectName) {
-        try {
-            ensureStorageReady();
+        ensureStorageReady();
 
-            Path path = Paths.get(localFilePath);
-            long fileSize = Files.size(path);
+        Path path = Paths.get(localFilePath);
+        long fileSize;
+        InputStream inputStream;
+        try {
+            fileSize = Files.size(path);
+            inputStream = Files.newInputStream(path);
+        } catch (IOException e) {
+            log.error("Failed to read file for MinIO upload: {}", e.getMessage());
+            throw new StorageException("Failed to read file for MinIO upload: " + localFilePath, e);
+        }
 
-            try (InputStream inputStream = Files.newInputStream(path)) {
-                minioClient.putObject(
-                        PutObjectArgs.builder()
-                                .bucket(minioConfig.getBucketName())
-                                .object(objectName)
-                                .stream(inputStream, fileSize, -1)
-                                .contentType("video/webm")
-                                .build()
-                );
-            }
+        try (inputStream) {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(minioConfig.getBucketName())
+                            .object(objectName)
+                            .stream(inputStream, fileSize, -1)
+                            .contentType("video/webm")
+                            .build()
+            );
 
             log.info("Uploaded file to MinIO: {} -> {}", localFilePath, objectName);
             return objectName;
 
+        } catch (ErrorResponseException e) {
+            if ("NoSuchBucket".equals(e.errorResponse().code())) {
+                storageReadiness.invalidate("minio");
+            }
+            log.error("Failed to upload file to MinIO: {}", e.getMessage());
+            throw new StorageException("Failed to upload file to MinIO", e);
+        } catch (IOException | ServerException e) {
+            // Connection failure or MinIO-side error
+            storageReadiness.invalidate("minio");
+            log.error("Failed to connect to MinIO during upload: {}", e.getMessage());
+            throw new StorageException("Failed to connect to MinIO during upload", e);
         } catch (Exception e) {
             log.error("Failed to upload file to MinIO: {}", e.getMessage());
             throw new StorageException("Failed to upload file to MinIO", e);
         }
     }
 
+    /**
+     * Upload a large file to MinIO as parallel parts (single PUT below the multipart threshold)
+     */
+    @Override
+    public String uploadLargeFile(String localFilePath, String objectName) {
+        Path path = Paths.get(localFilePath);
+        long fileSize;
+        try {
+            fileSize = Files.size(path);
+        } catch (Exception e) {
+            throw new StorageException("File not found: " + localFilePath, e);
+        }
+        if (!multipartUploader.isMultipart(fileSize)) {
+            return uploadFile(localFilePath, objectName);
+        }
+
+        ensureStorageReady();
+        String bucket = minioConfig.getBucketName();
+        multipartUploader.upload("minio", path, fileSize, new MultipartUploader.Target() {
+            @Override
+            public String initiate() throws Exception {
+                return minioMultipartClient.createMultipartUpload(bucket, objectName, "video/webm");
+            }
+
+            @Override
+            public String uploadPart(String uploadId, int partNumber, Path file, long offset, long length) throws Exception {
+                try (RandomAccessFile data = new RandomAccessFile(file.toFile(), "r")) {
+                    data.seek(offset);
+                    return minioMultipartClient.uploadPart(bucket, objectName, uploadId, partNumber, data, length);
+                }
+            }
+
+            @Override
+            public void complete(String uploadId, List<MultipartUploader.UploadedPart> parts) throws Exception {
+                Part[] completed = parts.stream()
+                        .map(part -> new Part(part.getPartNumber(), part.getEtag()))
+                        .toArray(Part[]::new);
+                minioMultipartClient.completeMultipartUpload(bucket, objectName, uploadId, completed);
+            }
+
+            @Override
+            public void abort(String uploadId) throws Exception {
+                minioMultipartClient.abortMultipartUpload(bucket, objectName, uploadId);
+            }
+        });
+
+        log.info("Uploaded file to MinIO in parts: {} -> {}", localFilePath, objectName);
+        return objectName;
+    }
+
     /**
      * Generate public URL for object (for public bucket)
      *
@@ -132,6 +218,37 @@ public class MinioService implements StorageService {
         }
     }
 
+    /**
+     * Delete objects from MinIO in one multi-object delete (removeObjects)
+     *
+     * @param objectNames Object names
+     * @return Names that could not be deleted
+     */
+    @Override
+    public List<String> deleteObjects(List<String> objectNames) {
+        try {
+            List<DeleteObject> objects = objectNames.stream().map(DeleteObject::new).toList();
+            List<String> failed = new ArrayList<>();
+            // Lazy: the request is sent while iterating the results
+            for (Result<DeleteError> result : minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(minioConfig.getBucketName())
+                            .objects(objects)
+                            .build())) {
+                DeleteError error = result.get();
+                log.warn("Failed to delete object from MinIO: {} ({})", error.objectName(), error.message());
+                failed.add(error.objectName());
+            }
+
+            log.info("Deleted {} objects from MinIO", objectNames.size() - failed.size());
+            return failed;
+
+        } catch (Exception e) {
+            log.error("Failed to delete objects from MinIO: {}", e.getMessage());
+            throw new StorageException("Failed to delete objects from MinIO", e);
+        }
+    }
+
     /**
      * Check if object exists
      *
@@ -0,0 +1,154 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.StorageUploadConfig;
+import com.skiuo.coreservice.exception.StorageException;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parallel multipart upload of large local files, shared by the storage backends.
+ *
+ * The file is cut into storage.multipart.part-size-mb parts (at least 5 MB, and large enough
+ * to stay within 10000 parts) that are uploaded storage.multipart.concurrency at a time on a
+ * dedicated pool, then completed in part order. The first failed part stops parts not yet
+ * started, aborts the upload so no orphaned parts are billed, and invalidates the backend's
+ * {@link StorageReadiness}. Each backend supplies its multipart calls as a {@link Target}.
+ */
+@Component
+@Slf4j
+public class MultipartUploader {
+
+    private static final long MB = 1024L * 1024;
+    private static final long MIN_PART_BYTES = 5 * MB;  // S3 / OSS / COS minimum for all but the last part
+    private static final int MAX_PARTS = 10000;
+
+    private final StorageUploadConfig config;
+    private final StorageReadiness storageReadiness;
+    private final ExecutorService partExecutor;
+
+    public MultipartUploader(StorageUploadConfig config, StorageReadiness storageReadiness) {
+        this.config = config;
+        this.storageReadiness = storageReadiness;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("storage-part-");
+        threadFactory.setDaemon(true);
+        this.partExecutor = Executors.newFixedThreadPool(Math.max(1, config.getConcurrency()), threadFactory);
+    }
+
+    /**
+     * Whether a file of this size is uploaded in parts (otherwise one PUT)
+     */
+    public boolean isMultipart(long size) {
+        return size >= config.getThresholdMb() * MB;
+    }
+
+    /**
+     * Upload a file through a backend's multipart calls
+     *
+     * @param storage Storage type (minio, oss, cos)
+     * @param file    Local file
+     * @param size    File size in bytes
+     * @param target  Backend multipart calls for the destination object
+     */
+    public void upload(String storage, Path file, long size, Target target) {
+        long partSize = Math.max(Math.max(MIN_PART_BYTES, config.getPartSizeMb() * MB),
+                (size + MAX_PARTS - 1) / MAX_PARTS);
+        int partCount = (int) Math.max(1, (size + partSize - 1) / partSize);
+        long startMs = System.currentTimeMillis();
+
+        String uploadId;
+        try {
+            uploadId = target.initiate();
+        } catch (Exception e) {
+            storageReadiness.invalidate(storage);
+            throw new StorageException("Failed to start " + storage + " multipart upload", e);
+        }
+
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<UploadedPart>> parts = new ArrayList<>(partCount);
+        for (int i = 0; i < partCount; i++) {
+            int partNumber = i + 1;
+            long offset = i * partSize;
+            long length = Math.min(partSize, size - offset);
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                if (failed.get()) {
+                    throw new StorageException("Skipped part " + partNumber + " after an earlier failure");
+                }
+                try {
+                    return new UploadedPart(partNumber, target.uploadPart(uploadId, partNumber, file, offset, length));
+                } catch (Exception e) {
+                    failed.set(true);
+                    throw new CompletionException(e);
+                }
+            }, partExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).join();
+            List<UploadedPart> uploaded = parts.stream().map(CompletableFuture::join).toList();
+            target.complete(uploadId, uploaded);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("{} multipart upload of {} failed, aborting: {}", storage, file, cause.getMessage());
+            storageReadiness.invalidate(storage);
+            try {
+                target.abort(uploadId);
+            } catch (Exception abortError) {
+                log.warn("Failed to abort {} multipart upload {}: {}", storage, uploadId, abortError.getMessage());
+            }
+            throw new StorageException("Failed to upload file to " + storage + " in parts", cause);
+        }
+
+        log.info("Uploaded {} to {} in {} parts of {} MB in {}ms",
+                file, storage, partCount, partSize / MB, System.currentTimeMillis() - startMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partExecutor.shutdownNow();
+    }
+
+    /**
+     * Multipart calls of one backend for one object
+     */
+    public interface Target {
+
+        /**
+         * @return Upload ID
+         */
+        String initiate() throws Exception;
+
+        /**
+         * Upload bytes [offset, offset + length) of the file as one part
+         *
+         * @return ETag of the part
+         */
+        String uploadPart(String uploadId, int partNumber, Path file, long offset, long length) throws Exception;
+
+        /**
+         * @param parts Uploaded parts in part number order
+         */
+        void complete(String uploadId, List<UploadedPart> parts) throws Exception;
+
+        void abort(String uploadId) throws Exception;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class UploadedPart {
+        private final int partNumber;
+        private final String etag;
+    }
+}
@@ -0,0 +1,212 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background deletion of storage objects (window clips and full videos with keepVideo=false).
+ *
+ * Keys are queued per storage type and removed with the backend's multi-object delete
+ * ({@link StorageService#deleteObjects}, up to 1000 keys per request), every
+ * storage.delete.flush-interval-ms and when a session completes, so the delete round trip
+ * never sits on a window's critical path. Session-completion flushes run on the deleter's own
+ * thread, so delete round trips never occupy the common pool or the video task pools.
+ * Keys that fail are retried on later flushes; after
+ * storage.delete.max-attempts they are written to the dead-letter log
+ * (logger com.skiuo.coreservice.storage.deadletter) for manual cleanup.
+ * Metrics: video.storage.delete{result=deleted|retried|dead_letter}, video.storage.delete.pending.
+ */
+@Component
+@Slf4j
+public class ObjectDeleter {
+
+    private static final Logger deadLetter = LoggerFactory.getLogger("com.skiuo.coreservice.storage.deadletter");
+    private static final int MAX_BATCH = 1000;  // Multi-object delete limit of MinIO / OSS / COS
+
+    private final StorageServiceFactory storageServiceFactory;
+    private final Map<String, Queue<PendingDelete>> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "storage-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter deleted;
+    private final Counter retried;
+    private final Counter deadLettered;
+
+    @Value("${storage.delete.max-attempts:5}")
+    private int maxAttempts;
+
+    public ObjectDeleter(StorageServiceFactory storageServiceFactory, MeterRegistry meterRegistry) {
+        this.storageServiceFactory = storageServiceFactory;
+        this.deleted = counter(meterRegistry, "deleted");
+        this.retried = counter(meterRegistry, "retried");
+        this.deadLettered = counter(meterRegistry, "dead_letter");
+        Gauge.builder("video.storage.delete.pending", pending, AtomicInteger::get)
+                .description("Storage objects queued for deletion")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an object for deletion
+     *
+     * @param storageType Storage type of the session (minio, oss, cos)
+     * @param objectName  Object name/key
+     */
+    public void enqueue(String storageType, String objectName) {
+        queues.computeIfAbsent(normalize(storageType), type -> new ConcurrentLinkedQueue<>())
+                .add(new PendingDelete(objectName));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Flush one storage type in the background (session completion)
+     */
+    public CompletableFuture<Void> flushAsync(String storageType) {
+        try {
+            return CompletableFuture.runAsync(() -> flush(normalize(storageType)), flushExecutor);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the final flush in shutdown() handles what is queued
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${storage.delete.flush-interval-ms:10000}")
+    public void flushAll() {
+        for (String storageType : List.copyOf(queues.keySet())) {
+            flush(storageType);
+        }
+    }
+
+    /**
+     * Last flush before shutdown; whatever still fails is dead-lettered
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flushAll();
+        queues.forEach((storageType, queue) -> {
+            PendingDelete entry;
+            while ((entry = queue.poll()) != null) {
+                pending.decrementAndGet();
+                deadLetter(storageType, entry, "not deleted before shutdown");
+            }
+        });
+    }
+
+    /**
+     * Delete what is queued for one storage type, in batches; failed keys go back to the queue
+     * (or to the dead-letter log once out of attempts)
+     */
+    private void flush(String storageType) {
+        Queue<PendingDelete> queue = queues.get(storageType);
+        if (queue == null) {
+            return;
+        }
+        // One flush per storage type at a time (timer and session completion may overlap)
+        synchronized (queue) {
+            List<PendingDelete> retry = new ArrayList<>();
+            List<PendingDelete> batch = new ArrayList<>();
+            PendingDelete entry;
+            while (true) {
+                batch.clear();
+                while (batch.size() < MAX_BATCH && (entry = queue.poll()) != null) {
+                    batch.add(entry);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                pending.addAndGet(-batch.size());
+                deleteBatch(storageType, batch, retry);
+            }
+            queue.addAll(retry);
+            pending.addAndGet(retry.size());
+        }
+    }
+
+    private void deleteBatch(String storageType, List<PendingDelete> batch, List<PendingDelete> retry) {
+        List<String> keys = batch.stream().map(PendingDelete::getObjectName).toList();
+        Set<String> failed;
+        String error;
+        try {
+            failed = new HashSet<>(storageServiceFactory.getStorageService(storageType).deleteObjects(keys));
+            error = "not deleted by " + storageType;
+        } catch (RuntimeException e) {
+            log.warn("Batch delete of {} objects from {} failed: {}", keys.size(), storageType, e.getMessage());
+            failed = new HashSet<>(keys);
+            error = e.getMessage();
+        }
+
+        deleted.increment(keys.size() - failed.size());
+        for (PendingDelete entry : batch) {
+            if (!failed.contains(entry.getObjectName())) {
+                continue;
+            }
+            entry.attempts++;
+            if (entry.attempts >= maxAttempts) {
+                deadLetter(storageType, entry, error);
+            } else {
+                retried.increment();
+                retry.add(entry);
+            }
+        }
+    }
+
+    private void deadLetter(String storageType, PendingDelete entry, String error) {
+        deadLettered.increment();
+        deadLetter.error("storage={} object={} attempts={} error={}",
+                storageType, entry.getObjectName(), entry.attempts, error);
+    }
+
+    private static String normalize(String storageType) {
+        // Same default as StorageServiceFactory
+        return storageType == null || storageType.isEmpty() ? "cos" : storageType.toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("video.storage.delete")
+                .description("Storage objects removed by the background deleter")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queued object key with its failed attempts so far
+     */
+    private static class PendingDelete {
+        private final String objectName;
+        private int attempts;
+
+        private PendingDelete(String objectName) {
+            this.objectName = objectName;
+        }
+
+        private String getObjectName() {
+            return objectName;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.skiuo.coreservice.service;
 
+import com.aliyun.oss.ClientException;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSException;
 import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.model.GeneratePresignedUrlRequest;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.DeleteObjectsResult;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.PartETag;
 import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadPartRequest;
 import com.skiuo.coreservice.config.OssConfig;
 import com.skiuo.coreservice.exception.StorageException;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +21,17 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -23,9 +40,19 @@ public class OssService implements StorageService {
 
     private final OSS ossClient;
     private final OssConfig ossConfig;
+    private final StorageReadiness storageReadiness;
+    private final MultipartUploader multipartUploader;
+    private final PresignedUrlCache presignedUrlCache;
 
+    /**
+     * Ensure the bucket is ready (checked once, then cached by StorageReadiness)
+     */
     @Override
     public void ensureStorageReady() {
+        storageReadiness.ensureReady("oss", this::verifyBucket);
+    }
+
+    private void verifyBucket() {
         try {
             if (!ossClient.doesBucketExist(ossConfig.getBucketName())) {
                 throw new StorageException("OSS bucket does not exist: " + ossConfig.getBucketName());
@@ -39,14 +66,14 @@ public class OssService implements StorageService {
 
     @Override
     public String uploadFile(String localFilePath, String objectName) {
-        try {
-            ensureStorageReady();
+        ensureStorageReady();
 
-            File file = new File(localFilePath);
-            if (!file.exists()) {
-                throw new StorageException("File not found: " + localFilePath);
-            }
+        File file = new File(localFilePath);
+        if (!file.exists()) {
+            throw new StorageException("File not found: " + localFilePath);
+        }
 
+        try {
             // Create put request
             PutObjectRequest putObjectRequest = new PutObjectRequest(
                     ossConfig.getBucketName(),
@@ -61,20 +88,84 @@ public class OssService implements StorageService {
             return objectName;
 
         } catch (OSSException e) {
+            if ("NoSuchBucket".equals(e.getErrorCode())) {
+                storageReadiness.invalidate("oss");
+            }
             log.error("Failed to upload file to OSS: {}", e.getMessage());
             throw new StorageException("Failed to upload file to OSS", e);
+        } catch (ClientException e) {
+            storageReadiness.invalidate("oss");
+            log.error("Failed to connect to OSS during upload: {}", e.getMessage());
+            throw new StorageException("Failed to connect to OSS during upload", e);
         } catch (Exception e) {
             log.error("Unexpected error during OSS upload: {}", e.getMessage());
             throw new StorageException("Unexpected error during OSS upload", e);
         }
     }
 
+    /**
+     * Upload a large file to OSS as parallel parts (single PUT below the multipart threshold)
+     */
+    @Override
+    public String uploadLargeFile(String localFilePath, String objectName) {
+        File file = new File(localFilePath);
+        if (!file.exists()) {
+            throw new StorageException("File not found: " + localFilePath);
+        }
+        if (!multipartUploader.isMultipart(file.length())) {
+            return uploadFile(localFilePath, objectName);
+        }
+
+        ensureStorageReady();
+        String bucket = ossConfig.getBucketName();
+        multipartUploader.upload("oss", file.toPath(), file.length(), new MultipartUploader.Target() {
+            @Override
+            public String initiate() {
+                return ossClient.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, objectName))
+                        .getUploadId();
+            }
+
+            @Override
+            public String uploadPart(String uploadId, int partNumber, Path path, long offset, long length) throws IOException {
+                try (InputStream data = Channels.newInputStream(FileChannel.open(path).position(offset))) {
+                    UploadPartRequest request = new UploadPartRequest();
+                    request.setBucketName(bucket);
+                    request.setKey(objectName);
+                    request.setUploadId(uploadId);
+                    request.setPartNumber(partNumber);
+                    request.setInputStream(data);
+                    request.setPartSize(length);
+                    return ossClient.uploadPart(request).getPartETag().getETag();
+                }
+            }
+
+            @Override
+            public void complete(String uploadId, List<MultipartUploader.UploadedPart> parts) {
+                List<PartETag> etags = new ArrayList<>();
+                parts.forEach(part -> etags.add(new PartETag(part.getPartNumber(), part.getEtag())));
+                ossClient.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, objectName, uploadId, etags));
+            }
+
+            @Override
+            public void abort(String uploadId) {
+                ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, objectName, uploadId));
+            }
+        });
+
+        log.info("Uploaded file to OSS in parts: {} -> {}", localFilePath, objectName);
+        return objectName;
+    }
+
+    /**
+     * Presigned GET URL, reused from the cache while enough validity remains
+     */
     @Override
     public String generatePublicUrl(String objectName) {
-        try {
-            // Generate presigned URL valid for 1 hour (same as MinIO presigned URLs)
-            Date expiration = new Date(new Date().getTime() + 3600 * 1000L);
+        return presignedUrlCache.get("oss", objectName, expiration -> signUrl(objectName, expiration));
+    }
 
+    private String signUrl(String objectName, Date expiration) {
+        try {
             // Create request object (required for proper V4 signature)
             GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(
                     ossConfig.getBucketName(),
@@ -86,7 +177,7 @@ public class OssService implements StorageService {
             // Generate presigned URL
             URL url = ossClient.generatePresignedUrl(request);
 
-            log.debug("Generated presigned URL for: {} (expires in 1 hour)", objectName);
+            log.debug("Generated presigned URL for: {} (expires {})", objectName, expiration);
             return url.toString();
 
         } catch (Exception e) {
@@ -99,6 +190,7 @@ public class OssService implements StorageService {
     public void deleteObject(String objectName) {
         try {
             ossClient.deleteObject(ossConfig.getBucketName(), objectName);
+            presignedUrlCache.evict("oss", objectName);
             log.info("Deleted object from OSS: {}", objectName);
 
         } catch (OSSException e) {
@@ -106,4 +198,26 @@ public class OssService implements StorageService {
             throw new StorageException("Failed to delete object from OSS", e);
         }
     }
+
+    @Override
+    public List<String> deleteObjects(List<String> objectNames) {
+        try {
+            DeleteObjectsResult result = ossClient.deleteObjects(
+                    new DeleteObjectsRequest(ossConfig.getBucketName()).withKeys(objectNames));
+
+            // Verbose mode: the response lists the deleted keys
+            Set<String> deleted = new HashSet<>(result.getDeletedObjects());
+            deleted.forEach(name -> presignedUrlCache.evict("oss", name));
+            List<String> failed = objectNames.stream().filter(name -> !deleted.contains(name)).toList();
+            log.info("Deleted {} objects from OSS", deleted.size());
+            return failed;
+
+        } catch (OSSException e) {
+            log.error("Failed to delete objects from OSS: {}", e.getMessage());
+            throw new StorageException("Failed to delete objects from OSS", e);
+        } catch (Exception e) {
+            log.error("Unexpected error during OSS batch deletion: {}", e.getMessage());
+            throw new StorageException("Unexpected error during OSS batch deletion", e);
+        }
+    }
 }
@@ -0,0 +1,199 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.PipelineConfig;
+import com.skiuo.coreservice.entity.PipelineJob;
+import com.skiuo.coreservice.entity.VideoChunk;
+import com.skiuo.coreservice.repository.PipelineJobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durable work queue of the video pipeline (table pipeline_jobs).
+ *
+ * Every accepted chunk and every session completion is recorded before it is queued
+ * in memory. Jobs are leased by the instance that accepted them: the lease is renewed
+ * by a heartbeat while the job is queued or running, so jobs of a crashed or stopped
+ * instance become stale and are claimed by {@link PipelineRecoveryService}.
+ * State transitions are written only while this instance still owns the lease: once another
+ * instance has claimed a job, this one drops it instead of overwriting the new owner's state.
+ */
+@Service
+@Slf4j
+public class PipelineJobService {
+
+    static final List<PipelineJob.JobStatus> UNFINISHED =
+            List.of(PipelineJob.JobStatus.PENDING, PipelineJob.JobStatus.RUNNING);
+
+    private final PipelineJobRepository pipelineJobRepository;
+    private final PipelineConfig pipelineConfig;
+    private final String instanceId;
+    private final Set<Long> heldJobs = ConcurrentHashMap.newKeySet();
+
+    public PipelineJobService(PipelineJobRepository pipelineJobRepository,
+                              PipelineConfig pipelineConfig,
+                              MeterRegistry meterRegistry) {
+        this.pipelineJobRepository = pipelineJobRepository;
+        this.pipelineConfig = pipelineConfig;
+        // pid@host alone is not unique across container restarts (pid 1), so add a random suffix
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" +
+                UUID.randomUUID().toString().substring(0, 8);
+
+        Gauge.builder("video.pipeline.jobs.held", heldJobs, Set::size)
+                .description("Pipeline jobs queued or running on this instance")
+                .register(meterRegistry);
+        log.info("PipelineJobService initialized: instanceId={}", instanceId);
+    }
+
+    /**
+     * Record an accepted chunk before it is queued for processing
+     */
+    public PipelineJob createChunkJob(Long sessionId, VideoChunk chunk, String localPath, Boolean isLastChunk) {
+        PipelineJob job = PipelineJob.builder()
+                .sessionId(sessionId)
+                .jobType(PipelineJob.JobType.CHUNK)
+                .chunkId(chunk.getId())
+                .chunkIndex(chunk.getChunkIndex())
+                .localPath(localPath)
+                .lastChunk(Boolean.TRUE.equals(isLastChunk))
+                .owner(instanceId)
+                .build();
+        return hold(pipelineJobRepository.save(job));
+    }
+
+    /**
+     * Record a session completion (title + memory) before it is started
+     */
+    public PipelineJob createCompletionJob(Long sessionId) {
+        PipelineJob job = PipelineJob.builder()
+                .sessionId(sessionId)
+                .jobType(PipelineJob.JobType.COMPLETION)
+                .owner(instanceId)
+                .build();
+        return hold(pipelineJobRepository.save(job));
+    }
+
+    /**
+     * @return false if the job was claimed by another instance (and is dropped here)
+     */
+    public boolean markRunning(PipelineJob job) {
+        job.setStatus(PipelineJob.JobStatus.RUNNING);
+        return save(job);
+    }
+
+    /**
+     * Confirm the lease right before work that must not run twice (appending to the master
+     * video), renewing it
+     *
+     * @return false if the job was claimed by another instance (and is dropped here)
+     */
+    public boolean renewLease(PipelineJob job) {
+        return save(job);
+    }
+
+    /**
+     * The chunk is part of the master video: a replay must not append it again
+     *
+     * @return false if the job was claimed by another instance (and is dropped here)
+     */
+    public boolean markAppended(PipelineJob job) {
+        job.setAppended(true);
+        return save(job);
+    }
+
+    /**
+     * @return false if the job was claimed by another instance (and is dropped here)
+     */
+    public boolean markDone(PipelineJob job) {
+        job.setStatus(PipelineJob.JobStatus.DONE);
+        job.setLastError(null);
+        boolean owned = save(job);
+        heldJobs.remove(job.getId());
+        return owned;
+    }
+
+    /**
+     * @return false if the job was claimed by another instance (and is dropped here)
+     */
+    public boolean markFailed(PipelineJob job, String error) {
+        job.setStatus(PipelineJob.JobStatus.FAILED);
+        job.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        boolean owned = save(job);
+        heldJobs.remove(job.getId());
+        if (owned) {
+            log.warn("Pipeline job failed: id={}, type={}, sessionId={}, error={}",
+                    job.getId(), job.getJobType(), job.getSessionId(), error);
+        }
+        return owned;
+    }
+
+    /**
+     * Stop renewing the lease of a job that could not be queued, so a later recovery scan retries it
+     */
+    public void release(PipelineJob job) {
+        heldJobs.remove(job.getId());
+        log.warn("Released pipeline job for later recovery: id={}, sessionId={}", job.getId(), job.getSessionId());
+    }
+
+    /**
+     * Claim all unfinished jobs whose lease expired (owner crashed, was stopped, or this instance restarted)
+     *
+     * @return Claimed jobs in submission order per session
+     */
+    public List<PipelineJob> claimStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusSeconds(pipelineConfig.getLeaseSeconds());
+
+        List<PipelineJob> claimed = new ArrayList<>();
+        for (PipelineJob job : pipelineJobRepository.findStale(UNFINISHED, cutoff)) {
+            if (pipelineJobRepository.claim(job.getId(), instanceId, now, cutoff, UNFINISHED) == 1) {
+                pipelineJobRepository.findById(job.getId()).ifPresent(fresh -> claimed.add(hold(fresh)));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Renew the lease of every job this instance has queued or running
+     */
+    @Scheduled(fixedDelayString = "${pipeline.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (heldJobs.isEmpty()) {
+            return;
+        }
+        int renewed = pipelineJobRepository.heartbeat(List.copyOf(heldJobs), instanceId, LocalDateTime.now());
+        log.debug("Renewed pipeline job leases: held={}, renewed={}", heldJobs.size(), renewed);
+    }
+
+    private PipelineJob hold(PipelineJob job) {
+        heldJobs.add(job.getId());
+        return job;
+    }
+
+    /**
+     * Write the job's state if this instance still owns it; otherwise stop holding it
+     */
+    private boolean save(PipelineJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = pipelineJobRepository.updateOwned(job.getId(), instanceId, job.getStatus(),
+                job.getAppended(), job.getLastError(), now);
+        if (updated == 0) {
+            heldJobs.remove(job.getId());
+            log.warn("Pipeline job was claimed by another instance, dropping it: id={}, type={}, sessionId={}",
+                    job.getId(), job.getJobType(), job.getSessionId());
+            return false;
+        }
+        job.setHeartbeatAt(now);
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.PipelineConfig;
+import com.skiuo.coreservice.config.VideoConfig;
+import com.skiuo.coreservice.entity.AnalysisRecord;
+import com.skiuo.coreservice.entity.PipelineJob;
+import com.skiuo.coreservice.entity.Session;
+import com.skiuo.coreservice.repository.SessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resumes pipeline jobs left behind by a stopped or crashed instance.
+ *
+ * Runs once at startup and then periodically. Claimed jobs are replayed per session in
+ * submission order after the session state is reconciled with what is on disk and in
+ * analysis_records:
+ * - master length is re-derived from the segment playlist (or a probe of a single-file master)
+ * - chunks already in the master video are not appended again
+ * - lastWindowStartTime is advanced to the last saved window, so finished windows are not re-analyzed
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PipelineRecoveryService {
+
+    private final PipelineConfig pipelineConfig;
+    private final VideoConfig videoConfig;
+    private final PipelineJobService pipelineJobService;
+    private final VideoProcessingService videoProcessingService;
+    private final VideoUploadService videoUploadService;
+    private final SessionRepository sessionRepository;
+    private final AnalysisService analysisService;
+    private final MasterVideoService masterVideoService;
+    private final MediaOps mediaOps;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        recover();
+    }
+
+    @Scheduled(initialDelayString = "${pipeline.recovery-interval-ms:60000}",
+               fixedDelayString = "${pipeline.recovery-interval-ms:60000}")
+    public void recoverPeriodically() {
+        recover();
+    }
+
+    /**
+     * Claim stale jobs and resume them
+     */
+    public synchronized void recover() {
+        if (!Boolean.TRUE.equals(pipelineConfig.getRecoveryEnabled())) {
+            return;
+        }
+
+        List<PipelineJob> jobs;
+        try {
+            jobs = pipelineJobService.claimStaleJobs();
+        } catch (Exception e) {
+            log.error("Pipeline recovery scan failed: {}", e.getMessage(), e);
+            return;
+        }
+        if (jobs.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<PipelineJob>> bySession = jobs.stream()
+                .collect(Collectors.groupingBy(PipelineJob::getSessionId, LinkedHashMap::new, Collectors.toList()));
+        log.info("Recovering {} pipeline jobs of {} sessions", jobs.size(), bySession.size());
+
+        bySession.forEach((sessionId, sessionJobs) -> {
+            try {
+                recoverSession(sessionId, sessionJobs);
+            } catch (Exception e) {
+                log.error("Failed to recover session {}: {}", sessionId, e.getMessage(), e);
+                failSession(sessionId, sessionJobs, "Recovery failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void recoverSession(Long sessionId, List<PipelineJob> jobs) {
+        Session session = sessionRepository.findById(sessionId).orElse(null);
+        if (session == null) {
+            jobs.forEach(job -> pipelineJobService.markFailed(job, "Session not found"));
+            return;
+        }
+
+        PipelineJob exhausted = jobs.stream()
+                .filter(job -> job.getAttempts() > pipelineConfig.getMaxAttempts())
+                .findFirst()
+                .orElse(null);
+        if (exhausted != null) {
+            failSession(sessionId, jobs, "Recovery attempts exhausted (job " + exhausted.getId() + ")");
+            return;
+        }
+
+        if (!reconcileSession(session, jobs)) {
+            failSession(sessionId, jobs, "Master video lost");
+            return;
+        }
+
+        for (PipelineJob job : jobs) {
+            boolean chunkLost = job.getJobType() == PipelineJob.JobType.CHUNK
+                    && !Boolean.TRUE.equals(job.getAppended())
+                    && !Files.exists(Paths.get(job.getLocalPath()));
+            if (chunkLost) {
+                // The chunk never made it into the master video and its upload is gone: skip it
+                pipelineJobService.markFailed(job, "Chunk file lost: " + job.getLocalPath());
+                continue;
+            }
+
+            if (job.getJobType() == PipelineJob.JobType.COMPLETION) {
+                videoProcessingService.resumeCompletionJob(job);
+            } else {
+                videoProcessingService.resumeChunkJob(job);
+            }
+            Counter.builder("video.pipeline.jobs.recovered")
+                    .description("Pipeline jobs resumed after an instance stopped")
+                    .tag("type", job.getJobType().name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /**
+     * Bring the persisted session state in line with the master video and saved windows
+     *
+     * @return false if the master video is gone and the session cannot be resumed
+     */
+    private boolean reconcileSession(Session session, List<PipelineJob> jobs) {
+        List<PipelineJob> chunkJobs = jobs.stream()
+                .filter(job -> job.getJobType() == PipelineJob.JobType.CHUNK)
+                .toList();
+        String masterPath = session.getMasterVideoPath();
+
+        if (masterPath == null) {
+            // No chunk was committed yet: drop a playlist the interrupted first append may have started
+            Path orphan = Paths.get(videoConfig.getTempPath(), session.getId().toString(), MasterVideoService.PLAYLIST_NAME);
+            try {
+                if (Files.deleteIfExists(orphan)) {
+                    log.info("Removed uncommitted master playlist: {}", orphan);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to remove uncommitted master playlist {}: {}", orphan, e.getMessage());
+            }
+        } else if (!chunkJobs.isEmpty()) {
+            if (!Files.exists(Paths.get(masterPath))) {
+                log.error("Master video of session {} is missing: {}", session.getId(), masterPath);
+                return false;
+            }
+
+            if (MasterVideoService.isPlaylist(masterPath)) {
+                // The playlist is the source of truth for what was appended
+                List<MasterVideoService.Segment> segments = masterVideoService.listSegments(masterPath);
+                Set<Integer> appended = segments.stream()
+                        .map(MasterVideoService.Segment::getChunkIndex)
+                        .collect(Collectors.toSet());
+                chunkJobs.stream()
+                        .filter(job -> !Boolean.TRUE.equals(job.getAppended()) && appended.contains(job.getChunkIndex()))
+                        .forEach(pipelineJobService::markAppended);
+                if (!segments.isEmpty()) {
+                    session.setCurrentVideoLength(segments.get(segments.size() - 1).getEndTime());
+                }
+            } else {
+                // Single-file master: only the first pending chunk can have been appended before the stop
+                double probed = mediaOps.getVideoDuration(masterPath);
+                PipelineJob first = chunkJobs.get(0);
+                if (!Boolean.TRUE.equals(first.getAppended()) && probed - session.getCurrentVideoLength() > 0.5) {
+                    pipelineJobService.markAppended(first);
+                }
+                session.setCurrentVideoLength(probed);
+            }
+        }
+
+        // Windows saved after the last persisted window start must not be analyzed again
+        AnalysisRecord lastRecord = analysisService.getLastAnalysisRecord(session.getId());
+        if (session.getAnalysisMode() == Session.AnalysisMode.SLIDING_WINDOW
+                && lastRecord != null && lastRecord.getStartTimeOffset() != null
+                && session.getLastWindowStartTime() != null
+                && lastRecord.getStartTimeOffset() > session.getLastWindowStartTime()) {
+            log.info("Advancing lastWindowStartTime of session {} to saved window: {}s -> {}s",
+                    session.getId(), session.getLastWindowStartTime(), lastRecord.getStartTimeOffset());
+            session.setLastWindowStartTime(lastRecord.getStartTimeOffset());
+        }
+
+        sessionRepository.save(session);
+        log.info("Reconciled session {} for recovery: masterLength={}s, lastWindowStart={}s, jobs={}",
+                session.getId(), session.getCurrentVideoLength(), session.getLastWindowStartTime(), jobs.size());
+        return true;
+    }
+
+    private void failSession(Long sessionId, List<PipelineJob> jobs, String reason) {
+        jobs.forEach(job -> pipelineJobService.markFailed(job, reason));
+        try {
+            videoUploadService.updateSessionStatus(sessionId, Session.SessionStatus.FAILED);
+        } catch (Exception e) {
+            log.warn("Failed to mark session {} as FAILED: {}", sessionId, e.getMessage());
+        }
+    }
+}
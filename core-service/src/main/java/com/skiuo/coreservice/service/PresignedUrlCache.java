@@ -0,0 +1,115 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.PresignedUrlConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of presigned object URLs, keyed by (backend, object).
+ *
+ * A cached URL is handed out while at least storage.presigned-url.min-remaining-seconds of its
+ * validity remain, so a caller always gets a URL that outlives its download; otherwise a new one
+ * valid for ttl-seconds is signed. Deleted objects are evicted. Hits and signatures are counted
+ * as video.storage.presign{result=hit|signed}.
+ */
+@Component
+public class PresignedUrlCache {
+
+    private final long ttlMs;
+    private final long minRemainingMs;
+    private final Map<String, CachedUrl> urls;
+    private final Counter hits;
+    private final Counter signed;
+
+    public PresignedUrlCache(PresignedUrlConfig config, MeterRegistry meterRegistry) {
+        this.ttlMs = config.getTtlSeconds() * 1000L;
+        this.minRemainingMs = Math.min(config.getMinRemainingSeconds() * 1000L, ttlMs);
+        int maxEntries = Math.max(1, config.getCacheSize());
+        this.urls = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = counter(meterRegistry, "hit");
+        this.signed = counter(meterRegistry, "signed");
+        Gauge.builder("video.storage.presign.cache.size", this, PresignedUrlCache::size)
+                .description("Cached presigned URLs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached URL of an object, or a newly signed one
+     *
+     * @param storage    Storage type (oss, cos, local)
+     * @param objectName Object name/key
+     * @param signer     Signs a URL of the object expiring at the given time
+     * @return URL valid for at least min-remaining-seconds
+     */
+    public String get(String storage, String objectName, Function<Date, String> signer) {
+        String key = storage + "|" + objectName;
+        long now = System.currentTimeMillis();
+        synchronized (urls) {
+            CachedUrl cached = urls.get(key);
+            if (cached != null && cached.expiresAtMs - now >= minRemainingMs) {
+                hits.increment();
+                return cached.url;
+            }
+        }
+
+        // Sign outside the lock; a concurrent miss on the same object just signs twice
+        long expiresAtMs = now + ttlMs;
+        String url = signer.apply(new Date(expiresAtMs));
+        signed.increment();
+        synchronized (urls) {
+            urls.put(key, new CachedUrl(url, expiresAtMs));
+        }
+        return url;
+    }
+
+    /**
+     * Drop the cached URL of an object (deleted)
+     */
+    public void evict(String storage, String objectName) {
+        synchronized (urls) {
+            urls.remove(storage + "|" + objectName);
+        }
+    }
+
+    /**
+     * Validity of newly signed URLs in seconds
+     */
+    public long getTtlSeconds() {
+        return ttlMs / 1000L;
+    }
+
+    private int size() {
+        synchronized (urls) {
+            return urls.size();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("video.storage.presign")
+                .description("Presigned URL requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static class CachedUrl {
+        private final String url;
+        private final long expiresAtMs;
+
+        private CachedUrl(String url, long expiresAtMs) {
+            this.url = url;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
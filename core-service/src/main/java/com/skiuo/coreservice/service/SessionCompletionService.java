@@ -4,42 +4,70 @@ import com.skiuo.coreservice.entity.Session;
 import com.skiuo.coreservice.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 /**
  * Service for handling session completion tasks:
  * - Title generation
  * - User memory extraction and update
+ *
+ * Completion starts on videoTaskExecutor, since it is triggered from the thread that
+ * completed the session's last analysis (a gRPC callback thread) and begins with blocking
+ * JPA reads. Both AI calls are then issued concurrently on the non-blocking gRPC client,
+ * and the final database writes run on videoTaskExecutor again.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class SessionCompletionService {
 
+    private static final String DEFAULT_TITLE = "视频分析";
+
     private final SessionRepository sessionRepository;
     private final AnalysisService analysisService;
     private final GrpcClientService grpcClientService;
     private final UserMemoryService userMemoryService;
+    private final ObjectDeleter objectDeleter;
+    @Qualifier("videoTaskExecutor")
+    private final Executor videoTaskExecutor;
 
     /**
      * Complete session: generate title and extract user memory
      *
      * @param sessionId Session ID
+     * @return Future completed once the title and memory are saved
      */
-    @Async("videoTaskExecutor")
     public CompletableFuture<Void> completeSession(Long sessionId) {
+        try {
+            return CompletableFuture.supplyAsync(() -> startCompletion(sessionId), videoTaskExecutor)
+                    .thenCompose(Function.identity());
+        } catch (RejectedExecutionException e) {
+            log.error("Session completion rejected by video task pool: sessionId={}", sessionId);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Load the session's results and memory (blocking) and start the AI calls
+     */
+    private CompletableFuture<Void> startCompletion(Long sessionId) {
         try {
             log.info("Starting session completion: sessionId={}", sessionId);
 
             Session session = sessionRepository.findById(sessionId)
                     .orElseThrow(() -> new RuntimeException("Session not found: " + sessionId));
 
+            // Window clips of the session were queued for deletion: remove them now
+            objectDeleter.flushAsync(session.getStorageType());
+
             // Get all refined analysis results
             List<String> refinedResults = analysisService.getAllRefinedResults(sessionId);
 
@@ -53,23 +81,30 @@ public class SessionCompletionService {
             // Get user memory
             String userMemory = userMemoryService.getUserMemory(session.getUserId());
 
-            // Task 1: Generate title
-            String title = generateSessionTitle(session, refinedResults, userMemory);
-            if (title != null && !title.isEmpty()) {
-                session.setTitle(title);
-                log.info("Generated session title: {}", title);
-            }
+            // Task 1 and 2 run concurrently: generate title, extract user memory
+            CompletableFuture<String> title = generateSessionTitle(session, refinedResults, userMemory);
+            CompletableFuture<String> newMemory = extractUserMemory(session, refinedResults, userMemory);
 
-            // Task 2: Extract and update user memory
-            extractAndUpdateUserMemory(session, refinedResults, userMemory);
+            return title.thenAcceptBothAsync(newMemory, (generatedTitle, newMemoryJson) -> {
+                if (newMemoryJson != null) {
+                    updateUserMemory(session, newMemoryJson);
+                }
 
-            // Update session end time and save
-            session.setEndTime(LocalDateTime.now());
-            sessionRepository.save(session);
+                if (generatedTitle != null && !generatedTitle.isEmpty()) {
+                    session.setTitle(generatedTitle);
+                    log.info("Generated session title: {}", generatedTitle);
+                }
 
-            log.info("Session completion finished: sessionId={}, title={}", sessionId, title);
+                // Update session end time and save
+                session.setEndTime(LocalDateTime.now());
+                sessionRepository.save(session);
 
-            return CompletableFuture.completedFuture(null);
+                log.info("Session completion finished: sessionId={}, title={}", sessionId, generatedTitle);
+            }, videoTaskExecutor).whenComplete((result, error) -> {
+                if (error != null) {
+                    log.error("Session completion failed: sessionId={}, error={}", sessionId, error.getMessage(), error);
+                }
+            });
 
         } catch (Exception e) {
             log.error("Session completion failed: sessionId={}, error={}", sessionId, e.getMessage(), e);
@@ -78,56 +113,62 @@ public class SessionCompletionService {
     }
 
     /**
-     * Generate session title using AI
+     * Generate session title using AI (falls back to the default title on failure)
      */
-    private String generateSessionTitle(Session session, List<String> refinedResults, String userMemory) {
-        try {
-            log.info("Generating title for session {}", session.getId());
-
-            String title = grpcClientService.generateTitle(
-                    session.getId().toString(),
-                    refinedResults,
-                    userMemory,
-                    session.getAiModel()
-            );
+    private CompletableFuture<String> generateSessionTitle(Session session, List<String> refinedResults, String userMemory) {
+        log.info("Generating title for session {}", session.getId());
+
+        return grpcClientService.generateTitleAsync(
+                session.getId().toString(),
+                refinedResults,
+                userMemory,
+                session.getAiModel()
+        ).handle((title, error) -> {
+            if (error != null) {
+                log.error("Failed to generate title for session {}: {}", session.getId(), error.getMessage());
+                // Return default title on failure
+                return DEFAULT_TITLE;
+            }
 
             // Ensure title is not too long (<=10 chars as per requirement, but allow some buffer)
             if (title.length() > 50) {
                 title = title.substring(0, 50);
             }
-
             return title;
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to generate title for session {}: {}", session.getId(), e.getMessage());
-            // Return default title on failure
-            return "视频分析";
-        }
+    /**
+     * Extract user memory from analysis results (completes with null on failure)
+     */
+    private CompletableFuture<String> extractUserMemory(Session session, List<String> refinedResults, String currentMemory) {
+        log.info("Extracting user memory for session {}", session.getId());
+
+        return grpcClientService.extractUserMemoryAsync(
+                session.getId().toString(),
+                refinedResults,
+                currentMemory,
+                session.getAiModel()
+        ).handle((newMemoryJson, error) -> {
+            if (error != null) {
+                log.error("Failed to extract user memory for session {}: {}", session.getId(), error.getMessage());
+                // Don't fail - memory extraction failure shouldn't block session completion
+                return null;
+            }
+            return newMemoryJson;
+        });
     }
 
     /**
-     * Extract user memory from analysis results and update
+     * Update user memory (merge with existing)
      */
-    private void extractAndUpdateUserMemory(Session session, List<String> refinedResults, String currentMemory) {
+    private void updateUserMemory(Session session, String newMemoryJson) {
         try {
-            log.info("Extracting user memory for session {}", session.getId());
-
-            String newMemoryJson = grpcClientService.extractUserMemory(
-                    session.getId().toString(),
-                    refinedResults,
-                    currentMemory,
-                    session.getAiModel()
-            );
-
-            // Update user memory (merge with existing)
             userMemoryService.updateUserMemory(session.getUserId(), newMemoryJson);
-
             log.info("User memory updated for userId={}", session.getUserId());
-
         } catch (Exception e) {
-            log.error("Failed to extract/update user memory for session {}: {}",
-                    session.getId(), e.getMessage());
-            // Don't throw - memory extraction failure shouldn't block session completion
+            log.error("Failed to update user memory for session {}: {}", session.getId(), e.getMessage());
+            // Don't throw - memory update failure shouldn't block session completion
         }
     }
 }
@@ -0,0 +1,260 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keyed serial executor: one FIFO lane per session on top of the shared video task pool.
+ *
+ * Tasks submitted for the same session run strictly one after another in submission order,
+ * so chunks of one session never mutate the master video or window state concurrently.
+ * Different sessions occupy different lanes and run in parallel on the shared pool.
+ * A lane holds a pool thread only while it has work; empty lanes are removed.
+ * Tasks submitted with {@link #submitAsync} may return before their work is done: the lane
+ * then releases its thread while the returned stage is pending (e.g. waiting on ai-service)
+ * and continues with the next task on the pool once the stage completes.
+ *
+ * If the pool rejects the start of a lane, every task queued in that lane fails with the
+ * rejection (none is left waiting on a lane that nobody drains). If it rejects the resumption
+ * of a suspended lane, the resumption is retried after RESUME_RETRY_MS; lane work never runs
+ * on the thread that completed the pending stage (a gRPC or analysis thread).
+ */
+@Component
+@Slf4j
+public class SessionTaskExecutor {
+
+    static final long RESUME_RETRY_MS = 200;
+
+    private final Executor delegate;
+    private final ScheduledExecutorService resumeRetries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-lane-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final DistributionSummary laneDepthSummary;
+
+    public SessionTaskExecutor(@Qualifier("videoTaskExecutor") Executor videoTaskExecutor,
+                               MeterRegistry meterRegistry) {
+        this.delegate = videoTaskExecutor;
+
+        Gauge.builder("video.session.lanes.active", lanes, ConcurrentMap::size)
+                .description("Sessions with queued or running chunk tasks")
+                .register(meterRegistry);
+        Gauge.builder("video.session.lanes.queued", this, SessionTaskExecutor::queuedTasks)
+                .description("Chunk tasks waiting in session lanes")
+                .register(meterRegistry);
+        Gauge.builder("video.session.lanes.max.depth", this, SessionTaskExecutor::maxLaneDepth)
+                .description("Depth of the longest session lane")
+                .register(meterRegistry);
+        this.laneDepthSummary = DistributionSummary.builder("video.session.lane.depth")
+                .description("Lane depth observed when a task is enqueued")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submit a task to the lane of the given session
+     *
+     * @param sessionId Session ID (lane key)
+     * @param task      Task to run
+     * @return Future completed with the task result
+     */
+    public <T> CompletableFuture<T> submit(Long sessionId, Supplier<T> task) {
+        return submitAsync(sessionId, () -> CompletableFuture.completedFuture(task.get()));
+    }
+
+    /**
+     * Submit an asynchronous task to the lane of the given session. The next task of the
+     * lane starts only after the stage returned by this one completes, but no pool thread
+     * is held while it is pending.
+     *
+     * @param sessionId Session ID (lane key)
+     * @param task      Task starting the work and returning its completion stage
+     * @return Future completed with the result of the returned stage
+     */
+    public <T> CompletableFuture<T> submitAsync(Long sessionId, Supplier<? extends CompletionStage<T>> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Task step = new Task(future, () -> {
+            try {
+                task.get().whenComplete((result, error) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(result);
+                    }
+                });
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+            return future;
+        });
+
+        boolean[] startLane = {false};
+        lanes.compute(sessionId, (key, lane) -> {
+            if (lane == null) {
+                lane = new Lane();
+            }
+            synchronized (lane) {
+                lane.tasks.addLast(step);
+                laneDepthSummary.record(lane.tasks.size() + (lane.running ? 1 : 0));
+                if (!lane.running) {
+                    lane.running = true;
+                    startLane[0] = true;
+                }
+            }
+            return lane;
+        });
+
+        if (startLane[0]) {
+            try {
+                delegate.execute(() -> drain(sessionId));
+            } catch (RejectedExecutionException e) {
+                // Pool saturated: nobody will drain this lane, so remove it with everything queued
+                // in it (including tasks added concurrently while it looked running) and fail them.
+                // A later submit starts a fresh lane.
+                List<Task> dropped = new ArrayList<>();
+                lanes.computeIfPresent(sessionId, (key, lane) -> {
+                    synchronized (lane) {
+                        dropped.addAll(lane.tasks);
+                        lane.tasks.clear();
+                        lane.running = false;
+                        return null;
+                    }
+                });
+                log.error("Session lane rejected by video task pool: sessionId={}, failed tasks={}",
+                        sessionId, dropped.size());
+                // Completed outside compute: callbacks may submit to this session again
+                dropped.forEach(queued -> queued.future.completeExceptionally(e));
+            }
+        }
+
+        log.debug("Submitted task to session lane: sessionId={}, depth={}", sessionId, laneDepth(sessionId));
+        return future;
+    }
+
+    /**
+     * Number of tasks queued or running for a session
+     */
+    public int laneDepth(Long sessionId) {
+        Lane lane = lanes.get(sessionId);
+        if (lane == null) {
+            return 0;
+        }
+        synchronized (lane) {
+            return lane.tasks.size() + (lane.running ? 1 : 0);
+        }
+    }
+
+    /**
+     * Total number of tasks waiting across all lanes (excluding running ones)
+     */
+    public int queuedTasks() {
+        int total = 0;
+        for (Lane lane : lanes.values()) {
+            synchronized (lane) {
+                total += lane.tasks.size();
+            }
+        }
+        return total;
+    }
+
+    private int maxLaneDepth() {
+        int max = 0;
+        for (Long sessionId : lanes.keySet()) {
+            max = Math.max(max, laneDepth(sessionId));
+        }
+        return max;
+    }
+
+    /**
+     * Run the lane's tasks in order until it is empty, then release the lane.
+     * A task whose stage is still pending suspends the lane until the stage completes.
+     */
+    private void drain(Long sessionId) {
+        while (true) {
+            Task[] next = new Task[1];
+            lanes.computeIfPresent(sessionId, (key, lane) -> {
+                synchronized (lane) {
+                    next[0] = lane.tasks.pollFirst();
+                    if (next[0] == null) {
+                        lane.running = false;
+                        return null;
+                    }
+                    return lane;
+                }
+            });
+
+            if (next[0] == null) {
+                return;
+            }
+            CompletableFuture<?> pending = next[0].step.get();
+            if (!pending.isDone()) {
+                // Lane stays running (later tasks keep waiting) but the pool thread is released
+                pending.whenComplete((result, error) -> resume(sessionId));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Continue a suspended lane on the pool, retrying later while the pool is saturated
+     */
+    private void resume(Long sessionId) {
+        try {
+            delegate.execute(() -> drain(sessionId));
+        } catch (RejectedExecutionException e) {
+            if (resumeRetries.isShutdown()) {
+                log.warn("Session lane not resumed during shutdown: sessionId={}", sessionId);
+                return;
+            }
+            log.warn("Video task pool saturated, resuming session lane in {}ms: sessionId={}", RESUME_RETRY_MS, sessionId);
+            resumeRetries.schedule(() -> resume(sessionId), RESUME_RETRY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumeRetries.shutdownNow();
+    }
+
+    /**
+     * Queued task with the future handed to its submitter
+     */
+    private static final class Task {
+        private final CompletableFuture<?> future;
+        private final Supplier<CompletableFuture<?>> step;
+
+        private Task(CompletableFuture<?> future, Supplier<CompletableFuture<?>> step) {
+            this.future = future;
+            this.step = step;
+        }
+    }
+
+    /**
+     * FIFO lane of a single session (guarded by its own monitor)
+     */
+    private static final class Lane {
+        private final Deque<Task> tasks = new ArrayDeque<>();
+        private boolean running;
+    }
+}
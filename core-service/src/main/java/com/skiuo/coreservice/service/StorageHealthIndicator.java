@@ -0,0 +1,76 @@
+package com.skiuo.coreservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage readiness for /actuator/health ("storage"), from the state cached by
+ * {@link StorageReadiness}: never issues a bucket request itself.
+ * UP/DOWN follows the default backend (storage.type), UNKNOWN until it has been checked;
+ * every backend used so far is listed in the details.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StorageHealthIndicator implements HealthIndicator {
+
+    private final StorageReadiness storageReadiness;
+    private final StorageServiceFactory storageServiceFactory;
+
+    @Value("${storage.type:cos}")
+    private String defaultStorageType;
+
+    /**
+     * Check the default backend in the background once started, so the first upload finds it verified
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyDefaultStorage() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                storageServiceFactory.getStorageService(defaultStorageType).ensureStorageReady();
+            } catch (RuntimeException e) {
+                log.warn("Default storage {} is not ready at startup: {}", defaultStorageType, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public Health health() {
+        String defaultType = defaultStorageType == null || defaultStorageType.isBlank()
+                ? "cos" : defaultStorageType.toLowerCase(Locale.ROOT);
+        StorageReadiness.Backend primary = storageReadiness.getBackend(defaultType);
+
+        Health.Builder builder;
+        if (primary == null || primary.getCheckedAtMs() == 0) {
+            builder = Health.unknown();
+        } else {
+            builder = primary.isReady() ? Health.up() : Health.down();
+        }
+        builder.withDetail("default", defaultType);
+
+        for (StorageReadiness.Backend backend : storageReadiness.getBackends()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("ready", backend.isReady());
+            if (backend.getCheckedAtMs() > 0) {
+                details.put("checkedAt", Instant.ofEpochMilli(backend.getCheckedAtMs()).toString());
+            }
+            if (backend.getError() != null) {
+                details.put("error", backend.getError());
+            }
+            builder.withDetail(backend.getName(), details);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.exception.StorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached readiness of the storage backends (bucket exists and is reachable).
+ *
+ * A backend's bucket check runs on its first use and then only when the state is invalidated
+ * (an upload found the bucket missing or the backend unreachable) or by the periodic revalidation
+ * (storage.readiness.revalidate-interval-ms), so uploads no longer pay a bucket round trip each.
+ * While a backend is failing, callers get the cached failure and the check is retried at most
+ * every storage.readiness.retry-interval-ms. The state is reported by StorageHealthIndicator.
+ */
+@Component
+@Slf4j
+public class StorageReadiness {
+
+    private final Map<String, Backend> backends = new ConcurrentHashMap<>();
+
+    @Value("${storage.readiness.retry-interval-ms:5000}")
+    private long retryIntervalMs;
+
+    /**
+     * Return once the backend is verified, running its check if not verified yet
+     *
+     * @param storage Storage type (minio, oss, cos)
+     * @param check   Bucket check, throws if the backend is not usable
+     * @throws StorageException if the backend is not ready
+     */
+    public void ensureReady(String storage, Runnable check) {
+        Backend backend = backends.computeIfAbsent(storage, name -> new Backend(name, check));
+        if (backend.ready) {
+            return;
+        }
+        synchronized (backend) {
+            if (backend.ready) {
+                return;
+            }
+            boolean recentlyFailed = backend.failure != null
+                    && System.currentTimeMillis() - backend.checkedAtMs < retryIntervalMs;
+            if (!recentlyFailed) {
+                verify(backend);
+            }
+            if (!backend.ready) {
+                throw new StorageException(storage + " storage is not ready: " + backend.failure.getMessage(),
+                        backend.failure);
+            }
+        }
+    }
+
+    /**
+     * Forget a verified state (an operation against the backend failed): the next use checks again
+     */
+    public void invalidate(String storage) {
+        Backend backend = backends.get(storage);
+        if (backend != null && backend.ready) {
+            synchronized (backend) {
+                backend.ready = false;
+                backend.failure = null;
+            }
+            log.info("Storage readiness of {} invalidated, re-checking on next use", storage);
+        }
+    }
+
+    /**
+     * Re-run the check of every backend used so far
+     */
+    @Scheduled(initialDelayString = "${storage.readiness.revalidate-interval-ms:300000}",
+            fixedDelayString = "${storage.readiness.revalidate-interval-ms:300000}")
+    public void revalidate() {
+        for (Backend backend : backends.values()) {
+            synchronized (backend) {
+                verify(backend);
+            }
+        }
+    }
+
+    /**
+     * Current state of the backends used so far
+     */
+    public Collection<Backend> getBackends() {
+        return List.copyOf(backends.values());
+    }
+
+    public Backend getBackend(String storage) {
+        return backends.get(storage);
+    }
+
+    private void verify(Backend backend) {
+        boolean wasReady = backend.ready;
+        try {
+            backend.check.run();
+            backend.ready = true;
+            backend.failure = null;
+            if (!wasReady) {
+                log.info("Storage {} verified", backend.name);
+            }
+        } catch (RuntimeException e) {
+            backend.ready = false;
+            backend.failure = e;
+            log.warn("Storage {} is not ready: {}", backend.name, e.getMessage());
+        } finally {
+            backend.checkedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Readiness of one storage backend
+     */
+    public static class Backend {
+        private final String name;
+        private final Runnable check;
+        private volatile boolean ready;
+        private volatile RuntimeException failure;  // Last check failure while not ready
+        private volatile long checkedAtMs;
+
+        private Backend(String name, Runnable check) {
+            this.name = name;
+            this.check = check;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isReady() {
+            return ready;
+        }
+
+        public String getError() {
+            RuntimeException failure = this.failure;
+            return failure != null ? failure.getMessage() : null;
+        }
+
+        public long getCheckedAtMs() {
+            return checkedAtMs;
+        }
+    }
+}
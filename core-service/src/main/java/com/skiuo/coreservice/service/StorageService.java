@@ -1,5 +1,10 @@
 package com.skiuo.coreservice.service;
 
+import com.skiuo.coreservice.exception.StorageException;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Storage service interface for abstracting different storage backends (MinIO, OSS, etc.)
  */
@@ -14,6 +19,18 @@ public interface StorageService {
      */
     String uploadFile(String localFilePath, String objectName);
 
+    /**
+     * Upload a possibly large file (full or master video) as parallel multipart parts.
+     * Files below storage.multipart.threshold-mb take the single-PUT path of uploadFile.
+     *
+     * @param localFilePath Local file path
+     * @param objectName    Object name/key in storage
+     * @return Object path/key
+     */
+    default String uploadLargeFile(String localFilePath, String objectName) {
+        return uploadFile(localFilePath, objectName);
+    }
+
     /**
      * Generate public URL for accessing the object
      *
@@ -29,6 +46,25 @@ public interface StorageService {
      */
     void deleteObject(String objectName);
 
+    /**
+     * Delete objects in batch (multi-object delete where the backend supports it)
+     *
+     * @param objectNames Object names/keys (at most 1000)
+     * @return Keys that could not be deleted (empty when all were deleted)
+     * @throws StorageException if the batch request itself failed
+     */
+    default List<String> deleteObjects(List<String> objectNames) {
+        List<String> failed = new ArrayList<>();
+        for (String objectName : objectNames) {
+            try {
+                deleteObject(objectName);
+            } catch (StorageException e) {
+                failed.add(objectName);
+            }
+        }
+        return failed;
+    }
+
     /**
      * Ensure storage is ready (bucket exists, etc.)
      */
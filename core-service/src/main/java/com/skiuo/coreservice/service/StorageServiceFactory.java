@@ -15,11 +15,12 @@ public class StorageServiceFactory {
     private final MinioService minioService;
     private final OssService ossService;
     private final CosService cosService;
+    private final LocalStorageService localStorageService;
 
     /**
      * Get storage service by type
      *
-     * @param storageType Storage type: "minio", "oss", or "cos"
+     * @param storageType Storage type: "minio", "oss", "cos" or "local"
      * @return Corresponding StorageService implementation
      * @throws IllegalArgumentException if storageType is invalid
      */
@@ -39,8 +40,11 @@ public class StorageServiceFactory {
             case "cos":
                 log.debug("Using Tencent Cloud COS storage service");
                 return cosService;
+            case "local":
+                log.debug("Using local filesystem storage service");
+                return localStorageService;
             default:
-                log.error("Invalid storage type: {}. Valid types are: minio, oss, cos", storageType);
+                log.error("Invalid storage type: {}. Valid types are: minio, oss, cos, local", storageType);
                 throw new IllegalArgumentException("Invalid storage type: " + storageType);
         }
     }
@@ -0,0 +1,120 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of probed video durations.
+ *
+ * Entries are keyed by (path, size, mtime), so a file rewritten or appended in place gets a
+ * new key and the stale entry simply ages out. Concurrent lookups of the same file share one
+ * in-flight probe; failed probes are not cached. Files that cannot be stat'ed locally bypass
+ * the cache. Lookups are counted as video.duration.cache{result=hit|coalesced|miss|bypass}.
+ */
+public class VideoDurationCache {
+
+    private final Map<String, CompletableFuture<Double>> entries;
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter misses;
+    private final Counter bypassed;
+
+    public VideoDurationCache(int maxEntries, MeterRegistry meterRegistry) {
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Double>> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = lookups("hit", meterRegistry);
+        this.coalesced = lookups("coalesced", meterRegistry);
+        this.misses = lookups("miss", meterRegistry);
+        this.bypassed = lookups("bypass", meterRegistry);
+
+        Gauge.builder("video.duration.cache.size", this, VideoDurationCache::size)
+                .description("Probed durations held in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached duration of a file, probing it on a miss
+     *
+     * @param videoPath Local video path
+     * @param probe     Starts the actual probe
+     * @return Future completed with the duration in seconds
+     */
+    public CompletableFuture<Double> get(String videoPath, Function<String, CompletableFuture<Double>> probe) {
+        String key = key(videoPath);
+        if (key == null) {
+            bypassed.increment();
+            return probe.apply(videoPath);
+        }
+
+        CompletableFuture<Double> created;
+        synchronized (this) {
+            CompletableFuture<Double> existing = entries.get(key);
+            if (existing != null) {
+                (existing.isDone() ? hits : coalesced).increment();
+                return existing.copy();
+            }
+            created = new CompletableFuture<>();
+            entries.put(key, created);
+        }
+        misses.increment();
+
+        CompletableFuture<Double> probed;
+        try {
+            probed = probe.apply(videoPath);
+        } catch (RuntimeException e) {
+            probed = CompletableFuture.failedFuture(e);
+        }
+        probed.whenComplete((duration, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    entries.remove(key, created);
+                }
+                created.completeExceptionally(error);
+            } else {
+                created.complete(duration);
+            }
+        });
+        return created.copy();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * path|size|mtime of a local file, or null when it cannot be stat'ed
+     */
+    private static String key(String videoPath) {
+        try {
+            Path path = Paths.get(videoPath).toAbsolutePath().normalize();
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return path + "|" + attributes.size() + "|" + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Counter lookups(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("video.duration.cache")
+                .description("Duration probe lookups by cache outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -2,21 +2,33 @@ package com.skiuo.coreservice.service;
 
 import com.skiuo.coreservice.config.VideoConfig;
 import com.skiuo.coreservice.entity.AnalysisRecord;
+import com.skiuo.coreservice.entity.PipelineJob;
 import com.skiuo.coreservice.entity.Session;
 import com.skiuo.coreservice.entity.VideoChunk;
 import com.skiuo.coreservice.exception.VideoProcessingException;
 import com.skiuo.coreservice.repository.VideoChunkRepository;
 import com.skiuo.grpc.*;
+import io.grpc.Context;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -25,7 +37,9 @@ public class VideoProcessingService {
 
     private final VideoConfig videoConfig;
     private final GrpcClientService grpcClientService;
+    private final MediaOps mediaOps;
     private final StorageServiceFactory storageServiceFactory;
+    private final ObjectDeleter objectDeleter;
     private final AnalysisService analysisService;
     private final CleanupService cleanupService;
     private final VideoUploadService videoUploadService;
@@ -33,76 +47,205 @@ public class VideoProcessingService {
     private final com.skiuo.coreservice.repository.SessionRepository sessionRepository;
     private final UserMemoryService userMemoryService;
     private final SessionCompletionService sessionCompletionService;
+    private final MasterVideoService masterVideoService;
+    private final SessionTaskExecutor sessionTaskExecutor;
+    private final DurationLedger durationLedger;
+    private final PipelineJobService pipelineJobService;
+    @Qualifier("windowPrepareExecutor")
+    private final Executor windowPrepareExecutor;
+    @Qualifier("windowAnalysisExecutor")
+    private final Executor windowAnalysisExecutor;
     
     
     /**
-     * Process video chunk asynchronously
+     * Process video chunk asynchronously.
+     * Chunks are queued on the session's lane, so chunks of one session run in upload order
+     * while different sessions are processed in parallel. The chunk is recorded as a pipeline
+     * job first, so it is resumed by {@link PipelineRecoveryService} if this instance stops.
      *
      * @param session   Session entity
      * @param chunk     Video chunk entity
      * @param localPath Local file path
      */
-    @Async("videoTaskExecutor")
     public CompletableFuture<Void> processVideoChunk(Session session, VideoChunk chunk, String localPath, Boolean isLastChunk) {
-        Long sessionId = session.getId();
+        PipelineJob job = pipelineJobService.createChunkJob(session.getId(), chunk, localPath, isLastChunk);
+        return submitChunkJob(job, chunk);
+    }
+
+    /**
+     * Resume a chunk job recovered from the pipeline_jobs table
+     *
+     * @param job Claimed chunk job
+     */
+    public CompletableFuture<Void> resumeChunkJob(PipelineJob job) {
+        VideoChunk chunk = videoChunkRepository.findById(job.getChunkId()).orElse(null);
+        if (chunk == null) {
+            pipelineJobService.markFailed(job, "Chunk record not found: " + job.getChunkId());
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Resuming chunk job: id={}, sessionId={}, chunkIndex={}, appended={}, attempt={}",
+                job.getId(), job.getSessionId(), job.getChunkIndex(), job.getAppended(), job.getAttempts());
+        return submitChunkJob(job, chunk);
+    }
+
+    /**
+     * Resume a session completion job recovered from the pipeline_jobs table
+     *
+     * @param job Claimed completion job
+     */
+    public void resumeCompletionJob(PipelineJob job) {
+        log.info("Resuming completion job: id={}, sessionId={}, attempt={}",
+                job.getId(), job.getSessionId(), job.getAttempts());
+        runCompletionJob(job);
+    }
+
+    private CompletableFuture<Void> submitChunkJob(PipelineJob job, VideoChunk chunk) {
+        CompletableFuture<Void> future = sessionTaskExecutor.submitAsync(job.getSessionId(),
+                () -> doProcessVideoChunk(job, chunk));
+        future.whenComplete((result, error) -> {
+            if (error instanceof RejectedExecutionException) {
+                // Never started: let the lease expire so recovery retries the job later
+                pipelineJobService.release(job);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Process one chunk on its session lane. The append runs on the lane thread; the AI work
+     * that follows is composed from non-blocking gRPC calls, and the lane moves on to the
+     * next chunk only when the returned future completes.
+     */
+    private CompletableFuture<Void> doProcessVideoChunk(PipelineJob job, VideoChunk chunk) {
+        Long sessionId = job.getSessionId();
         Long chunkId = chunk.getId();
+        String localPath = job.getLocalPath();
+        Boolean isLastChunk = job.getLastChunk();
 
+        CompletableFuture<Session> processing;
         try {
-            log.info("Starting video processing: sessionId={}, chunkId={}, mode={}, isLastChunk={}",
-                    sessionId, chunkId, session.getAnalysisMode(), isLastChunk);
+            if (!pipelineJobService.markRunning(job)) {
+                // Claimed by another instance, which replays the chunk: nothing to do here
+                return CompletableFuture.completedFuture(null);
+            }
 
             // Update session status to ANALYZING
             videoUploadService.updateSessionStatus(sessionId, Session.SessionStatus.ANALYZING);
 
+            // Reload session: the previous chunk in this lane may have advanced the master video state
+            Session session = sessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
+
+            log.info("Starting video processing: sessionId={}, chunkId={}, mode={}, isLastChunk={}",
+                    sessionId, chunkId, session.getAnalysisMode(), isLastChunk);
+
+            // A null session means the job was claimed by another instance part way through
             if (session.getAnalysisMode() == Session.AnalysisMode.FULL) {
                 // Full analysis mode
-                processFullAnalysisMode(session, chunk, localPath, isLastChunk);
+                processing = processFullAnalysisMode(session, chunk, job).thenApply(owned -> owned ? session : null);
             } else {
                 // Sliding window mode
-                processSlidingWindowMode(session, chunk, localPath, isLastChunk);
+                processing = processSlidingWindowMode(session, chunk, job).thenApply(owned -> owned ? session : null);
             }
+        } catch (Exception e) {
+            processing = CompletableFuture.failedFuture(e);
+        }
 
+        return processing.thenApply(session -> {
+            if (session == null) {
+                // The new owner replays the chunk and cleans up after it
+                log.warn("Stopped processing chunk claimed by another instance: sessionId={}, chunkId={}",
+                        sessionId, chunkId);
+                return false;
+            }
             log.info("Video processing completed: sessionId={}, chunkId={}",
                     sessionId, chunkId);
 
             // Cleanup
             cleanupService.cleanupAfterProcessing(session, chunk, localPath);
+            return true;
+        }).handle((owned, error) -> {
+            if (error == null) {
+                if (owned) {
+                    pipelineJobService.markDone(job);
+                }
+                return null;
+            }
 
-            return CompletableFuture.completedFuture(null);
-
-        } catch (Exception e) {
+            Throwable cause = unwrap(error);
             log.error("Video processing failed: sessionId={}, chunkId={}, error={}",
-                    sessionId, chunkId, e.getMessage());
-            videoUploadService.updateSessionStatus(sessionId, Session.SessionStatus.FAILED);
-            throw new VideoProcessingException("Video processing failed", e);
+                    sessionId, chunkId, cause.getMessage());
+            if (pipelineJobService.markFailed(job, cause.getMessage())) {
+                // Only the owner fails the session; a new owner is replaying the chunk
+                videoUploadService.updateSessionStatus(sessionId, Session.SessionStatus.FAILED);
+            }
+            throw new VideoProcessingException("Video processing failed", cause);
+        });
+    }
+
+    /**
+     * Start session completion (title + memory) as a durable job
+     */
+    private void completeSession(Long sessionId) {
+        runCompletionJob(pipelineJobService.createCompletionJob(sessionId));
+    }
+
+    private void runCompletionJob(PipelineJob job) {
+        if (!pipelineJobService.markRunning(job)) {
+            // Claimed by another instance, which completes the session
+            return;
         }
+        sessionCompletionService.completeSession(job.getSessionId()).whenComplete((result, error) -> {
+            if (error == null) {
+                pipelineJobService.markDone(job);
+            } else {
+                pipelineJobService.markFailed(job, error.getMessage());
+            }
+        });
     }
     
     
     /**
      * Full analysis mode: append to master video, analyze when isLastChunk=true
+     *
+     * @return Future completed with false if the job was claimed by another instance
      */
-    private void processFullAnalysisMode(Session session, VideoChunk chunk, String localPath, Boolean isLastChunk) {
+    private CompletableFuture<Boolean> processFullAnalysisMode(Session session, VideoChunk chunk, PipelineJob job) {
+        Boolean isLastChunk = job.getLastChunk();
         log.info("Processing in FULL mode: sessionId={}, isLastChunk={}", session.getId(), isLastChunk);
 
         // Step 1: Append chunk to master video
-        appendToMasterVideo(session, localPath, chunk.getDuration());
+        if (!appendChunk(session, chunk, job)) {
+            return CompletableFuture.completedFuture(false);
+        }
 
         log.info("FULL mode: appended chunk to master video, total length={}s",
                 session.getCurrentVideoLength());
 
-        // Step 2: If this is the last chunk, analyze the complete master video
-        if (isLastChunk) {
+        if (!isLastChunk) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        // Step 2: This is the last chunk, analyze the complete master video
+        CompletableFuture<Void> analysis;
+        if (analysisService.countAnalyzedWindows(session.getId()) > 0) {
+            // Replayed job: the full analysis was saved before the previous run stopped
+            log.info("Full analysis already saved for session {}, skipping", session.getId());
+            analysis = CompletableFuture.completedFuture(null);
+        } else {
             log.info("Last chunk received, analyzing complete master video for session {}", session.getId());
-            analyzeFullMasterVideo(session);
+            analysis = analyzeFullMasterVideo(session);
+        }
 
+        return analysis.thenApply(v -> {
             // Mark session as completed
             videoUploadService.updateSessionStatus(session.getId(), Session.SessionStatus.COMPLETED);
             log.info("FULL mode: session {} marked as COMPLETED", session.getId());
 
             // Trigger session completion (title + memory) asynchronously
-            sessionCompletionService.completeSession(session.getId());
-        }
+            completeSession(session.getId());
+            return true;
+        });
     }
     
     
@@ -110,109 +253,136 @@ public class VideoProcessingService {
      * Analyze the complete master video in FULL mode
      *
      * @param session Session entity
+     * @return Future completed once the result is saved
      */
-    private void analyzeFullMasterVideo(Session session) {
+    private CompletableFuture<Void> analyzeFullMasterVideo(Session session) {
         log.info("Analyzing full master video for session {}, length={}s",
                 session.getId(), session.getCurrentVideoLength());
         
         StorageService storageService = storageServiceFactory.getStorageService(session.getStorageType());
-        
+        String storagePath = "sessions/" + session.getId() + "/full_video.webm";
+        String videoUrl;
+        String userMemory;
+
         try {
-            // 1. Upload master video to storage
-            String storagePath = "sessions/" + session.getId() + "/full_video.webm";
-            storageService.uploadFile(session.getMasterVideoPath(), storagePath);
+            // 1. Upload master video to storage (playlists are remuxed into a single file first)
+            String masterFile = masterVideoService.materialize(session);
+            storageService.uploadLargeFile(masterFile, storagePath);
             log.info("Uploaded master video to storage: {}", storagePath);
             
             // 2. Generate public URL
-            String videoUrl = storageService.generatePublicUrl(storagePath);
+            videoUrl = storageService.generatePublicUrl(storagePath);
             log.info("🎥 Generated URL for full video: {}", videoUrl);
 
             // 3. Get user memory
-            String userMemory = userMemoryService.getUserMemory(session.getUserId());
-
-            // 4. Analyze complete video (raw result)
-            String rawResult = grpcClientService.analyzeVideoSync(
-                    session.getId().toString(),
-                    0,  // window index 0 for full analysis
-                    videoUrl,
-                    session.getAiModel(),
-                    "",  // no context for full analysis
-                    0.0,
-                    session.getCurrentVideoLength(),
-                    "full",  // IMPORTANT: pass "full" mode to use correct prompt
-                    userMemory,  // Pass user memory
-                    content -> {} // Don't stream raw result
-            );
-
-            log.info("Full video raw analysis completed: length={}", rawResult.length());
-
-            // 5. Refine analysis result
-            String refinedResult = grpcClientService.refineAnalysis(
-                    session.getId().toString(),
-                    0,
-                    rawResult,
-                    session.getCurrentVideoLength(),
-                    userMemory,
-                    session.getAiModel()
-            );
-
-            log.info("Full video analysis refined: length={}", refinedResult.length());
-
-            // 6. Stream refined result to frontend
-            analysisService.sendStreamingResult(session.getId(), 0, refinedResult);
-
-            // 7. Save analysis result
-            analysisService.saveAnalysisRecordWithRaw(
-                    session.getId(),
-                    null,
-                    0,
-                    rawResult,
-                    refinedResult,
-                    0.0,
-                    session.getCurrentVideoLength(),
-                    storagePath
-            );
-
-            log.info("Full video analysis saved to database");
-
-            // 8. Delete from storage if not keeping videos
-            if (!session.getKeepVideo()) {
-                storageService.deleteObject(storagePath);
-                log.info("Deleted full video from storage (keepVideo=false)");
-            }
-            
+            userMemory = userMemoryService.getUserMemory(session.getUserId());
         } catch (Exception e) {
             log.error("Failed to analyze full master video: {}", e.getMessage(), e);
-            throw new VideoProcessingException("Failed to analyze full master video", e);
+            return CompletableFuture.failedFuture(new VideoProcessingException("Failed to analyze full master video", e));
         }
+
+        WindowTask full = WindowTask.builder()
+                .windowIndex(0)  // window index 0 for full analysis
+                .startTime(0.0)
+                .endTime(session.getCurrentVideoLength())
+                .storagePath(storagePath)
+                .videoUrl(videoUrl)
+                .build();
+
+        // 4-5. Analyze complete video (raw result) with the "full" prompt and no context, then refine
+        return runAiStage(session, full, "", "full", userMemory)
+                .thenAcceptAsync(window -> {
+                    // 6. Stream refined result to frontend (replaces provisional raw tokens)
+                    analysisService.sendStreamingResult(session.getId(), 0, window.getRefinedResult());
+
+                    // 7. Save analysis result
+                    analysisService.saveAnalysisRecordWithRaw(
+                            session.getId(),
+                            null,
+                            0,
+                            window.getRawResult(),
+                            window.getRefinedResult(),
+                            0.0,
+                            session.getCurrentVideoLength(),
+                            storagePath
+                    );
+
+                    log.info("Full video analysis saved to database");
+
+                    // 8. Delete from storage if not keeping videos (in the background)
+                    if (!session.getKeepVideo()) {
+                        objectDeleter.enqueue(session.getStorageType(), storagePath);
+                        log.info("Queued full video for deletion from storage (keepVideo=false)");
+                    }
+                }, windowAnalysisExecutor)
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    log.error("Failed to analyze full master video: {}", cause.getMessage(), cause);
+                    throw new VideoProcessingException("Failed to analyze full master video", cause);
+                });
     }
     
     /**
      * Sliding window mode: append to master video and trigger sliding window analysis
+     *
+     * @return Future completed with false if the job was claimed by another instance
      */
-    private void processSlidingWindowMode(Session session, VideoChunk chunk, String localPath, Boolean isLastChunk) {
+    private CompletableFuture<Boolean> processSlidingWindowMode(Session session, VideoChunk chunk, PipelineJob job) {
+        Boolean isLastChunk = job.getLastChunk();
         log.info("Processing in SLIDING_WINDOW mode (NEW): sessionId={}, isLastChunk={}", session.getId(), isLastChunk);
 
         // Step 1: Append chunk to master video
-        appendToMasterVideo(session, localPath, chunk.getDuration());
+        if (!appendChunk(session, chunk, job)) {
+            return CompletableFuture.completedFuture(false);
+        }
 
         // Step 2: Check trigger condition and analyze windows
-        checkAndAnalyzeWindows(session, isLastChunk);
-
-        log.info("Sliding window mode processing completed: sessionId={}, masterLength={}s",
-                session.getId(), session.getCurrentVideoLength());
+        return checkAndAnalyzeWindows(session, isLastChunk).thenApply(v -> {
+            log.info("Sliding window mode processing completed: sessionId={}, masterLength={}s",
+                    session.getId(), session.getCurrentVideoLength());
+            return true;
+        });
     }
     
+    /**
+     * Append the job's chunk to the master video once (replayed jobs skip chunks already appended).
+     * The lease is confirmed before the append and recorded after it, so an instance that lost
+     * the job neither appends the chunk nor goes on to analyze windows.
+     *
+     * @return false if the job was claimed by another instance
+     */
+    private boolean appendChunk(Session session, VideoChunk chunk, PipelineJob job) {
+        if (Boolean.TRUE.equals(job.getAppended())) {
+            log.info("Chunk {} already appended to master video of session {}, skipping append",
+                    chunk.getChunkIndex(), session.getId());
+            return true;
+        }
+        if (!pipelineJobService.renewLease(job)) {
+            return false;
+        }
+        appendToMasterVideo(session, chunk, job.getLocalPath(), job.getLastChunk());
+        return pipelineJobService.markAppended(job);
+    }
+
     /**
      * Append chunk to master video
      *
-     * @param session       Session entity
-     * @param chunkPath     Local path to chunk file
-     * @param chunkDuration Duration of chunk in seconds
+     * @param session   Session entity
+     * @param chunk     Video chunk entity
+     * @param chunkPath Local path to chunk file
+     * @param isLastChunk Whether this is the last chunk (forces a duration reconcile)
      */
-    private void appendToMasterVideo(Session session, String chunkPath, Double chunkDuration) {
+    private void appendToMasterVideo(Session session, VideoChunk chunk, String chunkPath, Boolean isLastChunk) {
         try {
-            if (session.getMasterVideoPath() == null) {
+            boolean incremental = session.getMasterVideoPath() == null
+                    ? masterVideoService.isIncrementalMode()
+                    : MasterVideoService.isPlaylist(session.getMasterVideoPath());
+
+            if (incremental) {
+                // Append-only: convert and probe just this chunk, then add it to the segment playlist
+                masterVideoService.appendSegment(session, chunkPath, chunk.getChunkIndex(), chunk.getDuration(),
+                        Boolean.TRUE.equals(isLastChunk));
+            } else if (session.getMasterVideoPath() == null) {
                 // First chunk: convert to VP9 (required for Qwen API)
                 // Browser MediaRecorder generates VP8, but Qwen only supports VP9
                 String masterPath = videoConfig.getTempPath() + "/" + session.getId() + "/master_video.webm";
@@ -223,7 +393,7 @@ public class VideoProcessingService {
 
                 // Use single-video "concat" to convert VP8 to VP9
                 // This ensures master_video is always VP9 for Qwen compatibility
-                grpcClientService.concatVideos(
+                mediaOps.concatVideos(
                         List.of(chunkPath),  // Single video "concat" = conversion
                         masterPath
                 );
@@ -231,7 +401,7 @@ public class VideoProcessingService {
                 session.setMasterVideoPath(masterPath);
 
                 // Get actual video duration from FFmpeg
-                Double actualDuration = grpcClientService.getVideoDuration(masterPath);
+                Double actualDuration = mediaOps.getVideoDuration(masterPath);
                 session.setCurrentVideoLength(actualDuration);
                 session.setLastWindowStartTime((double) -videoConfig.getWindowStep());
 
@@ -240,7 +410,7 @@ public class VideoProcessingService {
                 // Subsequent chunks: concatenate to master video
                 String tempOutput = videoConfig.getTempPath() + "/" + session.getId() + "/master_temp.webm";
                 
-                grpcClientService.concatVideos(
+                mediaOps.concatVideos(
                         List.of(session.getMasterVideoPath(), chunkPath),
                         tempOutput
                 );
@@ -253,11 +423,15 @@ public class VideoProcessingService {
                         java.nio.file.StandardCopyOption.REPLACE_EXISTING
                 );
 
-                // Get actual video duration from FFmpeg after concatenation
-                Double actualDuration = grpcClientService.getVideoDuration(session.getMasterVideoPath());
-                session.setCurrentVideoLength(actualDuration);
+                // Advance length from chunk metadata; full probe of the master only when reconciling
+                double newLength = session.getCurrentVideoLength()
+                        + durationLedger.chunkDuration(chunkPath, chunk.getDuration());
+                if (durationLedger.shouldReconcile(chunk.getChunkIndex(), Boolean.TRUE.equals(isLastChunk))) {
+                    newLength = durationLedger.reconcile(session.getMasterVideoPath(), newLength);
+                }
+                session.setCurrentVideoLength(newLength);
 
-                log.info("Appended to master video: new length={}s (actual from FFmpeg)", actualDuration);
+                log.info("Appended to master video: new length={}s (duration ledger)", newLength);
             }
             
             sessionRepository.save(session);
@@ -268,6 +442,17 @@ public class VideoProcessingService {
         }
     }
     
+    /**
+     * Callback that pushes raw AI tokens to the frontend as provisional content
+     * (no-op when video.stream-raw-tokens is disabled)
+     */
+    private Consumer<String> rawTokenStreamer(Long sessionId, int windowIndex) {
+        if (!Boolean.TRUE.equals(videoConfig.getStreamRawTokens())) {
+            return content -> {};
+        }
+        return content -> analysisService.sendProvisionalResult(sessionId, windowIndex, content);
+    }
+
     /**
      * Summarize result for use as context in next window
      * (Simple version: just truncate to last 500 chars)
@@ -280,19 +465,30 @@ public class VideoProcessingService {
     }
     
     /**
-     * Check and analyze windows based on sliding window trigger logic
+     * Check and analyze windows based on sliding window trigger logic.
+     *
+     * Due windows are run through a two-stage pipeline: the prepare stage (extract segment,
+     * upload, sign URL) runs ahead for up to video.pipeline-depth windows, while the AI stage
+     * (analyze, refine) normally runs in window order, so each window receives the previous
+     * window's refined context.
+     *
+     * When more than one window is due (catch-up after an upload gap or the last chunk),
+     * up to video.catch-up-parallelism AI stages run concurrently, each using the context of
+     * the last committed window. Results are still committed (streamed, saved, session
+     * advanced) strictly in window order on windowAnalysisExecutor.
+     *
+     * The batch is composed from non-blocking gRPC calls: no thread waits on ai-service
+     * while windows are extracted, analyzed or refined.
      *
      * @param session Session entity
      * @param isLastChunk Whether this is the last chunk
+     * @return Future completed once every due window is committed
      */
-    private void checkAndAnalyzeWindows(Session session, Boolean isLastChunk) {
+    private CompletableFuture<Void> checkAndAnalyzeWindows(Session session, Boolean isLastChunk) {
         log.info("Checking window analysis trigger for session {}: masterLength={}s, lastWindowStart={}s, isLastChunk={}",
                 session.getId(), session.getCurrentVideoLength(), session.getLastWindowStartTime(), isLastChunk);
 
         StorageService storageService = storageServiceFactory.getStorageService(session.getStorageType());
-        Double windowSize = (double) videoConfig.getWindowSize();
-        Double windowStep = (double) videoConfig.getWindowStep();
-        Double minWindowSize = 5.0; // Minimum 5 seconds for a window
 
         // Get current global window index
         int globalWindowIndex = (int) analysisService.countAnalyzedWindows(session.getId());
@@ -306,9 +502,127 @@ public class VideoProcessingService {
             }
         }
 
-        // Loop: check trigger condition and analyze windows
+        List<WindowTask> windows = planWindows(session, isLastChunk, globalWindowIndex);
+        int parallelism = windows.size() > 1 ? Math.max(1, videoConfig.getCatchUpParallelism()) : 1;
+        boolean catchUp = parallelism > 1;
+        int lookahead = Math.max(Math.max(0, videoConfig.getPipelineDepth()), parallelism - 1);
+
+        if (catchUp) {
+            log.info("Catch-up mode for session {}: {} windows due, parallelism={}",
+                    session.getId(), windows.size(), parallelism);
+        }
+
+        // Segment timeline of an incremental master, used to cut windows from a single segment
+        List<MasterVideoService.Segment> segments = MasterVideoService.isPlaylist(session.getMasterVideoPath())
+                ? masterVideoService.listSegments(session.getMasterVideoPath())
+                : List.of();
+
+        // User memory is read once per batch
+        String userMemory = windows.isEmpty() ? null : userMemoryService.getUserMemory(session.getUserId());
+
+        // Per-window stage futures, index-aligned with windows (null once committed), and the
+        // prepare stages alone (to clean up uploads if the batch fails).
+        // Only touched from the commit chain below, whose steps run one after another.
+        List<CompletableFuture<WindowTask>> stages = new ArrayList<>();
+        List<CompletableFuture<WindowTask>> prepared = new ArrayList<>();
+        int[] nextToAnalyze = {0};
+
+        // AI calls of the batch run in this gRPC context: cancelling it cancels every call still
+        // running or waiting for a bulkhead permit when the batch fails
+        Context.CancellableContext aiCalls = Context.current().withCancellation();
+
+        CompletableFuture<String> committed = CompletableFuture.completedFuture(previousContext);
+        for (int i = 0; i < windows.size(); i++) {
+            int index = i;
+            committed = committed.thenCompose(context -> {
+                // Keep up to lookahead windows extracted and uploaded ahead of the AI stage
+                while (stages.size() < windows.size() && stages.size() <= index + lookahead) {
+                    CompletableFuture<WindowTask> prepare =
+                            prepareWindow(session, windows.get(stages.size()), segments, storageService);
+                    prepared.add(prepare);
+                    stages.add(prepare);
+                }
+
+                // Catch-up: start AI stages ahead with the context of the last committed window
+                while (catchUp && nextToAnalyze[0] < windows.size() && nextToAnalyze[0] < index + parallelism) {
+                    int ahead = nextToAnalyze[0]++;
+                    stages.set(ahead, stages.get(ahead).thenCompose(window -> inContext(aiCalls,
+                            () -> runAiStage(session, window, context, "sliding_window", userMemory))));
+                }
+
+                CompletableFuture<WindowTask> stage = stages.get(index);
+                if (index >= nextToAnalyze[0]) {
+                    stage = stage.thenCompose(window -> inContext(aiCalls,
+                            () -> runAiStage(session, window, context, "sliding_window", userMemory)));
+                }
+
+                return stage.thenApplyAsync(window -> {
+                    stages.set(index, null);
+                    commitWindow(session, window);
+
+                    // Update session state
+                    session.setLastWindowStartTime(window.getStartTime());
+                    sessionRepository.save(session);
+
+                    // Context for next window
+                    return summarizeForContext(window.getRefinedResult());
+                }, windowAnalysisExecutor);
+            });
+        }
+
+        return committed.handle((context, error) -> {
+            if (error != null) {
+                // Stop AI calls of windows that will never be committed (no more model calls or raw tokens)
+                aiCalls.cancel(unwrap(error));
+                // Drop windows prepared ahead: local file, and the uploaded object unless videos are kept
+                for (int i = 0; i < prepared.size(); i++) {
+                    if (stages.get(i) == null) {
+                        continue;  // Committed, already cleaned up
+                    }
+                    prepared.get(i).thenAccept(window -> {
+                        cleanupService.deleteLocalFile(window.getLocalPath());
+                        if (!session.getKeepVideo()) {
+                            objectDeleter.enqueue(session.getStorageType(), window.getStoragePath());
+                        }
+                    });
+                }
+                throw new CompletionException(unwrap(error));
+            }
+            aiCalls.close();
+
+            // Mark session as completed if this is the last chunk
+            if (isLastChunk) {
+                videoUploadService.updateSessionStatus(session.getId(), Session.SessionStatus.COMPLETED);
+                log.info("Last chunk processed, session {} marked as COMPLETED", session.getId());
+
+                // Trigger session completion (title + memory) asynchronously
+                completeSession(session.getId());
+            }
+
+            log.info("Window analysis batch completed for session {}", session.getId());
+            return null;
+        });
+    }
+
+    /**
+     * Plan the windows that are due for the current master video length
+     *
+     * @param session           Session entity
+     * @param isLastChunk       Whether this is the last chunk
+     * @param globalWindowIndex Index of the first window to plan
+     * @return Due windows in order
+     */
+    private List<WindowTask> planWindows(Session session, Boolean isLastChunk, int globalWindowIndex) {
+        Double windowSize = (double) videoConfig.getWindowSize();
+        Double windowStep = (double) videoConfig.getWindowStep();
+        Double minWindowSize = 5.0; // Minimum 5 seconds for a window
+
+        List<WindowTask> windows = new ArrayList<>();
+        Double lastWindowStart = session.getLastWindowStartTime();
+
+        // Loop: check trigger condition for each next window
         while (true) {
-            Double nextWindowStart = session.getLastWindowStartTime() + windowStep;
+            Double nextWindowStart = lastWindowStart + windowStep;
             Double nextWindowEnd = nextWindowStart + windowSize;
 
             // Normal trigger condition: currentLength >= nextWindowEnd
@@ -332,148 +646,216 @@ public class VideoProcessingService {
             // IMPORTANT: Clamp window end to video length to avoid exceeding actual duration
             Double clampedWindowEnd = Math.min(nextWindowEnd, session.getCurrentVideoLength());
 
-            log.info("Trigger condition met (normalTrigger={}, lastChunkTrigger={}): analyzing window {}, range=[{}, {}]s (clamped from {}s), currentVideoLength={}s",
+            log.info("Trigger condition met (normalTrigger={}, lastChunkTrigger={}): planning window {}, range=[{}, {}]s (clamped from {}s), currentVideoLength={}s",
                     normalTrigger, lastChunkTrigger, globalWindowIndex, nextWindowStart, clampedWindowEnd, nextWindowEnd,
                     session.getCurrentVideoLength());
 
-            // Extract and analyze window
-            String result = extractAndAnalyzeWindow(
-                    session,
-                    globalWindowIndex,
-                    nextWindowStart,
-                    clampedWindowEnd,  // Use clamped value
-                    previousContext,
-                    storageService
-            );
+            windows.add(WindowTask.builder()
+                    .windowIndex(globalWindowIndex)
+                    .startTime(nextWindowStart)
+                    .endTime(clampedWindowEnd)
+                    .build());
 
-            // Update session state
-            session.setLastWindowStartTime(nextWindowStart);
-            sessionRepository.save(session);
-
-            // Update context and index for next iteration
-            previousContext = summarizeForContext(result);
+            lastWindowStart = nextWindowStart;
             globalWindowIndex++;
 
-            // If this was the last chunk and we just analyzed the final window, break
+            // If this was the last chunk and we just planned the final window, stop
             if (lastChunkTrigger && !normalTrigger) {
-                log.info("Last chunk: final window analyzed, stopping");
+                log.info("Last chunk: final window planned, stopping");
                 break;
             }
         }
 
-        // Mark session as completed if this is the last chunk
-        if (isLastChunk) {
-            videoUploadService.updateSessionStatus(session.getId(), Session.SessionStatus.COMPLETED);
-            log.info("Last chunk processed, session {} marked as COMPLETED", session.getId());
+        return windows;
+    }
 
-            // Trigger session completion (title + memory) asynchronously
-            sessionCompletionService.completeSession(session.getId());
+    /**
+     * Start calls with a gRPC context attached, so they are cancelled with it
+     */
+    private static <T> CompletableFuture<T> inContext(Context context, Supplier<CompletableFuture<T>> start) {
+        Context previous = context.attach();
+        try {
+            return start.get();
+        } finally {
+            context.detach(previous);
         }
+    }
 
-        log.info("Window analysis batch completed for session {}", session.getId());
+    /**
+     * Unwrap the CompletionException added by future composition
+     */
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
-    
+
     /**
-     * Extract and analyze a single window from master video
+     * Prepare stage: extract window segment (from its chunk segment or the master video), upload it and sign its URL
      *
-     * @param session           Session entity
-     * @param globalWindowIndex Global window index
-     * @param startTime         Start time in seconds
-     * @param endTime           End time in seconds
-     * @param context           Context from previous window
-     * @param storageService    Storage service instance
-     * @return Analysis result
+     * @param session        Session entity
+     * @param window         Planned window
+     * @param segments       Master segment timeline (empty for a single-file master)
+     * @param storageService Storage service instance
+     * @return Future of the same window with local path, storage path and URL filled in
      */
-    private String extractAndAnalyzeWindow(
-            Session session,
-            int globalWindowIndex,
-            Double startTime,
-            Double endTime,
-            String context,
-            StorageService storageService) {
-        
-        log.info("Extracting and analyzing window {}: [{}, {}]s", globalWindowIndex, startTime, endTime);
-        
-        try {
-            // 1. Extract window segment from master video
-            String windowPath = videoConfig.getTempPath() + "/" + session.getId() +
-                    "/window_" + globalWindowIndex + ".webm";
-            grpcClientService.extractSegment(
+    private CompletableFuture<WindowTask> prepareWindow(Session session, WindowTask window,
+                                                        List<MasterVideoService.Segment> segments,
+                                                        StorageService storageService) {
+        int globalWindowIndex = window.getWindowIndex();
+        Double startTime = window.getStartTime();
+        Double endTime = window.getEndTime();
+
+        log.info("Preparing window {}: [{}, {}]s", globalWindowIndex, startTime, endTime);
+
+        // 1. Extract window segment: from the single chunk segment that contains it,
+        //    or from the master video when the window crosses a chunk boundary
+        String windowPath = videoConfig.getTempPath() + "/" + session.getId() +
+                "/window_" + globalWindowIndex + ".webm";
+        MasterVideoService.Segment segment = MasterVideoService.findContainingSegment(segments, startTime, endTime);
+        CompletableFuture<String> extracted;
+        if (segment != null) {
+            double segmentStart = Math.max(0.0, startTime - segment.getStartTime());
+            double segmentEnd = Math.min(segment.getDuration(), endTime - segment.getStartTime());
+            log.info("Window {} lies inside chunk {}: extracting [{}, {}]s from segment",
+                    globalWindowIndex, segment.getChunkIndex(), segmentStart, segmentEnd);
+            extracted = mediaOps.extractSegmentAsync(
+                    segment.getPath(),
+                    windowPath,
+                    segmentStart,
+                    segmentEnd
+            );
+        } else {
+            extracted = mediaOps.extractSegmentAsync(
                     session.getMasterVideoPath(),
                     windowPath,
                     startTime,
                     endTime
             );
-            
+        }
+
+        return extracted.thenApplyAsync(path -> {
+            window.setLocalPath(windowPath);
+
             // 2. Upload to storage service
             String storagePath = String.format("sessions/%d/windows/w%d_%.0f-%.0fs.webm",
                     session.getId(), globalWindowIndex, startTime, endTime);
             storageService.uploadFile(windowPath, storagePath);
-            
+            window.setStoragePath(storagePath);
+
             // 3. Generate public URL
             String videoUrl = storageService.generatePublicUrl(storagePath);
+            window.setVideoUrl(videoUrl);
             log.info("🎥 Generated URL for window {}: {}", globalWindowIndex, videoUrl);
 
-            // 4. Get user memory
-            String userMemory = userMemoryService.getUserMemory(session.getUserId());
-
-            // 5. Call AI analysis (raw result)
-            String rawResult = grpcClientService.analyzeVideoSync(
-                    session.getId().toString(),
-                    globalWindowIndex,
-                    videoUrl,
-                    session.getAiModel(),
-                    context,
-                    startTime,
-                    endTime,
-                    "sliding_window",  // Pass sliding_window mode
-                    userMemory,  // Pass user memory
-                    content -> {} // Don't stream raw result
-            );
+            return window;
+        }, windowPrepareExecutor).exceptionally(error -> {
+            Throwable cause = unwrap(error);
+            log.error("Failed to prepare window {}: {}", globalWindowIndex, cause.getMessage(), cause);
+            throw new VideoProcessingException("Failed to prepare window", cause);
+        });
+    }
 
-            log.info("Window {} raw analysis completed: length={}", globalWindowIndex, rawResult.length());
+    /**
+     * AI stage: analyze a prepared window and refine the result, without blocking a thread
+     *
+     * @param session      Session entity
+     * @param window       Prepared window (raw and refined results are filled in)
+     * @param context      Context from previous window
+     * @param analysisMode Prompt mode passed to ai-service (full/sliding_window)
+     * @param userMemory   User memory JSON string
+     * @return Future of the same window
+     */
+    private CompletableFuture<WindowTask> runAiStage(Session session, WindowTask window, String context,
+                                                     String analysisMode, String userMemory) {
+        int globalWindowIndex = window.getWindowIndex();
+        Double startTime = window.getStartTime();
+        Double endTime = window.getEndTime();
+
+        log.info("Analyzing window {}: [{}, {}]s", globalWindowIndex, startTime, endTime);
+
+        // 5-6. Call AI analysis and refine the raw result (one AnalyzeAndRefine call when supported)
+        return grpcClientService.analyzeAndRefine(
+                session.getId().toString(),
+                globalWindowIndex,
+                window.getVideoUrl(),
+                session.getAiModel(),
+                context,
+                startTime,
+                endTime,
+                analysisMode,
+                userMemory,  // Pass user memory
+                session.getCurrentVideoLength(),  // Total video duration
+                rawTokenStreamer(session.getId(), globalWindowIndex)  // Stream raw tokens as provisional result
+        ).handle((result, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                log.error("Failed to extract/analyze window {}: {}", globalWindowIndex, cause.getMessage(), cause);
+                throw new VideoProcessingException("Failed to extract/analyze window", cause);
+            }
 
-            // 6. Refine analysis result
-            String refinedResult = grpcClientService.refineAnalysis(
-                    session.getId().toString(),
-                    globalWindowIndex,
-                    rawResult,
-                    session.getCurrentVideoLength(),  // Total video duration
-                    userMemory,
-                    session.getAiModel()
-            );
+            log.info("Window {} analysis refined: raw length={}, refined length={}",
+                    globalWindowIndex, result.getRawResult().length(), result.getRefinedResult().length());
+            window.setRawResult(result.getRawResult());
+            window.setRefinedResult(result.getRefinedResult());
+            return window;
+        });
+    }
 
-            log.info("Window {} analysis refined: length={}", globalWindowIndex, refinedResult.length());
+    /**
+     * Commit stage: stream, save and clean up an analyzed window (called in window order)
+     *
+     * @param session Session entity
+     * @param window  Analyzed window
+     */
+    private void commitWindow(Session session, WindowTask window) {
+        int globalWindowIndex = window.getWindowIndex();
 
-            // 7. Stream refined result to frontend
-            analysisService.sendStreamingResult(session.getId(), globalWindowIndex, refinedResult);
+        try {
+            // 7. Stream refined result to frontend (replaces provisional raw tokens)
+            analysisService.sendStreamingResult(session.getId(), globalWindowIndex, window.getRefinedResult());
 
             // 8. Save analysis result
             analysisService.saveAnalysisRecordWithRaw(
                     session.getId(),
                     null,  // chunkId not important anymore
                     globalWindowIndex,
-                    rawResult,
-                    refinedResult,
-                    startTime,
-                    endTime,
-                    storagePath
+                    window.getRawResult(),
+                    window.getRefinedResult(),
+                    window.getStartTime(),
+                    window.getEndTime(),
+                    window.getStoragePath()
             );
 
             // 9. Cleanup local window file
-            cleanupService.deleteLocalFile(windowPath);
+            cleanupService.deleteLocalFile(window.getLocalPath());
 
-            // 10. Delete from storage if not keeping videos
+            // 10. Delete from storage if not keeping videos (batched in the background)
             if (!session.getKeepVideo()) {
-                storageService.deleteObject(storagePath);
+                objectDeleter.enqueue(session.getStorageType(), window.getStoragePath());
             }
 
-            log.info("Window {} analysis completed, refined length={}", globalWindowIndex, refinedResult.length());
-            return refinedResult;
-            
+            log.info("Window {} analysis completed, refined length={}", globalWindowIndex, window.getRefinedResult().length());
+
         } catch (Exception e) {
-            log.error("Failed to extract/analyze window {}: {}", globalWindowIndex, e.getMessage(), e);
-            throw new VideoProcessingException("Failed to extract/analyze window", e);
+            log.error("Failed to commit window {}: {}", globalWindowIndex, e.getMessage(), e);
+            throw new VideoProcessingException("Failed to commit window", e);
         }
     }
+
+    /**
+     * A sliding window moving through the pipeline stages
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class WindowTask {
+        private Integer windowIndex;
+        private Double startTime;
+        private Double endTime;
+        private String localPath;    // Set by prepare stage
+        private String storagePath;  // Set by prepare stage
+        private String videoUrl;     // Set by prepare stage
+        private String rawResult;      // Set by AI stage
+        private String refinedResult;  // Set by AI stage
+    }
 }
@@ -65,6 +65,35 @@ COMMENT ON COLUMN analysis_records.window_index IS 'Sliding window index (NULL f
 COMMENT ON COLUMN analysis_records.start_time_offset IS 'Start time offset relative to session start (seconds)';
 COMMENT ON COLUMN analysis_records.end_time_offset IS 'End time offset relative to session start (seconds)';
 
+-- ==================== Pipeline Jobs Table ====================
+CREATE TABLE IF NOT EXISTS pipeline_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    job_type VARCHAR(20) NOT NULL,
+    chunk_id BIGINT,
+    chunk_index INT,
+    local_path VARCHAR(500),
+    last_chunk BOOLEAN DEFAULT false,
+    appended BOOLEAN DEFAULT false,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT DEFAULT 0,
+    owner VARCHAR(100),
+    heartbeat_at TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (session_id) REFERENCES sessions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_pipeline_jobs_session_id ON pipeline_jobs(session_id);
+CREATE INDEX IF NOT EXISTS idx_pipeline_jobs_status_heartbeat ON pipeline_jobs(status, heartbeat_at);
+
+COMMENT ON TABLE pipeline_jobs IS 'Durable chunk/completion jobs, resumed after an instance restart';
+COMMENT ON COLUMN pipeline_jobs.job_type IS 'CHUNK/COMPLETION';
+COMMENT ON COLUMN pipeline_jobs.status IS 'PENDING/RUNNING/DONE/FAILED';
+COMMENT ON COLUMN pipeline_jobs.appended IS 'Chunk already appended to the master video';
+COMMENT ON COLUMN pipeline_jobs.heartbeat_at IS 'Lease renewed by the owning instance; stale leases are recovered';
+
 -- ==================== User Configs Table ====================
 CREATE TABLE IF NOT EXISTS user_configs (
     user_id BIGINT PRIMARY KEY,
@@ -0,0 +1,137 @@
+package com.skiuo.coreservice.config;
+
+import com.google.protobuf.ByteString;
+import com.skiuo.grpc.GenerateTitleRequest;
+import com.skiuo.grpc.GenerateTitleResponse;
+import com.skiuo.grpc.MediaChunk;
+import com.skiuo.grpc.MediaStreamRequest;
+import com.skiuo.grpc.MediaStreamResponse;
+import com.skiuo.grpc.VideoAnalysisServiceGrpc;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload sizes, stream timing and tag values recorded for ai-service calls
+ */
+class GrpcClientMetricsInterceptorTest {
+
+    private static final int CHUNK_BYTES = 1000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Server server;
+    private ManagedChannel channel;
+    private VideoAnalysisServiceGrpc.VideoAnalysisServiceBlockingStub blockingStub;
+    private VideoAnalysisServiceGrpc.VideoAnalysisServiceStub asyncStub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(new EchoService()).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        var intercepted = ClientInterceptors.intercept(channel, new GrpcClientMetricsInterceptor(meterRegistry));
+        blockingStub = VideoAnalysisServiceGrpc.newBlockingStub(intercepted);
+        asyncStub = VideoAnalysisServiceGrpc.newStub(intercepted);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void tagsKnownModelsAndFoldsOthers() {
+        blockingStub.generateTitle(GenerateTitleRequest.newBuilder().setAiModel("Qwen").build());
+        blockingStub.generateTitle(GenerateTitleRequest.newBuilder().setAiModel("model-" + System.nanoTime()).build());
+        blockingStub.generateTitle(GenerateTitleRequest.newBuilder().build());
+
+        assertThat(meterRegistry.find("video.grpc.client.calls").timers())
+                .extracting(timer -> timer.getId().getTag("ai_model"))
+                .containsExactlyInAnyOrder("qwen", "other", "none");
+    }
+
+    @Test
+    void recordsRequestBytesOncePerBidiCall() throws Exception {
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        StreamObserver<MediaStreamRequest> requests = asyncStub.mediaStream(new StreamObserver<>() {
+            @Override
+            public void onNext(MediaStreamResponse response) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                closed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                closed.complete(null);
+            }
+        });
+        MediaStreamRequest chunk = MediaStreamRequest.newBuilder()
+                .setChunk(MediaChunk.newBuilder().setData(ByteString.copyFrom(new byte[CHUNK_BYTES])))
+                .build();
+        for (int i = 0; i < 5; i++) {
+            requests.onNext(chunk);
+        }
+        requests.onCompleted();
+        closed.get(5, TimeUnit.SECONDS);
+
+        DistributionSummary requestBytes = meterRegistry.get("video.grpc.client.request.bytes")
+                .tag("method", "MediaStream").summary();
+        assertThat(requestBytes.count()).isEqualTo(1);
+        assertThat(requestBytes.totalAmount()).isEqualTo(5.0 * chunk.getSerializedSize());
+
+        // Five echoed chunks and the final message: one first-message sample, then five gaps
+        assertThat(meterRegistry.get("video.grpc.client.first.message").tag("method", "MediaStream").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("video.grpc.client.message.gap").tag("method", "MediaStream").timer().count())
+                .isEqualTo(5);
+    }
+
+    /**
+     * Answers titles and echoes every media chunk back
+     */
+    private static class EchoService extends VideoAnalysisServiceGrpc.VideoAnalysisServiceImplBase {
+
+        @Override
+        public void generateTitle(GenerateTitleRequest request, StreamObserver<GenerateTitleResponse> responseObserver) {
+            responseObserver.onNext(GenerateTitleResponse.newBuilder().setTitle("title").build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<MediaStreamRequest> mediaStream(StreamObserver<MediaStreamResponse> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(MediaStreamRequest request) {
+                    responseObserver.onNext(MediaStreamResponse.newBuilder().setChunk(request.getChunk()).build());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(MediaStreamResponse.newBuilder().setDone(true).build());
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+}
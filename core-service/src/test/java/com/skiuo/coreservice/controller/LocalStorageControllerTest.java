@@ -0,0 +1,147 @@
+package com.skiuo.coreservice.controller;
+
+import com.skiuo.coreservice.config.LocalStorageConfig;
+import com.skiuo.coreservice.config.PresignedUrlConfig;
+import com.skiuo.coreservice.service.LocalStorageService;
+import com.skiuo.coreservice.service.PresignedUrlCache;
+import com.skiuo.coreservice.service.StorageReadiness;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signature checks and byte-range handling of local object downloads
+ */
+class LocalStorageControllerTest {
+
+    private static final String OBJECT = "sessions/42/window_3.webm";
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path directory;
+
+    private LocalStorageService storage;
+    private LocalStorageController controller;
+    private long expires;
+    private String signature;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalStorageConfig config = new LocalStorageConfig();
+        config.setDirectory(directory.toString());
+        config.setPublicUrl("http://core:8080");
+        config.setSigningKey("test-key");
+        storage = new LocalStorageService(config, new StorageReadiness(),
+                new PresignedUrlCache(new PresignedUrlConfig(), new SimpleMeterRegistry()));
+        controller = new LocalStorageController(storage);
+
+        Files.createDirectories(storage.resolve(OBJECT).getParent());
+        Files.writeString(storage.resolve(OBJECT), CONTENT);
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(storage.generatePublicUrl(OBJECT))
+                .build().getQueryParams();
+        expires = Long.parseLong(query.getFirst("expires"));
+        signature = query.getFirst("signature");
+    }
+
+    @Test
+    void servesWholeObject() throws Exception {
+        MockHttpServletResponse response = get("/" + OBJECT, signature, null, new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getContentType()).isEqualTo("video/webm");
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        MockHttpServletResponse response = get(OBJECT, signature, "bytes=2-5", new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void servesSuffixRange() throws Exception {
+        MockHttpServletResponse response = get(OBJECT, signature, "bytes=-3", new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(response.getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void servesWholeObjectForMultipleRanges() throws Exception {
+        MockHttpServletResponse response = get(OBJECT, signature, "bytes=0-1,4-5", new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = get(OBJECT, signature, "bytes=20-30", new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void rejectsInvalidSignature() throws Exception {
+        MockHttpServletResponse response = get(OBJECT, "x" + signature, null, new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void reportsMissingObject() throws Exception {
+        Files.delete(storage.resolve(OBJECT));
+
+        MockHttpServletResponse response = get(OBJECT, signature, null, new MockHttpServletRequest("GET", ""));
+
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void answersHeadWithoutBody() throws Exception {
+        MockHttpServletResponse response = get(OBJECT, signature, null, new MockHttpServletRequest("HEAD", ""));
+
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void handsRangeToSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        MockHttpServletResponse response = get(OBJECT, signature, "bytes=2-5", request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(storage.resolve(OBJECT).toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+    }
+
+    private MockHttpServletResponse get(String objectName, String signature, String range,
+                                        MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getObject(objectName, expires, signature, range, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.coreservice.exception.StorageException;
+import com.skiuo.coreservice.service.StorageService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts uploads and uploaded bytes of the load test's storage backend (local or in-memory)
+ */
+public class CountingStorageService implements StorageService {
+
+    private final StorageService delegate;
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    public CountingStorageService(StorageService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String uploadFile(String localFilePath, String objectName) {
+        count(localFilePath);
+        return delegate.uploadFile(localFilePath, objectName);
+    }
+
+    @Override
+    public String uploadLargeFile(String localFilePath, String objectName) {
+        count(localFilePath);
+        return delegate.uploadLargeFile(localFilePath, objectName);
+    }
+
+    @Override
+    public String generatePublicUrl(String objectName) {
+        return delegate.generatePublicUrl(objectName);
+    }
+
+    @Override
+    public void deleteObject(String objectName) {
+        delegate.deleteObject(objectName);
+    }
+
+    @Override
+    public List<String> deleteObjects(List<String> objectNames) {
+        return delegate.deleteObjects(objectNames);
+    }
+
+    @Override
+    public void ensureStorageReady() {
+        delegate.ensureStorageReady();
+    }
+
+    public long getUploads() {
+        return uploads.get();
+    }
+
+    public long getUploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    private void count(String localFilePath) {
+        try {
+            uploadedBytes.addAndGet(Files.size(Paths.get(localFilePath)));
+            uploads.incrementAndGet();
+        } catch (IOException e) {
+            throw new StorageException("Failed to read file for upload", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.coreservice.service.AdmissionControlService;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples pool utilization and pipeline backlog while the load test runs
+ */
+public class ExecutorSampler {
+
+    private final ThreadPoolTaskExecutor videoTaskExecutor;
+    private final ThreadPoolTaskExecutor windowAnalysisExecutor;
+    private final AdmissionControlService admissionControlService;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private long samples;
+    private double videoUtilizationSum;
+    private double videoUtilizationPeak;
+    private double analysisUtilizationPeak;
+    private int queuedPeak;
+    private long saturatedSamples;  // All video task threads busy
+
+    public ExecutorSampler(ThreadPoolTaskExecutor videoTaskExecutor,
+                           ThreadPoolTaskExecutor windowAnalysisExecutor,
+                           AdmissionControlService admissionControlService) {
+        this.videoTaskExecutor = videoTaskExecutor;
+        this.windowAnalysisExecutor = windowAnalysisExecutor;
+        this.admissionControlService = admissionControlService;
+    }
+
+    public void start(long periodMs) {
+        scheduler.scheduleAtFixedRate(this::sample, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized void sample() {
+        double video = (double) videoTaskExecutor.getActiveCount() / videoTaskExecutor.getMaxPoolSize();
+        double analysis = (double) windowAnalysisExecutor.getActiveCount() / windowAnalysisExecutor.getMaxPoolSize();
+
+        samples++;
+        videoUtilizationSum += video;
+        videoUtilizationPeak = Math.max(videoUtilizationPeak, video);
+        analysisUtilizationPeak = Math.max(analysisUtilizationPeak, analysis);
+        queuedPeak = Math.max(queuedPeak, admissionControlService.queuedTasks());
+        if (video >= 1.0) {
+            saturatedSamples++;
+        }
+    }
+
+    public synchronized double getVideoUtilizationMean() {
+        return samples == 0 ? 0.0 : videoUtilizationSum / samples;
+    }
+
+    public synchronized double getVideoUtilizationPeak() {
+        return videoUtilizationPeak;
+    }
+
+    public synchronized double getAnalysisUtilizationPeak() {
+        return analysisUtilizationPeak;
+    }
+
+    public synchronized int getQueuedPeak() {
+        return queuedPeak;
+    }
+
+    public synchronized double getSaturatedFraction() {
+        return samples == 0 ? 0.0 : (double) saturatedSamples / samples;
+    }
+}
@@ -0,0 +1,230 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.grpc.*;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for ai-service.
+ *
+ * AI RPCs sleep for the configured latencies and stream synthetic tokens in the configured
+ * shape. Media RPCs never run FFmpeg: concat writes the inputs back to back, extract writes
+ * a fixed-size placeholder, and duration probes return the configured chunk length
+ * (playlists are summed from their duration lines, like the concat demuxer would).
+ */
+@Slf4j
+public class FakeVideoAnalysisService extends VideoAnalysisServiceGrpc.VideoAnalysisServiceImplBase {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    private final LoadTestSettings settings;
+    private final AtomicInteger analyzeInFlight = new AtomicInteger();
+    private final AtomicInteger analyzeInFlightPeak = new AtomicInteger();
+    private final AtomicLong analyzeCalls = new AtomicLong();
+    private final AtomicLong mediaCalls = new AtomicLong();
+
+    public FakeVideoAnalysisService(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void analyzeVideo(AnalysisRequest request, StreamObserver<AnalysisResponse> responseObserver) {
+        analyzeCalls.incrementAndGet();
+        analyzeInFlightPeak.accumulateAndGet(analyzeInFlight.incrementAndGet(), Math::max);
+        try {
+            sleep(settings.getFirstTokenMs());
+            String token = "x".repeat(Math.max(1, settings.getTokenChars()));
+            for (int i = 0; i < settings.getTokens(); i++) {
+                if (i > 0) {
+                    sleep(settings.getTokenShape().gapBefore(i, settings.getTokens(), settings.getTokenIntervalMs()));
+                }
+                responseObserver.onNext(AnalysisResponse.newBuilder()
+                        .setSessionId(request.getSessionId())
+                        .setWindowIndex(request.getWindowIndex())
+                        .setContent(token)
+                        .setIsFinal(i == settings.getTokens() - 1)
+                        .build());
+            }
+            responseObserver.onCompleted();
+        } finally {
+            analyzeInFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void refineAnalysis(RefineAnalysisRequest request, StreamObserver<RefineAnalysisResponse> responseObserver) {
+        sleep(settings.getRefineMs());
+        responseObserver.onNext(RefineAnalysisResponse.newBuilder()
+                .setRefinedContent("[refined w" + request.getWindowIndex() + "] " + request.getRawContent())
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void analyzeAndRefine(AnalyzeAndRefineRequest request,
+                                 StreamObserver<AnalyzeAndRefineResponse> responseObserver) {
+        AnalysisRequest analysis = request.getAnalysis();
+        StringBuilder raw = new StringBuilder();
+        analyzeVideo(analysis, new StreamObserver<>() {
+            @Override
+            public void onNext(AnalysisResponse response) {
+                raw.append(response.getContent());
+                responseObserver.onNext(AnalyzeAndRefineResponse.newBuilder()
+                        .setSessionId(response.getSessionId())
+                        .setWindowIndex(response.getWindowIndex())
+                        .setPhase(AnalysisPhase.ANALYSIS_PHASE_RAW)
+                        .setContent(response.getContent())
+                        .setIsFinal(response.getIsFinal())
+                        .build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                responseObserver.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        sleep(settings.getRefineMs());
+        responseObserver.onNext(AnalyzeAndRefineResponse.newBuilder()
+                .setSessionId(analysis.getSessionId())
+                .setWindowIndex(analysis.getWindowIndex())
+                .setPhase(AnalysisPhase.ANALYSIS_PHASE_REFINED)
+                .setContent("[refined w" + analysis.getWindowIndex() + "] " + raw)
+                .setIsFinal(true)
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void generateTitle(GenerateTitleRequest request, StreamObserver<GenerateTitleResponse> responseObserver) {
+        sleep(settings.getTextMs());
+        responseObserver.onNext(GenerateTitleResponse.newBuilder().setTitle("压测会话").build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void extractUserMemory(ExtractUserMemoryRequest request,
+                                  StreamObserver<ExtractUserMemoryResponse> responseObserver) {
+        sleep(settings.getTextMs());
+        responseObserver.onNext(ExtractUserMemoryResponse.newBuilder().setNewMemory("{}").build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void concatVideos(ConcatVideosRequest request, StreamObserver<ConcatVideosResponse> responseObserver) {
+        media();
+        try {
+            Path output = Paths.get(request.getOutputPath());
+            Path temp = output.resolveSibling(output.getFileName() + ".part");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                for (String input : request.getVideoPathsList()) {
+                    Files.copy(Paths.get(input), out);
+                }
+            }
+            Files.move(temp, output, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            responseObserver.onNext(ConcatVideosResponse.newBuilder().setOutputPath(request.getOutputPath()).build());
+        } catch (IOException e) {
+            responseObserver.onNext(ConcatVideosResponse.newBuilder().setError(e.getMessage()).build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void extractSegment(ExtractSegmentRequest request, StreamObserver<ExtractSegmentResponse> responseObserver) {
+        media();
+        try {
+            Files.write(Paths.get(request.getOutputPath()), new byte[SEGMENT_BYTES]);
+            responseObserver.onNext(ExtractSegmentResponse.newBuilder().setOutputPath(request.getOutputPath()).build());
+        } catch (IOException e) {
+            responseObserver.onNext(ExtractSegmentResponse.newBuilder().setError(e.getMessage()).build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void extractTail(ExtractTailRequest request, StreamObserver<ExtractTailResponse> responseObserver) {
+        media();
+        try {
+            Files.write(Paths.get(request.getOutputPath()), new byte[SEGMENT_BYTES]);
+            responseObserver.onNext(ExtractTailResponse.newBuilder().setOutputPath(request.getOutputPath()).build());
+        } catch (IOException e) {
+            responseObserver.onNext(ExtractTailResponse.newBuilder().setError(e.getMessage()).build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getVideoDuration(GetVideoDurationRequest request,
+                                 StreamObserver<GetVideoDurationResponse> responseObserver) {
+        media();
+        try {
+            responseObserver.onNext(GetVideoDurationResponse.newBuilder()
+                    .setDuration((float) probe(request.getVideoPath()))
+                    .build());
+        } catch (IOException e) {
+            responseObserver.onNext(GetVideoDurationResponse.newBuilder().setError(e.getMessage()).build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void processVideo(ProcessRequest request, StreamObserver<ProcessResponse> responseObserver) {
+        media();
+        responseObserver.onNext(ProcessResponse.newBuilder().build());
+        responseObserver.onCompleted();
+    }
+
+    public long getAnalyzeCalls() {
+        return analyzeCalls.get();
+    }
+
+    public int getAnalyzeInFlightPeak() {
+        return analyzeInFlightPeak.get();
+    }
+
+    public long getMediaCalls() {
+        return mediaCalls.get();
+    }
+
+    private double probe(String videoPath) throws IOException {
+        if (!videoPath.endsWith(".ffconcat")) {
+            return settings.getChunkSeconds();
+        }
+        double total = 0.0;
+        for (String line : Files.readAllLines(Paths.get(videoPath), StandardCharsets.UTF_8)) {
+            if (line.startsWith("duration ")) {
+                total += Double.parseDouble(line.substring("duration ".length()).trim());
+            }
+        }
+        return total;
+    }
+
+    private void media() {
+        mediaCalls.incrementAndGet();
+        sleep(settings.getMediaMs());
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
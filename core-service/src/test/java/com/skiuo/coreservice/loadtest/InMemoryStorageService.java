@@ -0,0 +1,51 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.coreservice.exception.StorageException;
+import com.skiuo.coreservice.service.StorageService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage backend for the load test with -Dloadtest.storage=memory: keeps object sizes in memory,
+ * never touches the disk.
+ * The fake ai-service never downloads, so URLs only need to be unique.
+ */
+@Slf4j
+public class InMemoryStorageService implements StorageService {
+
+    private final Map<String, Long> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public String uploadFile(String localFilePath, String objectName) {
+        try {
+            long size = Files.size(Paths.get(localFilePath));
+            objects.put(objectName, size);
+            return objectName;
+        } catch (IOException e) {
+            throw new StorageException("Failed to read file for in-memory upload", e);
+        }
+    }
+
+    @Override
+    public String generatePublicUrl(String objectName) {
+        return "memory://loadtest/" + objectName;
+    }
+
+    @Override
+    public void deleteObject(String objectName) {
+        objects.remove(objectName);
+    }
+
+    @Override
+    public void ensureStorageReady() {
+    }
+
+    public int getStoredObjects() {
+        return objects.size();
+    }
+}
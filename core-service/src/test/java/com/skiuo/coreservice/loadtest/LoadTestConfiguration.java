@@ -0,0 +1,85 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.coreservice.config.GrpcClientMetricsInterceptor;
+import com.skiuo.coreservice.service.AiServiceRouter;
+import com.skiuo.coreservice.service.LocalStorageService;
+import com.skiuo.coreservice.service.StorageService;
+import com.skiuo.coreservice.service.StorageServiceFactory;
+import com.skiuo.grpc.VideoAnalysisServiceGrpc;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Replaces the external dependencies of core-service for the load test:
+ * ai-service runs in-process and storage is the local filesystem backend (served by this
+ * core-service like in a single-box deployment), or in memory with -Dloadtest.storage=memory.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class LoadTestConfiguration {
+
+    private static final String SERVER_NAME = "fake-ai-service";
+
+    @Bean
+    public LoadTestSettings loadTestSettings() {
+        return LoadTestSettings.fromSystemProperties();
+    }
+
+    @Bean
+    public FakeVideoAnalysisService fakeVideoAnalysisService(LoadTestSettings loadTestSettings) {
+        return new FakeVideoAnalysisService(loadTestSettings);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public Server fakeAiServer(FakeVideoAnalysisService fakeVideoAnalysisService) throws IOException {
+        // Handlers sleep to simulate latency, so give them an unbounded pool like a real server would
+        return InProcessServerBuilder.forName(SERVER_NAME)
+                .executor(Executors.newCachedThreadPool())
+                .addService(fakeVideoAnalysisService)
+                .build()
+                .start();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @Primary
+    public AiServiceRouter fakeAiServiceRouter(Server fakeAiServer,
+                                               GrpcClientMetricsInterceptor grpcClientMetricsInterceptor,
+                                               MeterRegistry meterRegistry) {
+        return new AiServiceRouter(
+                List.of(SERVER_NAME),
+                AiServiceRouter.LoadBalancing.LEAST_REQUEST,
+                name -> InProcessChannelBuilder.forName(name).intercept(grpcClientMetricsInterceptor).build(),
+                VideoAnalysisServiceGrpc.SERVICE_NAME,
+                0,  // The fake server is always up
+                true,
+                0,
+                meterRegistry);
+    }
+
+    @Bean
+    public CountingStorageService loadTestStorageService(LoadTestSettings loadTestSettings,
+                                                         LocalStorageService localStorageService) {
+        return new CountingStorageService("memory".equalsIgnoreCase(loadTestSettings.getStorage())
+                ? new InMemoryStorageService()
+                : localStorageService);
+    }
+
+    @Bean
+    @Primary
+    public StorageServiceFactory loadTestStorageServiceFactory(CountingStorageService loadTestStorageService) {
+        return new StorageServiceFactory(null, null, null, null) {
+            @Override
+            public StorageService getStorageService(String storageType) {
+                return loadTestStorageService;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.skiuo.coreservice.loadtest;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Load test knobs, read from -Dloadtest.* system properties
+ */
+@Data
+@Builder
+public class LoadTestSettings {
+
+    // Driver
+    private int recorders;           // Concurrent simulated recorders (one session each)
+    private int chunksPerSession;    // Chunks uploaded per session (last one has isLastChunk=true)
+    private long chunkIntervalMs;    // Upload cadence per recorder (compressed wall time per chunk)
+    private int chunkBytes;          // Payload size of each uploaded chunk
+    private double chunkSeconds;     // Video duration reported for each chunk
+    private long timeoutSeconds;     // Max wait for all sessions to finish
+
+    // Fake ai-service
+    private long firstTokenMs;       // AnalyzeVideo latency until the first token
+    private int tokens;              // Tokens streamed per AnalyzeVideo call
+    private long tokenIntervalMs;    // Mean gap between tokens
+    private int tokenChars;          // Characters per token
+    private TokenShape tokenShape;   // Distribution of token gaps
+    private long refineMs;           // RefineAnalysis latency
+    private long textMs;             // GenerateTitle / ExtractUserMemory latency
+    private long mediaMs;            // Concat / extract / probe latency
+
+    // Storage
+    private String storage;          // local (filesystem backend) | memory
+
+    public static LoadTestSettings fromSystemProperties() {
+        return LoadTestSettings.builder()
+                .recorders(Integer.getInteger("loadtest.recorders", 8))
+                .chunksPerSession(Integer.getInteger("loadtest.chunks", 4))
+                .chunkIntervalMs(Long.getLong("loadtest.chunk-interval-ms", 2000L))
+                .chunkBytes(Integer.getInteger("loadtest.chunk-bytes", 256 * 1024))
+                .chunkSeconds(Double.parseDouble(System.getProperty("loadtest.chunk-seconds", "35")))
+                .timeoutSeconds(Long.getLong("loadtest.timeout-seconds", 300L))
+                .firstTokenMs(Long.getLong("loadtest.ai.first-token-ms", 800L))
+                .tokens(Integer.getInteger("loadtest.ai.tokens", 40))
+                .tokenIntervalMs(Long.getLong("loadtest.ai.token-interval-ms", 25L))
+                .tokenChars(Integer.getInteger("loadtest.ai.token-chars", 8))
+                .tokenShape(TokenShape.valueOf(System.getProperty("loadtest.ai.token-shape", "STEADY").toUpperCase()))
+                .refineMs(Long.getLong("loadtest.ai.refine-ms", 300L))
+                .textMs(Long.getLong("loadtest.ai.text-ms", 200L))
+                .mediaMs(Long.getLong("loadtest.media-ms", 50L))
+                .storage(System.getProperty("loadtest.storage", "local"))
+                .build();
+    }
+
+    /**
+     * Shape of the AnalyzeVideo token stream
+     */
+    public enum TokenShape {
+        STEADY,      // Every gap equals token-interval-ms
+        BURSTY,      // Bursts of 8 tokens back to back, then a pause of 8 gaps
+        SLOW_START;  // First quarter of the tokens at 4x the gap, the rest at half
+
+        /**
+         * Delay before token i (i >= 1; token 0 is preceded by first-token-ms)
+         */
+        long gapBefore(int i, int total, long interval) {
+            return switch (this) {
+                case STEADY -> interval;
+                case BURSTY -> i % 8 == 0 ? interval * 8 : 0;
+                case SLOW_START -> i < total / 4 ? interval * 4 : interval / 2;
+            };
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.coreservice.client.AuthServiceClient;
+import com.skiuo.coreservice.entity.AnalysisRecord;
+import com.skiuo.coreservice.entity.Session;
+import com.skiuo.coreservice.repository.AnalysisRecordRepository;
+import com.skiuo.coreservice.repository.SessionRepository;
+import com.skiuo.coreservice.service.AdmissionControlService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end throughput test of the chunk pipeline without real AI, FFmpeg or object storage
+ * (objects go to the local filesystem backend).
+ *
+ * Run with: mvn test -Pload-test -Dloadtest.recorders=16 -Dloadtest.chunks=6
+ * (see LoadTestSettings for all knobs). Reports sessions/sec, time to first window,
+ * window lag (window result saved minus upload of the chunk that completed it) and
+ * executor saturation.
+ */
+@Tag("load")
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@Import(LoadTestConfiguration.class)
+class PipelineLoadTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private LoadTestSettings settings;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private AnalysisRecordRepository analysisRecordRepository;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private FakeVideoAnalysisService fakeVideoAnalysisService;
+
+    @Autowired
+    private CountingStorageService loadTestStorageService;
+
+    @Autowired
+    @Qualifier("videoTaskExecutor")
+    private ThreadPoolTaskExecutor videoTaskExecutor;
+
+    @Autowired
+    @Qualifier("windowAnalysisExecutor")
+    private ThreadPoolTaskExecutor windowAnalysisExecutor;
+
+    @MockitoBean
+    private AuthServiceClient authServiceClient;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void recordersAtChunkCadence() throws Exception {
+        when(authServiceClient.validateToken(anyString()))
+                .thenAnswer(invocation -> AuthServiceClient.UserInfo.builder()
+                        .id((long) Math.abs(invocation.getArgument(0, String.class).hashCode()))
+                        .username("loadtest")
+                        .build());
+
+        ExecutorSampler sampler = new ExecutorSampler(videoTaskExecutor, windowAnalysisExecutor, admissionControlService);
+        RecorderDriver driver = new RecorderDriver(restTemplate, settings);
+
+        long runStart = System.currentTimeMillis();
+        sampler.start(250);
+        List<RecorderDriver.SessionTrace> traces;
+        try {
+            traces = driver.run();
+            awaitSessions(traces);
+        } finally {
+            sampler.stop();
+        }
+
+        List<Long> firstWindow = new ArrayList<>();
+        List<Long> windowLag = new ArrayList<>();
+        long completed = 0;
+        long failed = 0;
+        long lastEnd = runStart;
+        for (RecorderDriver.SessionTrace trace : traces) {
+            Session session = sessionRepository.findById(trace.getSessionId()).orElseThrow();
+            if (session.getStatus() == Session.SessionStatus.COMPLETED) {
+                completed++;
+            } else if (session.getStatus() == Session.SessionStatus.FAILED) {
+                failed++;
+            }
+            if (session.getEndTime() != null) {
+                lastEnd = Math.max(lastEnd, epochMillis(session.getEndTime()));
+            }
+
+            List<AnalysisRecord> records = analysisRecordRepository.findBySessionIdOrderByCreatedAtAsc(trace.getSessionId());
+            if (!records.isEmpty()) {
+                firstWindow.add(epochMillis(records.get(0).getCreatedAt()) - trace.getFirstUploadAt());
+            }
+            for (AnalysisRecord record : records) {
+                int chunk = chunkCovering(record.getEndTimeOffset(), trace.getChunkAcceptedAt().size());
+                windowLag.add(epochMillis(record.getCreatedAt()) - trace.getChunkAcceptedAt().get(chunk));
+            }
+        }
+
+        double elapsedSeconds = (lastEnd - runStart) / 1000.0;
+        log.info("""
+
+                ===== Pipeline load test =====
+                recorders={} chunks/session={} chunk-interval={}ms chunk={}s/{}KB token-shape={}
+                sessions: completed={} failed={} throttled-uploads={}
+                sessions/sec={}
+                time-to-first-window ms: p50={} p99={} max={}
+                window lag ms:           p50={} p99={} max={} (windows={})
+                video task pool: mean={}% peak={}% saturated={}% of samples, queued peak={}
+                window analysis pool peak={}%, ai-service AnalyzeVideo peak concurrency={}
+                ai-service calls: analyze={} media={}; storage uploads={} ({} MB)
+                ==============================""",
+                settings.getRecorders(), settings.getChunksPerSession(), settings.getChunkIntervalMs(),
+                settings.getChunkSeconds(), settings.getChunkBytes() / 1024, settings.getTokenShape(),
+                completed, failed, driver.getThrottled(),
+                String.format("%.3f", elapsedSeconds > 0 ? completed / elapsedSeconds : 0.0),
+                percentile(firstWindow, 0.50), percentile(firstWindow, 0.99), percentile(firstWindow, 1.0),
+                percentile(windowLag, 0.50), percentile(windowLag, 0.99), percentile(windowLag, 1.0), windowLag.size(),
+                Math.round(sampler.getVideoUtilizationMean() * 100), Math.round(sampler.getVideoUtilizationPeak() * 100),
+                Math.round(sampler.getSaturatedFraction() * 100), sampler.getQueuedPeak(),
+                Math.round(sampler.getAnalysisUtilizationPeak() * 100), fakeVideoAnalysisService.getAnalyzeInFlightPeak(),
+                fakeVideoAnalysisService.getAnalyzeCalls(), fakeVideoAnalysisService.getMediaCalls(),
+                loadTestStorageService.getUploads(), loadTestStorageService.getUploadedBytes() / (1024 * 1024));
+
+        assertThat(failed).as("failed sessions").isZero();
+        assertThat(completed).as("completed sessions").isEqualTo(settings.getRecorders());
+        assertThat(windowLag).as("analyzed windows").isNotEmpty();
+    }
+
+    /**
+     * Wait until every session reached COMPLETED or FAILED
+     */
+    private void awaitSessions(List<RecorderDriver.SessionTrace> traces) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getTimeoutSeconds());
+        while (System.nanoTime() < deadline) {
+            boolean allDone = traces.stream()
+                    .map(trace -> sessionRepository.findById(trace.getSessionId()).orElseThrow().getStatus())
+                    .allMatch(status -> status == Session.SessionStatus.COMPLETED || status == Session.SessionStatus.FAILED);
+            if (allDone) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+        log.warn("Timed out after {}s waiting for sessions to finish", settings.getTimeoutSeconds());
+    }
+
+    /**
+     * Index of the chunk whose upload made a window end available
+     */
+    private int chunkCovering(Double windowEnd, int chunks) {
+        int index = (int) Math.ceil(windowEnd / settings.getChunkSeconds() - 1e-6) - 1;
+        return Math.max(0, Math.min(chunks - 1, index));
+    }
+
+    private static long percentile(List<Long> values, double p) {
+        if (values.isEmpty()) {
+            return 0L;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
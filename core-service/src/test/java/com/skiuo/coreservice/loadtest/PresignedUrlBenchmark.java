@@ -0,0 +1,130 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.OSS;
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.http.HttpMethodName;
+import com.skiuo.coreservice.config.CosConfig;
+import com.skiuo.coreservice.config.OssConfig;
+import com.skiuo.coreservice.config.PresignedUrlConfig;
+import com.skiuo.coreservice.service.PresignedUrlCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of signing a presigned GET URL (OSS V4, COS) against a PresignedUrlCache hit.
+ *
+ * Run with: mvn test -Pload-test -Dtest=PresignedUrlBenchmark
+ * Signing is local (HMAC over the canonical request), so dummy credentials are enough and no
+ * request leaves the JVM. Keys cycle over 1000 window objects, like a busy session's windows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PresignedUrlBenchmark {
+
+    private static final int OBJECTS = 1000;
+    private static final long TTL_MS = 3600 * 1000L;
+
+    private OSS ossClient;
+    private COSClient cosClient;
+    private PresignedUrlCache cache;
+    private String[] objectNames;
+    private int next;
+
+    @Setup
+    public void setup() {
+        OssConfig ossConfig = new OssConfig();
+        ossConfig.setEndpoint("oss-cn-hangzhou.aliyuncs.com");
+        ossConfig.setRegion("cn-hangzhou");
+        ossConfig.setAccessKeyId("benchmark-key-id");
+        ossConfig.setAccessKeySecret("benchmark-key-secret");
+        ossClient = ossConfig.ossClient();
+
+        CosConfig cosConfig = new CosConfig();
+        cosConfig.setRegion("ap-beijing");
+        cosConfig.setSecretId("benchmark-secret-id");
+        cosConfig.setSecretKey("benchmark-secret-key");
+        cosClient = cosConfig.cosClient();
+
+        cache = new PresignedUrlCache(new PresignedUrlConfig(), new SimpleMeterRegistry());
+        objectNames = new String[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            objectNames[i] = String.format("sessions/42/windows/w%d_%d-%ds.webm", i, i * 10, i * 10 + 15);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ossClient.shutdown();
+        cosClient.shutdown();
+    }
+
+    @Benchmark
+    public String ossSign() {
+        return signOss(nextObject(), new Date(System.currentTimeMillis() + TTL_MS));
+    }
+
+    @Benchmark
+    public String cosSign() {
+        return signCos(nextObject(), new Date(System.currentTimeMillis() + TTL_MS));
+    }
+
+    /**
+     * Cache path: every object is signed once, then served from the cache
+     */
+    @Benchmark
+    public String ossCached() {
+        String objectName = nextObject();
+        return cache.get("oss", objectName, expiration -> signOss(objectName, expiration));
+    }
+
+    @Test
+    @Tag("load")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PresignedUrlBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    private String nextObject() {
+        next = (next + 1) % OBJECTS;
+        return objectNames[next];
+    }
+
+    private String signOss(String objectName, Date expiration) {
+        com.aliyun.oss.model.GeneratePresignedUrlRequest request =
+                new com.aliyun.oss.model.GeneratePresignedUrlRequest("skiuo-benchmark", objectName, HttpMethod.GET);
+        request.setExpiration(expiration);
+        return ossClient.generatePresignedUrl(request).toString();
+    }
+
+    private String signCos(String objectName, Date expiration) {
+        com.qcloud.cos.model.GeneratePresignedUrlRequest request =
+                new com.qcloud.cos.model.GeneratePresignedUrlRequest("skiuo-benchmark-1250000000", objectName, HttpMethodName.GET);
+        request.setExpiration(expiration);
+        return cosClient.generatePresignedUrl(request).toString();
+    }
+}
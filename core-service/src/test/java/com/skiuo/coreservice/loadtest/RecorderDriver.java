@@ -0,0 +1,157 @@
+package com.skiuo.coreservice.loadtest;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates N browser recorders: each one opens a session and uploads a chunk to
+ * /api/videos/upload every chunk-interval-ms, honouring Retry-After on 429/503 like
+ * web-recorder does. Recorders are staggered over one interval so uploads do not
+ * arrive in lockstep.
+ */
+@Slf4j
+public class RecorderDriver {
+
+    private final TestRestTemplate restTemplate;
+    private final LoadTestSettings settings;
+    private final AtomicLong throttled = new AtomicLong();
+
+    public RecorderDriver(TestRestTemplate restTemplate, LoadTestSettings settings) {
+        this.restTemplate = restTemplate;
+        this.settings = settings;
+    }
+
+    /**
+     * Run all recorders to their last chunk
+     *
+     * @return One trace per recorder
+     */
+    public List<SessionTrace> run() throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(settings.getRecorders());
+        try {
+            List<Future<SessionTrace>> futures = new ArrayList<>();
+            for (int r = 0; r < settings.getRecorders(); r++) {
+                int recorder = r;
+                futures.add(pool.submit(() -> record(recorder)));
+            }
+
+            List<SessionTrace> traces = new ArrayList<>();
+            for (Future<SessionTrace> future : futures) {
+                traces.add(future.get());
+            }
+            return traces;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    private SessionTrace record(int recorder) throws InterruptedException {
+        SessionTrace trace = new SessionTrace(recorder);
+        byte[] payload = new byte[settings.getChunkBytes()];
+        ThreadLocalRandom.current().nextBytes(payload);
+
+        long interval = settings.getChunkIntervalMs();
+        long start = System.currentTimeMillis() + recorder * interval / Math.max(1, settings.getRecorders());
+        for (int i = 0; i < settings.getChunksPerSession(); i++) {
+            // Chunk i is available once it has been "recorded"
+            sleepUntil(start + (i + 1) * interval);
+            upload(trace, i, payload);
+        }
+        return trace;
+    }
+
+    private void upload(SessionTrace trace, int chunkIndex, byte[] payload) throws InterruptedException {
+        boolean lastChunk = chunkIndex == settings.getChunksPerSession() - 1;
+        while (true) {
+            MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+            form.add("file", new ByteArrayResource(payload) {
+                @Override
+                public String getFilename() {
+                    return "chunk_" + chunkIndex + ".webm";
+                }
+            });
+            form.add("chunkIndex", chunkIndex);
+            form.add("aiModel", "qwen");
+            form.add("analysisMode", "SLIDING_WINDOW");
+            form.add("keepVideo", false);
+            form.add("storageType", "memory");
+            form.add("duration", settings.getChunkSeconds());
+            form.add("isLastChunk", lastChunk);
+            if (trace.getSessionId() != null) {
+                form.add("sessionId", trace.getSessionId());
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+            headers.setBearerAuth("loadtest-recorder-" + trace.getRecorder());
+
+            long sentAt = System.currentTimeMillis();
+            ResponseEntity<Map> response = restTemplate.postForEntity(
+                    "/api/videos/upload", new HttpEntity<>(form, headers), Map.class);
+
+            HttpStatus status = HttpStatus.valueOf(response.getStatusCode().value());
+            if (status == HttpStatus.TOO_MANY_REQUESTS || status == HttpStatus.SERVICE_UNAVAILABLE) {
+                throttled.incrementAndGet();
+                String retryAfter = response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+                Thread.sleep(1000L * (retryAfter != null ? Long.parseLong(retryAfter) : 1L));
+                continue;
+            }
+            if (!status.is2xxSuccessful() || response.getBody() == null) {
+                throw new IllegalStateException("Upload failed: recorder=" + trace.getRecorder()
+                        + ", chunk=" + chunkIndex + ", status=" + status);
+            }
+
+            if (trace.getSessionId() == null) {
+                trace.sessionId = ((Number) response.getBody().get("sessionId")).longValue();
+                trace.firstUploadAt = sentAt;
+            }
+            trace.chunkAcceptedAt.add(System.currentTimeMillis());
+            return;
+        }
+    }
+
+    private static void sleepUntil(long epochMillis) throws InterruptedException {
+        long delay = epochMillis - System.currentTimeMillis();
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Upload timeline of one simulated recorder
+     */
+    @Getter
+    public static class SessionTrace {
+        private final int recorder;
+        private Long sessionId;
+        private long firstUploadAt;                                // Epoch ms the first chunk was sent
+        private final List<Long> chunkAcceptedAt = new ArrayList<>();  // Epoch ms each chunk was accepted
+
+        SessionTrace(int recorder) {
+            this.recorder = recorder;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.skiuo.coreservice.loadtest;
+
+import com.skiuo.coreservice.config.AiServiceTransport;
+import com.skiuo.grpc.AnalysisRequest;
+import com.skiuo.grpc.AnalysisResponse;
+import com.skiuo.grpc.GetVideoDurationRequest;
+import com.skiuo.grpc.VideoAnalysisServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Loopback TCP vs Unix domain socket for the ai-service channel.
+ *
+ * Run with: mvn test -Pload-test -Dtest=TransportBenchmark [-Dbenchmark.calls=20000]
+ * One zero-latency fake ai-service listens on both transports; channels come from
+ * AiServiceTransport like in production. Reports per-call latency percentiles of the short
+ * FFmpeg-path RPC (GetVideoDuration) and of a token-streaming AnalyzeVideo call.
+ * Skipped where Netty epoll is unavailable (non-Linux).
+ */
+@Tag("load")
+@Slf4j
+class TransportBenchmark {
+
+    private static final int WARMUP_CALLS = Integer.getInteger("benchmark.warmup-calls", 2000);
+    private static final int CALLS = Integer.getInteger("benchmark.calls", 10000);
+    private static final int STREAM_CALLS = Integer.getInteger("benchmark.stream-calls", 1000);
+    private static final int TOKENS = Integer.getInteger("benchmark.tokens", 200);
+
+    @Test
+    void compareTcpAndDomainSocket() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "Netty epoll unavailable: " + Epoll.unavailabilityCause());
+
+        LoadTestSettings settings = LoadTestSettings.builder()
+                .tokens(TOKENS)
+                .tokenChars(8)
+                .tokenShape(LoadTestSettings.TokenShape.STEADY)
+                .chunkSeconds(35)
+                .build();
+        FakeVideoAnalysisService service = new FakeVideoAnalysisService(settings);
+
+        Path socketDir = Files.createTempDirectory("grpc-uds-");
+        Path socket = socketDir.resolve("ai.sock");
+        EventLoopGroup boss = new EpollEventLoopGroup(1);
+        EventLoopGroup workers = new EpollEventLoopGroup();
+        Server tcpServer = NettyServerBuilder.forAddress(new InetSocketAddress("127.0.0.1", 0))
+                .addService(service)
+                .build()
+                .start();
+        Server udsServer = NettyServerBuilder.forAddress(new DomainSocketAddress(socket.toString()))
+                .channelType(EpollServerDomainSocketChannel.class)
+                .bossEventLoopGroup(boss)
+                .workerEventLoopGroup(workers)
+                .addService(service)
+                .build()
+                .start();
+
+        AiServiceTransport transport = new AiServiceTransport();
+        ManagedChannel tcp = transport.forAddress("127.0.0.1:" + tcpServer.getPort()).build();
+        ManagedChannel uds = transport.forAddress(AiServiceTransport.UNIX_SCHEME + "//" + socket).build();
+        try {
+            Result tcpUnary = unary("tcp", tcp);
+            Result udsUnary = unary("uds", uds);
+            Result tcpStream = stream("tcp", tcp);
+            Result udsStream = stream("uds", uds);
+
+            log.info("===== Transport benchmark =====");
+            log.info("GetVideoDuration  {}", tcpUnary);
+            log.info("GetVideoDuration  {}", udsUnary);
+            log.info("AnalyzeVideo({} tokens)  {}", TOKENS, tcpStream);
+            log.info("AnalyzeVideo({} tokens)  {}", TOKENS, udsStream);
+            log.info("UDS/TCP p50: unary {}, stream {}",
+                    String.format("%.2f", udsUnary.p50() / tcpUnary.p50()),
+                    String.format("%.2f", udsStream.p50() / tcpStream.p50()));
+
+            assertThat(tcpUnary.calls()).isEqualTo(CALLS);
+            assertThat(udsUnary.calls()).isEqualTo(CALLS);
+        } finally {
+            tcp.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            uds.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            transport.close();
+            tcpServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            udsServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            boss.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+            workers.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+            Files.deleteIfExists(socket);
+            Files.deleteIfExists(socketDir);
+        }
+    }
+
+    private Result unary(String transport, ManagedChannel channel) {
+        VideoAnalysisServiceGrpc.VideoAnalysisServiceBlockingStub stub = VideoAnalysisServiceGrpc.newBlockingStub(channel);
+        GetVideoDurationRequest request = GetVideoDurationRequest.newBuilder()
+                .setVideoPath("/tmp/skiuo/benchmark/chunk.webm")
+                .build();
+        return measure(transport, CALLS, () -> {
+            long start = System.nanoTime();
+            stub.getVideoDuration(request);
+            return System.nanoTime() - start;
+        });
+    }
+
+    private Result stream(String transport, ManagedChannel channel) {
+        VideoAnalysisServiceGrpc.VideoAnalysisServiceBlockingStub stub = VideoAnalysisServiceGrpc.newBlockingStub(channel);
+        AnalysisRequest request = AnalysisRequest.newBuilder()
+                .setSessionId("benchmark")
+                .setVideoUrl("http://localhost/benchmark.webm")
+                .setAiModel("qwen")
+                .build();
+        return measure(transport, STREAM_CALLS, () -> {
+            long start = System.nanoTime();
+            Iterator<AnalysisResponse> tokens = stub.analyzeVideo(request);
+            int received = 0;
+            while (tokens.hasNext()) {
+                tokens.next();
+                received++;
+            }
+            assertThat(received).isEqualTo(TOKENS);
+            return System.nanoTime() - start;
+        });
+    }
+
+    /**
+     * Warm up, then time calls one after another
+     */
+    private Result measure(String transport, int calls, LongSupplier call) {
+        for (int i = 0; i < Math.min(WARMUP_CALLS, calls); i++) {
+            call.getAsLong();
+        }
+        long[] nanos = new long[calls];
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            nanos[i] = call.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(nanos);
+        return new Result(transport, calls, calls * 1e9 / elapsed,
+                nanos[calls / 2] / 1e3, nanos[(int) (calls * 0.99)] / 1e3, nanos[calls - 1] / 1e3);
+    }
+
+    private record Result(String transport, int calls, double callsPerSecond,
+                          double p50, double p99, double max) {
+        @Override
+        public String toString() {
+            return String.format("%s: %d calls, %.0f calls/s, p50=%.1fus, p99=%.1fus, max=%.1fus",
+                    transport, calls, callsPerSecond, p50, p99, max);
+        }
+    }
+}
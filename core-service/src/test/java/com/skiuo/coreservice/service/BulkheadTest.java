@@ -0,0 +1,100 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permit limit, FIFO hand-off and cancellation of queued calls
+ */
+class BulkheadTest {
+
+    private final Bulkhead bulkhead = new Bulkhead("test", 2, new SimpleMeterRegistry());
+
+    @Test
+    void startsQueuedCallsInFifoOrderAsPermitsAreReleased() {
+        List<Integer> started = new ArrayList<>();
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            CompletableFuture<Integer> call = new CompletableFuture<>();
+            calls.add(call);
+            results.add(bulkhead.submit(() -> {
+                started.add(index);
+                return call;
+            }));
+        }
+
+        assertThat(started).containsExactly(0, 1);
+        assertThat(bulkhead.inUse()).isEqualTo(2);
+        assertThat(bulkhead.queued()).isEqualTo(3);
+
+        calls.get(1).complete(1);
+        assertThat(started).containsExactly(0, 1, 2);
+        calls.get(0).complete(0);
+        assertThat(started).containsExactly(0, 1, 2, 3);
+        calls.get(3).completeExceptionally(new IllegalStateException("failed"));
+        assertThat(started).containsExactly(0, 1, 2, 3, 4);
+        assertThat(bulkhead.inUse()).isEqualTo(2);
+        assertThat(bulkhead.queued()).isZero();
+
+        calls.get(2).complete(2);
+        calls.get(4).complete(4);
+        assertThat(bulkhead.inUse()).isZero();
+        assertThat(results.get(0)).isCompletedWithValue(0);
+        assertThat(results.get(4)).isCompletedWithValue(4);
+        assertThatThrownBy(results.get(3)::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void drainsLongQueueOfSynchronousFailuresWithoutGrowingTheStack() {
+        Bulkhead single = new Bulkhead("test", 1, new SimpleMeterRegistry());
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        single.submit(() -> gate);
+
+        AtomicInteger attempts = new AtomicInteger();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            results.add(single.submit(() -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("ai-service unavailable");
+            }));
+        }
+        assertThat(single.queued()).isEqualTo(100_000);
+
+        gate.complete(null);
+
+        assertThat(attempts.get()).isEqualTo(100_000);
+        assertThat(results).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(single.inUse()).isZero();
+        assertThat(single.queued()).isZero();
+    }
+
+    @Test
+    void skipsCallCancelledWhileWaiting() {
+        Bulkhead single = new Bulkhead("test", 1, new SimpleMeterRegistry());
+        CompletableFuture<String> gate = new CompletableFuture<>();
+        AtomicInteger cancelledCalls = new AtomicInteger();
+        single.submit(() -> gate);
+        CompletableFuture<String> cancelled = single.submit(() -> {
+            cancelledCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("cancelled");
+        });
+        CompletableFuture<String> next = single.submit(() -> CompletableFuture.completedFuture("next"));
+
+        cancelled.cancel(false);
+        gate.complete("first");
+
+        assertThat(cancelledCalls.get()).isZero();
+        assertThat(next).isCompletedWithValue("next");
+        assertThat(single.inUse()).isZero();
+    }
+}
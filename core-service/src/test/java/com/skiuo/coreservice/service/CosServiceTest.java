@@ -0,0 +1,50 @@
+package com.skiuo.coreservice.service;
+
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.exception.MultiObjectDeleteException;
+import com.qcloud.cos.model.DeleteObjectsRequest;
+import com.skiuo.coreservice.config.CosConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch deletes on COS keep the presigned URL cache in step with what was deleted
+ */
+class CosServiceTest {
+
+    private final COSClient cosClient = mock(COSClient.class);
+    private final PresignedUrlCache presignedUrlCache = mock(PresignedUrlCache.class);
+    private final CosService service = new CosService(cosClient, new CosConfig(), new StorageReadiness(),
+            mock(MultipartUploader.class), presignedUrlCache);
+
+    @Test
+    void evictsEveryDeletedObject() {
+        assertThat(service.deleteObjects(List.of("a.webm", "b.webm"))).isEmpty();
+
+        verify(presignedUrlCache).evict("cos", "a.webm");
+        verify(presignedUrlCache).evict("cos", "b.webm");
+    }
+
+    @Test
+    void evictsOnlyDeletedObjectsOnPartialFailure() {
+        MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+        error.setKey("b.webm");
+        when(cosClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenThrow(new MultiObjectDeleteException(List.of(error), List.of()));
+
+        List<String> failed = service.deleteObjects(List.of("a.webm", "b.webm", "c.webm"));
+
+        assertThat(failed).containsExactly("b.webm");
+        verify(presignedUrlCache).evict("cos", "a.webm");
+        verify(presignedUrlCache).evict("cos", "c.webm");
+        verify(presignedUrlCache, never()).evict("cos", "b.webm");
+    }
+}
@@ -0,0 +1,122 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.LocalStorageConfig;
+import com.skiuo.coreservice.config.PresignedUrlConfig;
+import com.skiuo.coreservice.exception.StorageException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Object name resolution, URL signing and uploads of the local storage backend
+ */
+class LocalStorageServiceTest {
+
+    private static final String OBJECT = "sessions/42/window 3.webm";
+
+    @TempDir
+    Path directory;
+
+    private final StorageReadiness storageReadiness = new StorageReadiness();
+    private LocalStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        service = service("test-key", new PresignedUrlConfig());
+    }
+
+    @Test
+    void resolvesObjectNamesInsideTheDirectory() {
+        assertThat(service.resolve(OBJECT)).isEqualTo(directory.resolve(OBJECT));
+        assertThat(service.resolve("a/../b.webm")).isEqualTo(directory.resolve("b.webm"));
+    }
+
+    @Test
+    void rejectsObjectNamesEscapingTheDirectory() {
+        assertThatThrownBy(() -> service.resolve("../outside.webm")).isInstanceOf(StorageException.class);
+        assertThatThrownBy(() -> service.resolve("sessions/../../outside.webm")).isInstanceOf(StorageException.class);
+        assertThatThrownBy(() -> service.resolve("/etc/passwd")).isInstanceOf(StorageException.class);
+        assertThatThrownBy(() -> service.resolve("")).isInstanceOf(StorageException.class);
+        assertThatThrownBy(() -> service.resolve("sessions/..")).isInstanceOf(StorageException.class);
+    }
+
+    @Test
+    void acceptsItsOwnSignedUrl() {
+        String url = service.generatePublicUrl(OBJECT);
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+        long expires = Long.parseLong(query.getFirst("expires"));
+        String signature = query.getFirst("signature");
+
+        assertThat(url).startsWith("http://core:8080/storage/local/sessions/42/window%203.webm?");
+        assertThat(service.verify(OBJECT, expires, signature)).isTrue();
+    }
+
+    @Test
+    void rejectsTamperedUrls() {
+        String url = service.generatePublicUrl(OBJECT);
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+        long expires = Long.parseLong(query.getFirst("expires"));
+        String signature = query.getFirst("signature");
+
+        assertThat(service.verify("sessions/42/window 4.webm", expires, signature)).isFalse();
+        assertThat(service.verify(OBJECT, expires + 3600, signature)).isFalse();
+        assertThat(service.verify(OBJECT, expires, signature.substring(1))).isFalse();
+        assertThat(service.verify(OBJECT, expires, null)).isFalse();
+        assertThat(service("other-key", new PresignedUrlConfig()).verify(OBJECT, expires, signature)).isFalse();
+    }
+
+    @Test
+    void rejectsExpiredUrls() {
+        PresignedUrlConfig expired = new PresignedUrlConfig();
+        expired.setTtlSeconds(-60L);  // Already expired when signed
+        LocalStorageService expiring = service("test-key", expired);
+
+        String url = expiring.generatePublicUrl(OBJECT);
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+
+        assertThat(expiring.verify(OBJECT, Long.parseLong(query.getFirst("expires")), query.getFirst("signature")))
+                .isFalse();
+    }
+
+    @Test
+    void storesAndDeletesObjects() throws Exception {
+        Path source = Files.writeString(directory.resolve("source.webm"), "video");
+
+        service.uploadFile(source.toString(), OBJECT);
+        assertThat(service.resolve(OBJECT)).hasContent("video");
+        try (var files = Files.list(service.resolve(OBJECT).getParent())) {
+            assertThat(files).hasSize(1);  // No .part file left behind
+        }
+
+        service.deleteObject(OBJECT);
+        assertThat(service.resolve(OBJECT)).doesNotExist();
+    }
+
+    @Test
+    void keepsReadinessWhenTheSourceFileIsMissing() {
+        service.ensureStorageReady();
+
+        assertThatThrownBy(() -> service.uploadFile(directory.resolve("missing.webm").toString(), OBJECT))
+                .isInstanceOf(StorageException.class);
+
+        assertThat(storageReadiness.getBackend("local").isReady()).isTrue();
+    }
+
+    private LocalStorageService service(String signingKey, PresignedUrlConfig presignedUrlConfig) {
+        LocalStorageConfig config = new LocalStorageConfig();
+        config.setDirectory(directory.toString());
+        config.setPublicUrl("http://core:8080/");
+        config.setSigningKey(signingKey);
+        return new LocalStorageService(config, storageReadiness,
+                new PresignedUrlCache(presignedUrlConfig, new SimpleMeterRegistry()));
+    }
+}
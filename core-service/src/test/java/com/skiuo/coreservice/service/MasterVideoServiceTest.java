@@ -0,0 +1,120 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.VideoConfig;
+import com.skiuo.coreservice.entity.Session;
+import com.skiuo.coreservice.service.MasterVideoService.Segment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Segment appends, playlist parsing and segment lookup of the incremental master video
+ */
+class MasterVideoServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final MasterVideoService service = new MasterVideoService(new VideoConfig(), null, null);
+
+    @Test
+    void advancesLengthBySegmentDurationsAndReconcilesOnTheLedgerSchedule() {
+        MediaOps mediaOps = mock(MediaOps.class);
+        when(mediaOps.getVideoDuration(endsWith(".webm"))).thenReturn(10.0);
+        when(mediaOps.getVideoDuration(endsWith(MasterVideoService.PLAYLIST_NAME))).thenReturn(29.5);
+        VideoConfig videoConfig = new VideoConfig();
+        videoConfig.setTempPath(directory.toString());
+        videoConfig.setDurationReconcileInterval(3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MasterVideoService appender = new MasterVideoService(videoConfig, mediaOps,
+                new DurationLedger(mediaOps, videoConfig, meterRegistry));
+        Session session = Session.builder().id(1L).currentVideoLength(0.0).build();
+
+        appender.appendSegment(session, "chunk_0.webm", 0, 10.0, false);
+        appender.appendSegment(session, "chunk_1.webm", 1, 10.0, false);
+        assertThat(session.getCurrentVideoLength()).isEqualTo(20.0);
+        verify(mediaOps, never()).getVideoDuration(session.getMasterVideoPath());
+
+        // Third chunk: the playlist probe replaces the summed length
+        appender.appendSegment(session, "chunk_2.webm", 2, 10.0, false);
+        assertThat(session.getCurrentVideoLength()).isEqualTo(29.5);
+        assertThat(meterRegistry.get("video.duration.reconciles").counter().count()).isEqualTo(1);
+
+        // The last chunk is always reconciled
+        when(mediaOps.getVideoDuration(endsWith(MasterVideoService.PLAYLIST_NAME))).thenReturn(39.5);
+        appender.appendSegment(session, "chunk_3.webm", 3, 10.0, true);
+        assertThat(session.getCurrentVideoLength()).isEqualTo(39.5);
+        assertThat(meterRegistry.get("video.duration.reconciles").counter().count()).isEqualTo(2);
+        assertThat(appender.listSegments(session.getMasterVideoPath())).extracting(Segment::getChunkIndex)
+                .containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void listsSegmentsWithTheirOffsetsOnTheMasterTimeline() throws Exception {
+        Path playlist = Files.writeString(directory.resolve(MasterVideoService.PLAYLIST_NAME), """
+                ffconcat version 1.0
+                file 'segment_0.webm'
+                duration 10.0
+                file 'segment_1.webm'
+                duration 9.5
+                file 'intro.webm'
+                duration 2.5
+                """);
+
+        List<Segment> segments = service.listSegments(playlist.toString());
+
+        assertThat(segments).extracting(Segment::getChunkIndex).containsExactly(0, 1, null);
+        assertThat(segments).extracting(Segment::getStartTime).containsExactly(0.0, 10.0, 19.5);
+        assertThat(segments).extracting(Segment::getEndTime).containsExactly(10.0, 19.5, 22.0);
+        assertThat(segments.get(1).getPath()).isEqualTo(directory.resolve("segment_1.webm").toString());
+    }
+
+    @Test
+    void listsNoSegmentsOfMissingPlaylist() {
+        assertThat(service.listSegments(directory.resolve(MasterVideoService.PLAYLIST_NAME).toString())).isEmpty();
+    }
+
+    @Test
+    void findsSegmentContainingRange() {
+        List<Segment> segments = segments();
+
+        assertThat(MasterVideoService.findContainingSegment(segments, 0.0, 10.0).getChunkIndex()).isEqualTo(0);
+        assertThat(MasterVideoService.findContainingSegment(segments, 12.0, 18.0).getChunkIndex()).isEqualTo(1);
+        // Float slack at the edges
+        assertThat(MasterVideoService.findContainingSegment(segments, 9.98, 19.52).getChunkIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void findsNoSegmentForRangeCrossingABoundary() {
+        List<Segment> segments = segments();
+
+        assertThat(MasterVideoService.findContainingSegment(segments, 5.0, 15.0)).isNull();
+        assertThat(MasterVideoService.findContainingSegment(segments, 18.0, 25.0)).isNull();
+        assertThat(MasterVideoService.findContainingSegment(List.of(), 0.0, 1.0)).isNull();
+    }
+
+    @Test
+    void recognizesPlaylistPaths() {
+        assertThat(MasterVideoService.isPlaylist("/tmp/1/" + MasterVideoService.PLAYLIST_NAME)).isTrue();
+        assertThat(MasterVideoService.isPlaylist("/tmp/1/master_video.webm")).isFalse();
+        assertThat(MasterVideoService.isPlaylist(null)).isFalse();
+    }
+
+    private static List<Segment> segments() {
+        return List.of(
+                Segment.builder().chunkIndex(0).startTime(0.0).duration(10.0).build(),
+                Segment.builder().chunkIndex(1).startTime(10.0).duration(9.5).build(),
+                Segment.builder().chunkIndex(2).startTime(19.5).duration(5.0).build());
+    }
+}
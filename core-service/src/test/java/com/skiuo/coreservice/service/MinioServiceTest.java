@@ -0,0 +1,94 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.client.MinioMultipartClient;
+import com.skiuo.coreservice.config.MinioConfig;
+import com.skiuo.coreservice.exception.StorageException;
+import io.minio.BucketExistsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Upload failures only reset the cached bucket readiness when they come from MinIO
+ */
+class MinioServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final MinioClient minioClient = mock(MinioClient.class);
+    private final StorageReadiness storageReadiness = new StorageReadiness();
+    private MinioService service;
+    private Path source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MinioConfig config = new MinioConfig();
+        config.setBucketName("videos");
+        service = new MinioService(minioClient, config, storageReadiness,
+                mock(MinioMultipartClient.class), mock(MultipartUploader.class));
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true);
+        source = Files.writeString(directory.resolve("chunk.webm"), "video");
+        service.ensureStorageReady();
+    }
+
+    @Test
+    void keepsReadinessWhenTheLocalFileIsMissing() throws Exception {
+        assertThatThrownBy(() -> service.uploadFile(directory.resolve("missing.webm").toString(), "a.webm"))
+                .isInstanceOf(StorageException.class);
+
+        assertThat(storageReadiness.getBackend("minio").isReady()).isTrue();
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+    }
+
+    @Test
+    void keepsReadinessOnObjectErrors() throws Exception {
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(error("AccessDenied"));
+
+        assertThatThrownBy(() -> service.uploadFile(source.toString(), "a.webm")).isInstanceOf(StorageException.class);
+
+        assertThat(storageReadiness.getBackend("minio").isReady()).isTrue();
+    }
+
+    @Test
+    void invalidatesReadinessWhenTheBucketIsGone() throws Exception {
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(error("NoSuchBucket"));
+
+        assertThatThrownBy(() -> service.uploadFile(source.toString(), "a.webm")).isInstanceOf(StorageException.class);
+
+        assertThat(storageReadiness.getBackend("minio").isReady()).isFalse();
+        service.ensureStorageReady();
+        verify(minioClient, times(2)).bucketExists(any(BucketExistsArgs.class));
+    }
+
+    @Test
+    void invalidatesReadinessWhenMinioIsUnreachable() throws Exception {
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(new ConnectException("Connection refused"));
+
+        assertThatThrownBy(() -> service.uploadFile(source.toString(), "a.webm")).isInstanceOf(StorageException.class);
+
+        assertThat(storageReadiness.getBackend("minio").isReady()).isFalse();
+    }
+
+    private static ErrorResponseException error(String code) {
+        return new ErrorResponseException(
+                new ErrorResponse(code, code, "videos", "a.webm", "/videos/a.webm", "request", "host"), null, "");
+    }
+}
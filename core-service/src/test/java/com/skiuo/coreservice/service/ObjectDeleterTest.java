@@ -0,0 +1,129 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batching, retry and dead-lettering of background object deletes
+ */
+class ObjectDeleterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StorageService storage = mock(StorageService.class);
+    private final StorageServiceFactory storageServiceFactory = mock(StorageServiceFactory.class);
+    private ObjectDeleter deleter;
+
+    @BeforeEach
+    void setUp() {
+        when(storageServiceFactory.getStorageService("minio")).thenReturn(storage);
+        when(storageServiceFactory.getStorageService("cos")).thenReturn(storage);
+        when(storage.deleteObjects(anyList())).thenReturn(List.of());
+        deleter = new ObjectDeleter(storageServiceFactory, meterRegistry);
+        ReflectionTestUtils.setField(deleter, "maxAttempts", 2);
+    }
+
+    @Test
+    void deletesQueuedObjectsInOneBatchPerStorageType() {
+        deleter.enqueue("MinIO", "a.webm");
+        deleter.enqueue("minio", "b.webm");
+        deleter.enqueue(null, "c.webm");  // Default storage type
+
+        deleter.flushAll();
+
+        verify(storage).deleteObjects(List.of("a.webm", "b.webm"));
+        verify(storage).deleteObjects(List.of("c.webm"));
+        assertThat(count("deleted")).isEqualTo(3);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void retriesFailedKeysThenDeadLettersThem() {
+        when(storage.deleteObjects(List.of("a.webm", "b.webm"))).thenReturn(List.of("b.webm"));
+        when(storage.deleteObjects(List.of("b.webm"))).thenReturn(List.of("b.webm"));
+        deleter.enqueue("minio", "a.webm");
+        deleter.enqueue("minio", "b.webm");
+
+        deleter.flushAll();
+        assertThat(count("deleted")).isEqualTo(1);
+        assertThat(count("retried")).isEqualTo(1);
+        assertThat(pending()).isEqualTo(1);
+
+        deleter.flushAll();
+        assertThat(count("dead_letter")).isEqualTo(1);
+        assertThat(pending()).isZero();
+
+        deleter.flushAll();
+        verify(storage).deleteObjects(List.of("b.webm"));
+        verify(storage, times(2)).deleteObjects(anyList());
+    }
+
+    @Test
+    void retriesWholeBatchWhenTheRequestFails() {
+        when(storage.deleteObjects(List.of("a.webm"))).thenThrow(new IllegalStateException("unreachable"))
+                .thenReturn(List.of());
+        deleter.enqueue("minio", "a.webm");
+
+        deleter.flushAll();
+        assertThat(count("retried")).isEqualTo(1);
+        assertThat(pending()).isEqualTo(1);
+
+        deleter.flushAll();
+        assertThat(count("deleted")).isEqualTo(1);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void deadLettersWhatIsLeftOnShutdown() {
+        when(storage.deleteObjects(List.of("a.webm"))).thenReturn(List.of("a.webm"));
+        ReflectionTestUtils.setField(deleter, "maxAttempts", 5);
+        deleter.enqueue("minio", "a.webm");
+
+        deleter.shutdown();
+
+        assertThat(count("dead_letter")).isEqualTo(1);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void flushesAsynchronouslyOnItsOwnThread() throws Exception {
+        String[] deletedOn = new String[1];
+        when(storage.deleteObjects(List.of("a.webm"))).thenAnswer(invocation -> {
+            deletedOn[0] = Thread.currentThread().getName();
+            return List.of();
+        });
+        deleter.enqueue("minio", "a.webm");
+
+        deleter.flushAsync("minio").get(5, TimeUnit.SECONDS);
+
+        assertThat(deletedOn[0]).isEqualTo("storage-delete");
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void doesNothingWithoutQueuedObjects() {
+        deleter.flushAll();
+
+        verify(storage, never()).deleteObjects(anyList());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("video.storage.delete").tag("result", result).counter().count();
+    }
+
+    private double pending() {
+        return meterRegistry.get("video.storage.delete.pending").gauge().value();
+    }
+}
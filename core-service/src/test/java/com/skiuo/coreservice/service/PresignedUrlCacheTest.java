@@ -0,0 +1,94 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.PresignedUrlConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reuse, expiry and eviction of cached presigned URLs
+ */
+class PresignedUrlCacheTest {
+
+    private final AtomicInteger signatures = new AtomicInteger();
+    private final Function<Date, String> signer = expiration ->
+            "https://bucket/object?expires=" + expiration.getTime() + "&n=" + signatures.incrementAndGet();
+
+    @Test
+    void reusesUrlWhileEnoughValidityRemains() {
+        PresignedUrlCache cache = cache(3600L, 900L, 10);
+
+        long before = System.currentTimeMillis();
+        String first = cache.get("oss", "a.webm", signer);
+        String second = cache.get("oss", "a.webm", signer);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(signatures.get()).isEqualTo(1);
+        long expiresAt = Long.parseLong(first.substring(first.indexOf("expires=") + 8, first.indexOf("&n=")));
+        assertThat(expiresAt).isBetween(before + 3600_000L, System.currentTimeMillis() + 3600_000L);
+    }
+
+    @Test
+    void resignsOnceLessThanMinRemainingIsLeft() throws InterruptedException {
+        // min-remaining is capped at the TTL, so any elapsed time makes the cached URL too short
+        PresignedUrlCache cache = cache(60L, 900L, 10);
+
+        String first = cache.get("oss", "a.webm", signer);
+        Thread.sleep(5);
+        String second = cache.get("oss", "a.webm", signer);
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(signatures.get()).isEqualTo(2);
+    }
+
+    @Test
+    void keysUrlsByStorageAndObject() {
+        PresignedUrlCache cache = cache(3600L, 900L, 10);
+
+        cache.get("oss", "a.webm", signer);
+        cache.get("cos", "a.webm", signer);
+        cache.get("oss", "b.webm", signer);
+
+        assertThat(signatures.get()).isEqualTo(3);
+    }
+
+    @Test
+    void resignsEvictedObjects() {
+        PresignedUrlCache cache = cache(3600L, 900L, 10);
+
+        cache.get("oss", "a.webm", signer);
+        cache.evict("oss", "a.webm");
+        cache.get("oss", "a.webm", signer);
+
+        assertThat(signatures.get()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedUrlsBeyondCacheSize() {
+        PresignedUrlCache cache = cache(3600L, 900L, 2);
+
+        cache.get("oss", "a.webm", signer);
+        cache.get("oss", "b.webm", signer);
+        cache.get("oss", "a.webm", signer);  // a is now the most recently used
+        cache.get("oss", "c.webm", signer);  // evicts b
+        assertThat(signatures.get()).isEqualTo(3);
+
+        cache.get("oss", "a.webm", signer);
+        assertThat(signatures.get()).isEqualTo(3);
+        cache.get("oss", "b.webm", signer);
+        assertThat(signatures.get()).isEqualTo(4);
+    }
+
+    private static PresignedUrlCache cache(long ttlSeconds, long minRemainingSeconds, int cacheSize) {
+        PresignedUrlConfig config = new PresignedUrlConfig();
+        config.setTtlSeconds(ttlSeconds);
+        config.setMinRemainingSeconds(minRemainingSeconds);
+        config.setCacheSize(cacheSize);
+        return new PresignedUrlCache(config, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,79 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.entity.Session;
+import com.skiuo.coreservice.repository.SessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Session completion runs its blocking work on videoTaskExecutor, not on the caller's thread
+ */
+class SessionCompletionServiceTest {
+
+    private static final long SESSION_ID = 7L;
+
+    private final ExecutorService videoTaskExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "video-task-test"));
+    private final SessionRepository sessionRepository = mock(SessionRepository.class);
+    private final AnalysisService analysisService = mock(AnalysisService.class);
+    private final GrpcClientService grpcClientService = mock(GrpcClientService.class);
+    private final UserMemoryService userMemoryService = mock(UserMemoryService.class);
+    private final SessionCompletionService service = new SessionCompletionService(sessionRepository,
+            analysisService, grpcClientService, userMemoryService, mock(ObjectDeleter.class), videoTaskExecutor);
+
+    @AfterEach
+    void tearDown() {
+        videoTaskExecutor.shutdownNow();
+    }
+
+    @Test
+    void loadsSessionAndSavesResultOnVideoTaskExecutor() throws Exception {
+        Session session = Session.builder().id(SESSION_ID).userId(1L).storageType("minio").build();
+        String[] lookupThread = new String[1];
+        String[] saveThread = new String[1];
+        when(sessionRepository.findById(SESSION_ID)).thenAnswer(invocation -> {
+            lookupThread[0] = Thread.currentThread().getName();
+            return Optional.of(session);
+        });
+        when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> {
+            saveThread[0] = Thread.currentThread().getName();
+            return invocation.getArgument(0);
+        });
+        when(analysisService.getAllRefinedResults(SESSION_ID)).thenReturn(List.of("refined"));
+        when(grpcClientService.generateTitleAsync(anyString(), anyList(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture("滑雪"));
+        when(grpcClientService.extractUserMemoryAsync(anyString(), anyList(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        service.completeSession(SESSION_ID).get(5, TimeUnit.SECONDS);
+
+        assertThat(lookupThread[0]).isEqualTo("video-task-test");
+        assertThat(saveThread[0]).isEqualTo("video-task-test");
+        assertThat(session.getTitle()).isEqualTo("滑雪");
+        verify(sessionRepository).save(session);
+    }
+
+    @Test
+    void completesExceptionallyForMissingSession() {
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.empty());
+
+        CompletableFuture<Void> result = service.completeSession(SESSION_ID);
+
+        assertThat(result).failsWithin(5, TimeUnit.SECONDS);
+    }
+}
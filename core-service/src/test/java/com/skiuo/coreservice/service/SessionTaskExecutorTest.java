@@ -0,0 +1,192 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ordering, suspension and pool rejection of session lanes
+ */
+class SessionTaskExecutorTest {
+
+    private final List<SessionTaskExecutor> executors = new ArrayList<>();
+    private ExecutorService pool;
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(SessionTaskExecutor::shutdown);
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsTasksOfOneSessionInSubmissionOrderOneAtATime() throws Exception {
+        pool = Executors.newFixedThreadPool(4);
+        SessionTaskExecutor executor = executor(pool);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            futures.add(executor.submit(1L, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(index);
+                running.decrementAndGet();
+                return index;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactlyElementsOf(IntStream.range(0, 50).boxed().toList());
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(executor.laneDepth(1L)).isZero();
+    }
+
+    @Test
+    void pendingAsyncTaskHoldsBackTheRestOfItsLaneOnly() {
+        SessionTaskExecutor executor = executor(Runnable::run);
+        CompletableFuture<String> gate = new CompletableFuture<>();
+
+        CompletableFuture<String> first = executor.submitAsync(1L, () -> gate);
+        CompletableFuture<String> second = executor.submit(1L, () -> "second");
+        CompletableFuture<String> other = executor.submit(2L, () -> "other");
+
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        assertThat(other).isCompletedWithValue("other");
+        assertThat(executor.laneDepth(1L)).isEqualTo(2);
+
+        gate.complete("first");
+
+        assertThat(first).isCompletedWithValue("first");
+        assertThat(second).isCompletedWithValue("second");
+        assertThat(executor.laneDepth(1L)).isZero();
+    }
+
+    @Test
+    void failingTaskDoesNotBlockItsLane() {
+        SessionTaskExecutor executor = executor(Runnable::run);
+
+        CompletableFuture<String> failed = executor.submit(1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> next = executor.submit(1L, () -> "next");
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(next).isCompletedWithValue("next");
+    }
+
+    @Test
+    void rejectedLaneFailsEveryQueuedTask() {
+        SessionTaskExecutor[] holder = new SessionTaskExecutor[1];
+        List<CompletableFuture<String>> queuedWhileStarting = new ArrayList<>();
+        AtomicInteger starts = new AtomicInteger();
+        holder[0] = executor(command -> {
+            if (starts.incrementAndGet() == 1) {
+                // Another submitter joins the lane while its start is being rejected
+                queuedWhileStarting.add(holder[0].submit(1L, () -> "queued"));
+                throw new RejectedExecutionException("pool saturated");
+            }
+            command.run();
+        });
+        SessionTaskExecutor executor = holder[0];
+
+        CompletableFuture<String> first = executor.submit(1L, () -> "first");
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(queuedWhileStarting).hasSize(1);
+        assertThatThrownBy(queuedWhileStarting.get(0)::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.laneDepth(1L)).isZero();
+
+        // The lane is gone, so the next submit starts a fresh one
+        assertThat(executor.submit(1L, () -> "later")).isCompletedWithValue("later");
+    }
+
+    @Test
+    void rejectedResumeIsRetriedOffTheCompletingThread() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch checked = new CountDownLatch(1);
+        SessionTaskExecutor executor = executor(command -> {
+            int execution = executions.incrementAndGet();
+            if (execution == 2) {
+                throw new RejectedExecutionException("pool saturated");
+            }
+            if (execution == 3) {
+                // Hold the retry until the test has seen the lane still waiting
+                await(checked);
+            }
+            command.run();
+        });
+        CompletableFuture<String> gate = new CompletableFuture<>();
+        Thread[] ranOn = new Thread[1];
+
+        executor.submitAsync(1L, () -> gate);
+        CompletableFuture<String> second = executor.submit(1L, () -> {
+            ranOn[0] = Thread.currentThread();
+            return "second";
+        });
+
+        gate.complete("first");
+
+        // The resume was rejected: nothing runs inline on the thread that completed the stage
+        assertThat(second).isNotDone();
+        checked.countDown();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(ranOn[0]).isNotSameAs(Thread.currentThread());
+        assertThat(executions.get()).isEqualTo(3);
+    }
+
+    @Test
+    void resumeIsDroppedAfterShutdown() throws InterruptedException {
+        AtomicInteger executions = new AtomicInteger();
+        SessionTaskExecutor executor = executor(command -> {
+            if (executions.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("pool shut down");
+            }
+            command.run();
+        });
+        CompletableFuture<String> gate = new CompletableFuture<>();
+
+        executor.submitAsync(1L, () -> gate);
+        CompletableFuture<String> second = executor.submit(1L, () -> "second");
+        executor.shutdown();
+        gate.complete("first");
+
+        Thread.sleep(SessionTaskExecutor.RESUME_RETRY_MS * 2);
+        assertThat(second).isNotDone();
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SessionTaskExecutor executor(Executor delegate) {
+        SessionTaskExecutor executor = new SessionTaskExecutor(delegate, new SimpleMeterRegistry());
+        executors.add(executor);
+        return executor;
+    }
+}
@@ -0,0 +1,116 @@
+package com.skiuo.coreservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hits, coalescing and invalidation of probed durations
+ */
+class VideoDurationCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VideoDurationCache cache = new VideoDurationCache(2, meterRegistry);
+    private final AtomicInteger probes = new AtomicInteger();
+    private final Function<String, CompletableFuture<Double>> probe = path -> {
+        probes.incrementAndGet();
+        return CompletableFuture.completedFuture(12.5);
+    };
+
+    @Test
+    void probesEachFileOnce() throws Exception {
+        String path = video("a.webm", "aaaa");
+
+        assertThat(cache.get(path, probe)).isCompletedWithValue(12.5);
+        assertThat(cache.get(path, probe)).isCompletedWithValue(12.5);
+
+        assertThat(probes.get()).isEqualTo(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(lookups("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void sharesProbeInFlight() throws Exception {
+        String path = video("a.webm", "aaaa");
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+
+        CompletableFuture<Double> first = cache.get(path, p -> {
+            probes.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Double> second = cache.get(path, probe);
+        assertThat(second).isNotDone();
+
+        pending.complete(3.0);
+
+        assertThat(first).isCompletedWithValue(3.0);
+        assertThat(second).isCompletedWithValue(3.0);
+        assertThat(probes.get()).isEqualTo(1);
+        assertThat(lookups("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheFailedProbes() throws Exception {
+        String path = video("a.webm", "aaaa");
+
+        CompletableFuture<Double> failed = cache.get(path, p -> {
+            throw new IllegalStateException("ffprobe failed");
+        });
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(path, probe)).isCompletedWithValue(12.5);
+        assertThat(probes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void probesAgainAfterFileChanges() throws Exception {
+        String path = video("a.webm", "aaaa");
+        cache.get(path, probe);
+
+        Files.writeString(Path.of(path), "aaaaaaaa");
+        cache.get(path, probe);
+
+        assertThat(probes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void bypassesFilesThatCannotBeStatted() {
+        String path = directory.resolve("missing.webm").toString();
+
+        cache.get(path, probe);
+        cache.get(path, probe);
+
+        assertThat(probes.get()).isEqualTo(2);
+        assertThat(lookups("bypass")).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void keepsAtMostMaxEntries() throws Exception {
+        cache.get(video("a.webm", "a"), probe);
+        cache.get(video("b.webm", "b"), probe);
+        cache.get(video("c.webm", "c"), probe);
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    private String video(String name, String content) throws Exception {
+        return Files.writeString(directory.resolve(name), content).toString();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("video.duration.cache").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,129 @@
+package com.skiuo.coreservice.service;
+
+import com.skiuo.coreservice.config.PipelineConfig;
+import com.skiuo.coreservice.config.VideoConfig;
+import com.skiuo.coreservice.entity.PipelineJob;
+import com.skiuo.coreservice.entity.Session;
+import com.skiuo.coreservice.entity.VideoChunk;
+import com.skiuo.coreservice.repository.PipelineJobRepository;
+import com.skiuo.coreservice.repository.SessionRepository;
+import com.skiuo.coreservice.repository.VideoChunkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chunk and completion jobs stop doing work once another instance has claimed them
+ */
+class VideoProcessingServiceTest {
+
+    private static final long SESSION_ID = 7L;
+
+    private final PipelineJobRepository pipelineJobRepository = mock(PipelineJobRepository.class);
+    private final GrpcClientService grpcClientService = mock(GrpcClientService.class);
+    private final MediaOps mediaOps = mock(MediaOps.class);
+    private final AnalysisService analysisService = mock(AnalysisService.class);
+    private final CleanupService cleanupService = mock(CleanupService.class);
+    private final VideoUploadService videoUploadService = mock(VideoUploadService.class);
+    private final SessionRepository sessionRepository = mock(SessionRepository.class);
+    private final SessionCompletionService sessionCompletionService = mock(SessionCompletionService.class);
+    private final MasterVideoService masterVideoService = mock(MasterVideoService.class);
+    private final SessionTaskExecutor sessionTaskExecutor = new SessionTaskExecutor(Runnable::run, new SimpleMeterRegistry());
+    private VideoProcessingService service;
+
+    @BeforeEach
+    void setUp() {
+        PipelineJobService pipelineJobService = new PipelineJobService(
+                pipelineJobRepository, new PipelineConfig(), new SimpleMeterRegistry());
+        when(pipelineJobRepository.save(any(PipelineJob.class))).thenAnswer(invocation -> {
+            PipelineJob job = invocation.getArgument(0);
+            job.setId(1L);
+            job.setAppended(false);
+            return job;
+        });
+
+        Session session = Session.builder()
+                .id(SESSION_ID)
+                .analysisMode(Session.AnalysisMode.SLIDING_WINDOW)
+                .storageType("minio")
+                .keepVideo(false)
+                .currentVideoLength(0.0)
+                .build();
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+
+        service = new VideoProcessingService(new VideoConfig(), grpcClientService, mediaOps,
+                mock(StorageServiceFactory.class), mock(ObjectDeleter.class), analysisService, cleanupService,
+                videoUploadService, mock(VideoChunkRepository.class), sessionRepository,
+                mock(UserMemoryService.class), sessionCompletionService, masterVideoService, sessionTaskExecutor,
+                mock(DurationLedger.class), pipelineJobService, Runnable::run, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionTaskExecutor.shutdown();
+    }
+
+    @Test
+    void chunkClaimedBeforeItStartsIsNotProcessed() {
+        when(pipelineJobRepository.updateOwned(anyLong(), anyString(), any(), any(), any(), any())).thenReturn(0);
+
+        CompletableFuture<Void> result = service.processVideoChunk(session(), chunk(), "/tmp/chunk_0.webm", false);
+
+        assertThat(result).isCompleted();
+        assertThat(result).isNotCompletedExceptionally();
+        verify(videoUploadService, never()).updateSessionStatus(anyLong(), any());
+        verifyNoInteractions(masterVideoService, mediaOps, grpcClientService, analysisService, cleanupService);
+    }
+
+    @Test
+    void chunkClaimedBeforeItsAppendIsNotAppendedOrAnalyzed() {
+        // markRunning still owns the job, the lease check before the append does not
+        when(pipelineJobRepository.updateOwned(anyLong(), anyString(), any(), any(), any(), any())).thenReturn(1, 0);
+
+        CompletableFuture<Void> result = service.processVideoChunk(session(), chunk(), "/tmp/chunk_0.webm", false);
+
+        assertThat(result).isCompleted();
+        assertThat(result).isNotCompletedExceptionally();
+        verifyNoInteractions(masterVideoService, mediaOps, grpcClientService, analysisService, cleanupService);
+        verify(videoUploadService, never()).updateSessionStatus(anyLong(), eq(Session.SessionStatus.FAILED));
+        verify(pipelineJobRepository, never()).updateOwned(anyLong(), anyString(),
+                eq(PipelineJob.JobStatus.DONE), any(), any(), any());
+    }
+
+    @Test
+    void completionClaimedByAnotherInstanceIsNotRun() {
+        when(pipelineJobRepository.updateOwned(anyLong(), anyString(), any(), any(), any(), any())).thenReturn(0);
+        PipelineJob job = PipelineJob.builder()
+                .id(2L)
+                .sessionId(SESSION_ID)
+                .jobType(PipelineJob.JobType.COMPLETION)
+                .build();
+
+        service.resumeCompletionJob(job);
+
+        verifyNoInteractions(sessionCompletionService);
+    }
+
+    private static Session session() {
+        return Session.builder().id(SESSION_ID).build();
+    }
+
+    private static VideoChunk chunk() {
+        return VideoChunk.builder().id(3L).chunkIndex(0).duration(10.0).build();
+    }
+}
@@ -42,14 +42,18 @@ export function useWebSocketWithStore(sessionId: number | null) {
             const data: WebSocketMessage = JSON.parse(message.body)
             console.log('Received analysis result:', data)
 
-            // Add result to store
+            // Add result to store (raw tokens are provisional until the refined result arrives)
+            const provisional = data.type === 'analysis_raw'
             addResult({
               windowIndex: data.windowIndex,
               content: data.content,
               timestamp: data.timestamp,
+              provisional,
             })
 
-            setIsAnalyzing(false)
+            if (!provisional) {
+              setIsAnalyzing(false)
+            }
           } catch (error) {
             console.error('Failed to parse WebSocket message:', error)
           }
@@ -15,6 +15,11 @@ function getAuthToken(): string | null {
   return useAuthStore.getState().accessToken;
 }
 
+/**
+ * Retries of a chunk upload rejected with 429/503 by admission control
+ */
+const UPLOAD_MAX_RETRIES = 5;
+
 /**
  * Upload video chunk to core-service
  */
@@ -48,13 +53,25 @@ export async function uploadVideoChunk(
   }
 
   try {
-    const response = await fetch(`${API_BASE_URL}${API_ENDPOINTS.UPLOAD_VIDEO}`, {
-      method: 'POST',
-      headers: {
-        'Authorization': `Bearer ${token}`,
-      },
-      body: formData,
-    });
+    let response: Response;
+    for (let attempt = 0; ; attempt++) {
+      response = await fetch(`${API_BASE_URL}${API_ENDPOINTS.UPLOAD_VIDEO}`, {
+        method: 'POST',
+        headers: {
+          'Authorization': `Bearer ${token}`,
+        },
+        body: formData,
+      });
+
+      // Server is shedding load: wait as instructed by Retry-After and resend the same chunk
+      const busy = response.status === 429 || response.status === 503;
+      if (!busy || attempt >= UPLOAD_MAX_RETRIES) {
+        break;
+      }
+      const retryAfter = Number(response.headers.get('Retry-After')) || 5;
+      console.warn(`Upload throttled (${response.status}), retrying chunk ${request.chunkIndex} in ${retryAfter}s`);
+      await new Promise((resolve) => setTimeout(resolve, retryAfter * 1000));
+    }
 
     if (!response.ok) {
       throw new Error(`Upload failed: ${response.status} ${response.statusText}`);
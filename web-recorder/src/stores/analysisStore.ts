@@ -40,18 +40,32 @@ export const useAnalysisStore = create<AnalysisState>((set) => ({
     )
 
     if (existingIndex >= 0) {
-      // APPEND content to existing result (streaming)
+      const existing = state.results[existingIndex]
       const newResults = [...state.results]
+
+      if (result.provisional && !existing.provisional) {
+        // Late raw token for a window that is already refined - ignore
+        return state
+      }
+
+      if (existing.provisional && !result.provisional) {
+        // REPLACE provisional raw tokens with the refined result
+        newResults[existingIndex] = { ...result, provisional: false }
+        console.log('[AnalysisStore] Replaced provisional result with refined, window:', result.windowIndex);
+        return { results: newResults }
+      }
+
+      // APPEND content to existing result (streaming)
       newResults[existingIndex] = {
-        ...newResults[existingIndex],
-        content: newResults[existingIndex].content + result.content,
+        ...existing,
+        content: existing.content + result.content,
         timestamp: result.timestamp
       }
       console.log('[AnalysisStore] Appended to existing result, total chars:', newResults[existingIndex].content.length);
       return { results: newResults }
     } else {
-      // Add new result
-      const newResults = [...state.results, result];
+      // Add new result in window order (catch-up windows may start streaming out of order)
+      const newResults = [...state.results, result].sort((a, b) => a.windowIndex - b.windowIndex);
       console.log('[AnalysisStore] Added new result, total:', newResults.length);
       return { results: newResults }
     }
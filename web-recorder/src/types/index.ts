@@ -124,7 +124,8 @@ export interface ServerConfigResponse {
 // ========== WebSocket Message Types ==========
 
 export interface WebSocketMessage {
-  type: 'analysis_result';
+  // analysis_raw: provisional raw tokens (appended), analysis_result: refined content (replaces raw)
+  type: 'analysis_result' | 'analysis_raw';
   sessionId: number;
   windowIndex: number;
   content: string;
@@ -145,6 +146,7 @@ export interface AnalysisResult {
   windowIndex: number;
   content: string;
   timestamp: number;
+  provisional?: boolean; // true while only raw (unrefined) tokens have arrived
 }
 
 // ========== Test Mode Types ==========